@@ -0,0 +1,93 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+
+/**
+ * Interface représentant un joueur automatique.
+ * Un agent choisit aussi bien le mouvement de son pion que celui du pion neutre, comme un joueur humain dans Game.
+ * Une instance n'est utilisée que par un seul fil d'exécution à la fois ; celui qui la crée la ferme avec close
+ * quand il n'en a plus besoin.
+ */
+public interface Agent extends AutoCloseable {
+    // Taille en mégaoctets de la table de transposition d'un agent alphabeta créé par create
+    int TABLE_MEGABYTES = 16;
+
+    /**
+     * Choisit un mouvement parmi les mouvements possibles du pion à déplacer.
+     * @param engine Le moteur de jeu, partie en cours ; il ne doit pas être modifié.
+     * @param moves Les mouvements codés possibles.
+     * @param count Le nombre de mouvements possibles, au moins 1.
+     * @return Le mouvement codé choisi.
+     */
+    int chooseMove(GameEngine engine, int[] moves, int count);
+
+    /**
+     * Décrit le travail fait pour la dernière décision (profondeur, débit...), vide par défaut.
+     * @return Le compte rendu de la dernière décision.
+     */
+    default String report() {
+        return "";
+    }
+
+    /**
+     * Repart d'une nouvelle graine, pour que les choix d'une partie ne dépendent que de sa graine et non des parties
+     * jouées avant par le même agent ; ne fait rien par défaut.
+     * @param seed La nouvelle graine du générateur aléatoire de l'agent.
+     */
+    default void reseed(long seed) {
+    }
+
+    /**
+     * Libère les ressources de l'agent, comme les fils de recherche ; ne fait rien par défaut.
+     */
+    @Override
+    default void close() {
+    }
+
+    /**
+     * Crée un agent à partir de sa description en ligne de commande.
+     * Descriptions reconnues : random, greedy[:kilooctets de cache, 0 pour aucun], tablebase[:fichier],
+     * alphabeta[:millisecondes], mcts[:millisecondes[:fils]].
+     * @param spec La description de l'agent.
+     * @param seed La graine du générateur aléatoire de l'agent.
+     * @return Le nouvel agent.
+     */
+    static Agent create(String spec, long seed) {
+        return create(spec, seed, null);
+    }
+
+    /**
+     * Crée un agent à partir de sa description en ligne de commande, avec une table de transposition fournie.
+     * Permet de réutiliser la table d'alphabeta d'un agent à l'autre plutôt que d'en allouer une hors du tas à chaque fois.
+     * @param spec La description de l'agent.
+     * @param seed La graine du générateur aléatoire de l'agent.
+     * @param table La table de transposition d'alphabeta, ou null pour en créer une de TABLE_MEGABYTES ; ignorée
+     *              par les autres agents.
+     * @return Le nouvel agent.
+     */
+    static Agent create(String spec, long seed, TranspositionTable table) {
+        String[] parts = spec.split(":", 2);
+        switch (parts[0]) {
+            case "random":
+                return new RandomAgent(seed);
+            case "greedy":
+                long cacheBytes = 1024L * (parts.length > 1 ? Long.parseLong(parts[1]) : 8192);
+                return new GreedyAgent(seed, cacheBytes > 0 ? new EvaluationCache(cacheBytes) : null);
+            case "alphabeta":
+                return new AlphaBetaAgent(parts.length > 1 ? Long.parseLong(parts[1]) : 100, 64,
+                        table != null ? table : new TranspositionTable(TABLE_MEGABYTES));
+            case "mcts":
+                String[] options = parts.length > 1 ? parts[1].split(":") : new String[0];
+                return new MctsAgent(options.length > 0 ? Long.parseLong(options[0]) : 100, 0,
+                        options.length > 1 ? Integer.parseInt(options[1]) : 1, 1 << 18, seed);
+            case "tablebase":
+                try {
+                    return new TablebaseAgent(Tablebase.load(Paths.get(parts.length > 1 ? parts[1] : "tablebase.bin")));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            default:
+                throw new IllegalArgumentException("Agent inconnu : " + spec);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Mesure des allocations de la boucle de jeu, pour que les changements de Board et de Game ne ramènent pas de
+ * déchets sur le chemin critique sans qu'on le voie.
+ * Un lot de parties à graine fixe est joué par les règles sans console, de deux façons : par GameEngine seul, comme
+ * les agents et le serveur, ou par Board et les pions, avec les appels que Game fait à chaque mouvement. Les octets
+ * alloués par le fil qui joue sont lus avec ThreadMXBean avant et après le lot, qui est joué une première fois pour
+ * chauffer le compilateur et les caches de BoardRenderer ; chaque façon de jouer a son budget en octets par mouvement.
+ * Quand un budget est dépassé, report rejoue le lot sous un enregistrement JFR et nomme les sites d'allocation, la
+ * première méthode hors du JDK de chaque pile échantillonnée.
+ */
+public class AllocationProfiler {
+    public static final int GAMES = 200;
+    public static final long SEED = 20240601L;
+    // Au-delà, une partie est arrêtée : les parties aléatoires se terminent presque toutes bien avant
+    private static final int MAX_TURNS = 100;
+    private static final int REPORT_SITES = 10;
+    private static final int MEASURES = 3;
+    // Lu une fois : ManagementFactory.getThreadMXBean alloue à chaque appel
+    private static final java.lang.management.ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    /**
+     * Façons de jouer le lot de parties, avec leur budget en octets alloués par mouvement.
+     */
+    public enum Workload {
+        // GameEngine.generateOptions, resolveOption et applyMove : aucune allocation
+        MOTEUR(0),
+        // Board.getBoardWithMoveOptions, getAvailableMoves et getRightColumnSpots, puis BoardRenderer.text : la liste
+        // des options et les cases de droite sont allouées à chaque mouvement, le texte vient du cache
+        CONSOLE(96);
+
+        private final int budget;
+
+        Workload(int budget) {
+            this.budget = budget;
+        }
+
+        /**
+         * Méthode pour obtenir le budget de la façon de jouer.
+         * @return Le nombre maximal d'octets alloués par mouvement.
+         */
+        public int getBudget() {
+            return budget;
+        }
+    }
+
+    private final GameEngine engine = new GameEngine();
+    private final Board board = new Board(engine.getBoard());
+    private final Pion[] pions = new Pion[BitBoard.PIECE_COUNT];
+    private final int[] options = new int[BitBoard.MAX_MOVES];
+    // Consomme les résultats pour que le compilateur ne supprime pas les appels mesurés
+    private long sink;
+
+    /**
+     * Constructeur de la classe AllocationProfiler.
+     */
+    public AllocationProfiler() {
+        for (int piece = 0; piece < BitBoard.PIECE_COUNT; piece++) {
+            pions[piece] = new Pion(BitBoard.color(piece), 0, Pion.Orientation.HORIZONTAL);
+        }
+    }
+
+    /**
+     * Méthode pour obtenir les octets alloués jusqu'ici par le fil courant.
+     * @return Le nombre d'octets, ou -1 si la JVM ne les compte pas.
+     */
+    public static long allocatedBytes() {
+        if (!(THREADS instanceof com.sun.management.ThreadMXBean)) return -1;
+        com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) THREADS;
+        return counter.isThreadAllocatedMemoryEnabled() ? counter.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    /**
+     * Mesure les octets alloués par mouvement en jouant un lot de parties, après un premier lot identique de chauffe.
+     * Le lot est mesuré MEASURES fois et la plus petite mesure est gardée : une compilation ou une initialisation
+     * tardive ne peut qu'ajouter des octets qui ne reviennent pas à chaque mouvement.
+     * @param workload La façon de jouer.
+     * @param games Le nombre de parties.
+     * @param seed La graine des choix.
+     * @return La moyenne d'octets alloués par mouvement, ou -1 si la JVM ne compte pas les allocations.
+     */
+    public double bytesPerMove(Workload workload, int games, long seed) {
+        play(workload, games, new SplittableRandom(seed));
+        double best = Double.MAX_VALUE;
+        for (int measure = 0; measure < MEASURES; measure++) {
+            SplittableRandom random = new SplittableRandom(seed);
+            long before = allocatedBytes();
+            long moves = play(workload, games, random);
+            long after = allocatedBytes();
+            if (before < 0) return -1;
+            best = Math.min(best, (double) (after - before) / moves);
+        }
+        return best;
+    }
+
+    /**
+     * Joue un lot de parties en choisissant chaque option au hasard.
+     * @param workload La façon de jouer.
+     * @param games Le nombre de parties.
+     * @param random Le générateur des choix, créé par l'appelant pour ne pas compter dans la mesure.
+     * @return Le nombre de mouvements joués, pion neutre compris.
+     */
+    public long play(Workload workload, int games, SplittableRandom random) {
+        long moves = 0;
+        for (int game = 0; game < games; game++) {
+            engine.reset();
+            engine.assignPions(random.nextBoolean() ? BitBoard.RED : BitBoard.BLUE);
+            for (Pion pion : pions) {
+                synchronize(pion);
+            }
+            while (!engine.isOver() && engine.getTurn() < MAX_TURNS) {
+                if (workload == Workload.MOTEUR) {
+                    int count = engine.generateOptions(options);
+                    engine.applyMove(engine.resolveOption(options[random.nextInt(count)]));
+                    sink += engine.getScore(0) + engine.getScore(1);
+                } else {
+                    playConsoleMove(random);
+                }
+                moves++;
+            }
+            sink += engine.getOutcome().ordinal();
+        }
+        return moves;
+    }
+
+    /**
+     * Joue un mouvement avec les appels de Game.executePlayerTurn et executeNeutralTurn, sans la console.
+     */
+    private void playConsoleMove(SplittableRandom random) {
+        boolean neutral = engine.isNeutralTurn();
+        Pion pion = pions[engine.getPieceToMove()];
+        sink += board.getBoardWithMoveOptions(pion).length();
+        List<Integer> available = board.getAvailableMoves(pion);
+        engine.applyMove(engine.resolveOption(available.get(random.nextInt(available.size()))));
+        synchronize(pion);
+        if (!neutral) {
+            sink += board.getRightColumnSpots()[0];
+            sink += BoardRenderer.text(engine.getBoard()).length();
+        }
+    }
+
+    private void synchronize(Pion pion) {
+        int placement = engine.getBoard().getPlacement(BitBoard.pieceIndex(pion.getColor()));
+        pion.setPosition(BitBoard.position(placement));
+        pion.setOrientation(Board.orientation(placement));
+    }
+
+    /**
+     * Rejoue un lot de parties sous un enregistrement JFR et décrit les principaux sites d'allocation.
+     * Les allocations sont échantillonnées par l'événement jdk.ObjectAllocationSample, pondéré en octets ; un site
+     * est la première méthode de la pile qui n'appartient pas au JDK, avec la classe de l'objet alloué.
+     * @param workload La façon de jouer.
+     * @param games Le nombre de parties.
+     * @param seed La graine des choix.
+     * @return Le rapport, une ligne par site, des plus gros aux plus petits.
+     */
+    public String report(Workload workload, int games, long seed) {
+        play(workload, games, new SplittableRandom(seed));
+        Path file = null;
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.ObjectAllocationSample").with("throttle", "10000/s").withStackTrace();
+            recording.start();
+            // Plusieurs passages, pour que l'échantillonnage voie aussi les petits sites
+            long moves = 0;
+            for (int pass = 0; pass < 10; pass++) {
+                moves += play(workload, games, new SplittableRandom(seed));
+            }
+            recording.stop();
+            file = Files.createTempFile("allocations", ".jfr");
+            recording.dump(file);
+            return describe(RecordingFile.readAllEvents(file), workload, moves);
+        } catch (IOException e) {
+            return "Rapport JFR impossible : " + e.getMessage();
+        } finally {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException ignored) {
+                    // Fichier temporaire : le système le supprimera
+                }
+            }
+        }
+    }
+
+    /**
+     * Regroupe les échantillons d'allocation du fil courant par site et les décrit.
+     */
+    private static String describe(List<RecordedEvent> events, Workload workload, long moves) {
+        String threadName = Thread.currentThread().getName();
+        Map<String, Long> sites = new HashMap<>();
+        long total = 0;
+        int samples = 0;
+        for (RecordedEvent event : events) {
+            if (event.getThread("eventThread") == null
+                    || !threadName.equals(event.getThread("eventThread").getJavaName())) continue;
+            long weight = event.getLong("weight");
+            String site = site(event.getStackTrace()) + " → " + event.getClass("objectClass").getName();
+            sites.merge(site, weight, Long::sum);
+            total += weight;
+            samples++;
+        }
+        StringBuilder report = new StringBuilder();
+        report.append("Allocations échantillonnées par JFR pour ").append(workload).append(" : ")
+                .append(samples).append(" échantillons sur ").append(moves).append(" mouvements, budget ")
+                .append(workload.getBudget()).append(" octets par mouvement\n");
+        List<Map.Entry<String, Long>> sorted = new ArrayList<>(sites.entrySet());
+        sorted.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        for (int i = 0; i < Math.min(REPORT_SITES, sorted.size()); i++) {
+            Map.Entry<String, Long> entry = sorted.get(i);
+            report.append(String.format("  %5.1f %%  %s%n", 100.0 * entry.getValue() / total, entry.getKey()));
+        }
+        if (sorted.isEmpty()) {
+            report.append("  aucune allocation échantillonnée\n");
+        }
+        return report.toString();
+    }
+
+    /**
+     * Première méthode de la pile hors du JDK, avec sa ligne.
+     */
+    private static String site(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) return "pile inconnue";
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith("java.") || type.startsWith("jdk.") || type.startsWith("sun.")) continue;
+            return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+        }
+        return "JDK";
+    }
+
+    /**
+     * Mesure chaque façon de jouer et affiche le rapport JFR de celles qui dépassent leur budget.
+     * Arguments : [moteur | console | tout] [nombre de parties] [rapport, pour l'afficher même sous le budget].
+     * @param args Les arguments de la ligne de commande.
+     */
+    public static void main(String[] args) {
+        String which = args.length > 0 ? args[0] : "tout";
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : GAMES;
+        boolean alwaysReport = args.length > 2 && args[2].equals("rapport");
+        AllocationProfiler profiler = new AllocationProfiler();
+        boolean overBudget = false;
+        for (Workload workload : Workload.values()) {
+            if (!which.equals("tout") && !which.equalsIgnoreCase(workload.name())) continue;
+            double bytes = profiler.bytesPerMove(workload, games, SEED);
+            if (bytes < 0) {
+                System.out.println("La JVM ne compte pas les octets alloués par fil.");
+                return;
+            }
+            boolean over = bytes > workload.getBudget();
+            overBudget |= over;
+            System.out.printf("%-8s %8.1f octets par mouvement, budget %d%s%n", workload, bytes,
+                    workload.getBudget(), over ? " : DÉPASSÉ" : "");
+            if (over || alwaysReport) {
+                System.out.print(profiler.report(workload, games, SEED));
+            }
+        }
+        if (overBudget) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+/**
+ * Agent de recherche alpha-bêta (negamax) par approfondissement itératif, borné par un budget de temps par coup.
+ * Chaque demi-coup de la recherche est un mouvement du moteur : le mouvement du joueur puis celui du pion neutre,
+ * joués par le même joueur ; le signe de la note ne change que lorsque la main passe à l'adversaire.
+ * La recherche joue et annule les mouvements sur un seul moteur (makeMove et unmakeMove).
+ * Une table de transposition facultative, éventuellement partagée entre agents, garde les notes et les meilleurs coups.
+ * L'évaluation repose sur les scores et sur l'occupation de la colonne de droite, comme Game.updateScores.
+ */
+public class AlphaBetaAgent implements Agent {
+    // Notes des fins de partie, corrigées par la profondeur pour préférer les gains rapides
+    static final int WIN_SCORE = 1_000_000;
+    private static final int MAX_PLY = 64;
+    // Fréquence de consultation de l'horloge, en nœuds
+    private static final int CLOCK_MASK = 1023;
+
+    private final long budgetNanos;
+    private final int maxDepth;
+    private final TranspositionTable table;
+    // Le moteur de recherche et un tampon de mouvements par profondeur, pour ne rien allouer pendant la recherche
+    private final GameEngine search = new GameEngine();
+    private final int[][] moves = new int[MAX_PLY + 1][BitBoard.MAX_MOVES];
+
+    private long deadline;
+    private boolean aborted;
+    private long nodes;
+    private int lastDepth;
+    private long lastNodes;
+    private long lastNanos;
+    private int lastScore;
+
+    /**
+     * Constructeur de la classe AlphaBetaAgent.
+     * @param budgetMillis Le temps de réflexion par coup, en millisecondes.
+     * @param maxDepth La profondeur maximale en demi-coups.
+     */
+    public AlphaBetaAgent(long budgetMillis, int maxDepth) {
+        this(budgetMillis, maxDepth, null);
+    }
+
+    /**
+     * Constructeur de la classe AlphaBetaAgent avec une table de transposition.
+     * @param budgetMillis Le temps de réflexion par coup, en millisecondes.
+     * @param maxDepth La profondeur maximale en demi-coups.
+     * @param table La table de transposition, ou null pour s'en passer.
+     */
+    public AlphaBetaAgent(long budgetMillis, int maxDepth, TranspositionTable table) {
+        this.budgetNanos = budgetMillis * 1_000_000L;
+        this.maxDepth = Math.min(maxDepth, MAX_PLY);
+        this.table = table;
+    }
+
+    @Override
+    public int chooseMove(GameEngine engine, int[] rootMoves, int count) {
+        long start = System.nanoTime();
+        deadline = start + budgetNanos;
+        aborted = false;
+        nodes = 0;
+        int bestMove = rootMoves[0];
+        int depthReached = 0;
+        search.copyFrom(engine);
+        int[] ordered = moves[0];
+        System.arraycopy(rootMoves, 0, ordered, 0, count);
+
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            int alpha = -WIN_SCORE - 1;
+            int iterationBest = ordered[0];
+            for (int i = 0; i < count && !aborted; i++) {
+                int score = child(ordered[i], 1, depth - 1, alpha, WIN_SCORE + 1);
+                if (!aborted && score > alpha) {
+                    alpha = score;
+                    iterationBest = ordered[i];
+                }
+            }
+            if (aborted) break;
+            bestMove = iterationBest;
+            depthReached = depth;
+            lastScore = alpha;
+            moveToFront(ordered, count, bestMove);
+            // Inutile d'aller plus loin quand l'issue est déjà connue
+            if (Math.abs(alpha) >= WIN_SCORE - MAX_PLY) break;
+        }
+
+        lastDepth = depthReached;
+        lastNodes = nodes;
+        lastNanos = System.nanoTime() - start;
+        GameMetrics.ALPHABETA_SEARCH.record(lastNanos, lastNodes);
+        return bestMove;
+    }
+
+    /**
+     * Joue un mouvement, note la position obtenue du point de vue du joueur qui avait la main, puis l'annule.
+     */
+    private int child(int move, int ply, int depth, int alpha, int beta) {
+        int player = search.getCurrentPlayer();
+        search.makeMove(move);
+        int score = search.getCurrentPlayer() == player
+                ? negamax(ply, depth, alpha, beta)
+                : -negamax(ply, depth, -beta, -alpha);
+        search.unmakeMove();
+        return score;
+    }
+
+    /**
+     * Recherche negamax avec élagage alpha-bêta sur la position courante du moteur de recherche.
+     * @return La note de la position du point de vue du joueur qui a la main.
+     */
+    private int negamax(int ply, int depth, int alpha, int beta) {
+        GameEngine position = search;
+        if ((++nodes & CLOCK_MASK) == 0 && System.nanoTime() > deadline) {
+            aborted = true;
+        }
+        if (aborted) return 0;
+        if (position.isOver()) return terminalScore(position, ply);
+        if (depth == 0 || ply == MAX_PLY) return evaluate(position);
+
+        int[] buffer = moves[ply];
+        int count = position.generateMoves(buffer);
+        long key = 0;
+        int alphaOrigin = alpha;
+        if (table != null) {
+            key = position.hash();
+            long data = table.probe(key);
+            if (data != TranspositionTable.MISS) {
+                if (TranspositionTable.depth(data) >= depth) {
+                    int score = fromTable(TranspositionTable.score(data), ply);
+                    int bound = TranspositionTable.bound(data);
+                    if (bound == TranspositionTable.EXACT) return score;
+                    if (bound == TranspositionTable.LOWER_BOUND) alpha = Math.max(alpha, score);
+                    else beta = Math.min(beta, score);
+                    if (alpha >= beta) return score;
+                }
+                moveToFront(buffer, count, TranspositionTable.move(data));
+            }
+        }
+        int best = -WIN_SCORE - 1;
+        int bestMove = 0xFF;
+        for (int i = 0; i < count; i++) {
+            int score = child(buffer[i], ply + 1, depth - 1, alpha, beta);
+            if (aborted) return 0;
+            if (score > best) {
+                best = score;
+                bestMove = buffer[i];
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) break;
+                }
+            }
+        }
+        if (table != null) {
+            int bound = best <= alphaOrigin ? TranspositionTable.UPPER_BOUND
+                    : best >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+            table.store(key, TranspositionTable.pack(toTable(best, ply), depth, bound, bestMove));
+        }
+        return best;
+    }
+
+    /**
+     * Rend une note de fin de partie indépendante de la profondeur avant de l'enregistrer dans la table.
+     */
+    private static int toTable(int score, int ply) {
+        if (score >= WIN_SCORE - MAX_PLY) return score + ply;
+        if (score <= MAX_PLY - WIN_SCORE) return score - ply;
+        return score;
+    }
+
+    /**
+     * Ramène une note de fin de partie lue dans la table à la profondeur courante.
+     */
+    private static int fromTable(int score, int ply) {
+        if (score >= WIN_SCORE - MAX_PLY) return score - ply;
+        if (score <= MAX_PLY - WIN_SCORE) return score + ply;
+        return score;
+    }
+
+    /**
+     * Note une partie terminée du point de vue du joueur qui a la main.
+     */
+    static int terminalScore(GameEngine position, int ply) {
+        int winner = position.getOutcome().getWinner();
+        if (winner < 0) return 0;
+        return winner == position.getCurrentPlayer() ? WIN_SCORE - ply : ply - WIN_SCORE;
+    }
+
+    /**
+     * Évalue une position du point de vue du joueur qui a la main.
+     * L'écart de score compte le plus, puis les cases tenues dans la colonne de droite, qui rapporteront au prochain
+     * coup. Approcher 12 points pendant que l'adversaire en a moins de 6 est pénalisé à cause de la règle des 6 points.
+     * @param position La position à évaluer, partie en cours.
+     * @return La note de la position.
+     */
+    static int evaluate(GameEngine position) {
+        int player = position.getCurrentPlayer();
+        BitBoard board = position.getBoard();
+        return playerValue(position.getScore(player), position.getScore(player ^ 1),
+                board.rightColumnCount(position.getPlayerPiece(player)))
+                - playerValue(position.getScore(player ^ 1), position.getScore(player),
+                board.rightColumnCount(position.getPlayerPiece(player ^ 1)));
+    }
+
+    private static int playerValue(int score, int opponentScore, int rightColumn) {
+        int value = score * 10 + rightColumn * 4;
+        if (opponentScore < GameEngine.MINIMUM_OPPONENT_SCORE && score > GameEngine.WINNING_SCORE - 5) {
+            value -= (score - (GameEngine.WINNING_SCORE - 5)) * 25;
+        }
+        return value;
+    }
+
+    private static void moveToFront(int[] buffer, int count, int move) {
+        for (int i = 0; i < count; i++) {
+            if (buffer[i] == move) {
+                System.arraycopy(buffer, 0, buffer, 1, i);
+                buffer[0] = move;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Méthode pour obtenir la profondeur atteinte lors de la dernière décision.
+     * @return La profondeur complètement explorée, en demi-coups.
+     */
+    public int getLastDepth() {
+        return lastDepth;
+    }
+
+    /**
+     * Méthode pour obtenir la note du mouvement choisi lors de la dernière décision.
+     * @return La note, du point de vue du joueur qui avait la main.
+     */
+    public int getLastScore() {
+        return lastScore;
+    }
+
+    /**
+     * Méthode pour obtenir le débit de la dernière décision.
+     * @return Le nombre de nœuds visités par seconde.
+     */
+    public long getNodesPerSecond() {
+        return lastNanos == 0 ? 0 : lastNodes * 1_000_000_000L / lastNanos;
+    }
+
+    @Override
+    public String report() {
+        String report = String.format("profondeur %d, %d nœuds, %d nœuds/s, note %d",
+                lastDepth, lastNodes, getNodesPerSecond(), lastScore);
+        return table == null ? report : report + ", " + table.statistics();
+    }
+}
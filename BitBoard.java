@@ -0,0 +1,414 @@
+/**
+ * Représentation compacte du plateau de jeu sous forme d'entiers.
+ * Chaque pion occupe un masque de 9 bits (un bit par case) et son placement est codé dans un entier
+ * (position dans les 4 bits de poids faible, bit VERTICAL pour l'orientation).
+ * Les mouvements sont générés dans un tampon d'entiers fourni par l'appelant, sans aucune allocation.
+ */
+public class BitBoard {
+    // Indices des pions dans les tableaux de masques et de placements
+    public static final int RED = 0;
+    public static final int BLUE = 1;
+    public static final int WHITE = 2;
+    public static final int PIECE_COUNT = 3;
+
+    // Nombre de cases du plateau et masque de la colonne de droite (cases 2, 5 et 8)
+    public static final int CELL_COUNT = 9;
+    public static final int RIGHT_COLUMN = (1 << 2) | (1 << 5) | (1 << 8);
+
+    // Bit indiquant l'orientation verticale dans un placement codé
+    public static final int VERTICAL = 0x10;
+    private static final int POSITION_MASK = 0x0F;
+
+    // Nombre maximal d'options de mouvement pour un pion (6 horizontales et 6 verticales)
+    public static final int MAX_MOVES = 12;
+
+    // Empreinte (cases occupées) de chaque placement codé, indexée par le placement
+    private static final int[] FOOTPRINT = new int[32];
+    // Nombre de cases de la colonne de droite couvertes par chaque placement codé
+    private static final int[] RIGHT_COLUMN_COUNT = new int[32];
+    // Deuxième case d'un placement horizontal ou vertical, -1 si le placement sort du plateau
+    private static final int[] HORIZONTAL_SECOND = new int[CELL_COUNT];
+    private static final int[] VERTICAL_SECOND = new int[CELL_COUNT];
+
+    static {
+        for (int position = 0; position < CELL_COUNT; position++) {
+            HORIZONTAL_SECOND[position] = position % 3 < 2 ? position + 1 : -1;
+            VERTICAL_SECOND[position] = position >= 3 ? position - 3 : -1;
+            // Comme pour Board.clearPionPosition, un placement qui déborde n'occupe que sa case de départ
+            FOOTPRINT[position] = (1 << position)
+                    | (HORIZONTAL_SECOND[position] >= 0 ? 1 << HORIZONTAL_SECOND[position] : 0);
+            FOOTPRINT[position | VERTICAL] = (1 << position)
+                    | (VERTICAL_SECOND[position] >= 0 ? 1 << VERTICAL_SECOND[position] : 0);
+            RIGHT_COLUMN_COUNT[position] = Integer.bitCount(FOOTPRINT[position] & RIGHT_COLUMN);
+            RIGHT_COLUMN_COUNT[position | VERTICAL] = Integer.bitCount(FOOTPRINT[position | VERTICAL] & RIGHT_COLUMN);
+        }
+    }
+
+    // Masque des cases occupées par chaque pion
+    private final int[] masks = new int[PIECE_COUNT];
+    // Placement codé de chaque pion
+    private final int[] placements = new int[PIECE_COUNT];
+    // Cases de la colonne de droite occupées par chaque pion, tenues à jour à chaque entrée ou sortie de 2, 5 et 8
+    private final int[] rightColumn = new int[PIECE_COUNT];
+    // Hachage de Zobrist des placements des trois pions, mis à jour à chaque changement de placement
+    private long hash = Zobrist.PLACEMENT[RED][0] ^ Zobrist.PLACEMENT[BLUE][0] ^ Zobrist.PLACEMENT[WHITE][0];
+    // Journal d'annulation : pion et placement précédent de chaque mouvement empilé
+    private int[] undoLog = new int[64];
+    private int undoSize;
+
+    /**
+     * Constructeur pour initialiser le plateau avec la disposition de départ.
+     */
+    public BitBoard() {
+        reset();
+    }
+
+    /**
+     * Replace les trois pions dans leur disposition de départ : rouge en 1, blanc en 4 et bleu en 7, tous horizontaux.
+     */
+    public void reset() {
+        setPlacement(RED, encode(1, false));
+        setPlacement(WHITE, encode(4, false));
+        setPlacement(BLUE, encode(7, false));
+        undoSize = 0;
+    }
+
+    /**
+     * Copie l'état d'un autre plateau dans celui-ci.
+     * @param other Le plateau à copier.
+     */
+    public void copyFrom(BitBoard other) {
+        System.arraycopy(other.masks, 0, masks, 0, PIECE_COUNT);
+        System.arraycopy(other.placements, 0, placements, 0, PIECE_COUNT);
+        System.arraycopy(other.rightColumn, 0, rightColumn, 0, PIECE_COUNT);
+        hash = other.hash;
+        undoSize = 0;
+    }
+
+    /**
+     * Code un placement à partir d'une position et d'une orientation.
+     * @param position La position de la case de départ.
+     * @param vertical Vrai si le placement est vertical.
+     * @return Le placement codé.
+     */
+    public static int encode(int position, boolean vertical) {
+        return vertical ? position | VERTICAL : position;
+    }
+
+    /**
+     * Obtient la position d'un placement codé.
+     * @param placement Le placement codé.
+     * @return La position de la case de départ.
+     */
+    public static int position(int placement) {
+        return placement & POSITION_MASK;
+    }
+
+    /**
+     * Indique si un placement codé est vertical.
+     * @param placement Le placement codé.
+     * @return Vrai si le placement est vertical.
+     */
+    public static boolean isVertical(int placement) {
+        return (placement & VERTICAL) != 0;
+    }
+
+    /**
+     * Note un placement codé : la case d'ancrage suivie de H ou V, par exemple 4H.
+     * @param placement Le placement codé.
+     * @return La notation du placement.
+     */
+    public static String notation(int placement) {
+        return position(placement) + (isVertical(placement) ? "V" : "H");
+    }
+
+    /**
+     * Obtient le masque des cases couvertes par un placement codé.
+     * @param placement Le placement codé.
+     * @return Le masque des cases couvertes.
+     */
+    public static int footprint(int placement) {
+        return FOOTPRINT[placement];
+    }
+
+    /**
+     * Obtient l'indice de pion correspondant à une couleur, -1 pour la couleur spéciale (case vide).
+     * @param color La couleur du pion.
+     * @return L'indice du pion.
+     */
+    public static int pieceIndex(Pion.Color color) {
+        switch (color) {
+            case RED:
+                return RED;
+            case BLUE:
+                return BLUE;
+            case WHITE:
+                return WHITE;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Obtient la couleur correspondant à un indice de pion.
+     * @param piece L'indice du pion.
+     * @return La couleur du pion.
+     */
+    public static Pion.Color color(int piece) {
+        switch (piece) {
+            case RED:
+                return Pion.Color.RED;
+            case BLUE:
+                return Pion.Color.BLUE;
+            case WHITE:
+                return Pion.Color.WHITE;
+            default:
+                return Pion.Color.SPECIAL;
+        }
+    }
+
+    /**
+     * Obtient le masque des cases occupées par un pion.
+     * @param piece L'indice du pion, -1 pour aucun pion.
+     * @return Le masque des cases occupées.
+     */
+    public int getMask(int piece) {
+        return piece < 0 ? 0 : masks[piece];
+    }
+
+    /**
+     * Obtient le masque de toutes les cases occupées.
+     * @return Le masque des cases occupées.
+     */
+    public int getOccupied() {
+        return masks[RED] | masks[BLUE] | masks[WHITE];
+    }
+
+    /**
+     * Obtient le placement codé d'un pion.
+     * @param piece L'indice du pion.
+     * @return Le placement codé.
+     */
+    public int getPlacement(int piece) {
+        return placements[piece];
+    }
+
+    /**
+     * Obtient le symbole de la case à une position donnée ('O' pour une case vide).
+     * @param position La position de la case.
+     * @return Le symbole de la case.
+     */
+    public char symbolAt(int position) {
+        int bit = 1 << position;
+        if ((masks[RED] & bit) != 0) return 'R';
+        if ((masks[BLUE] & bit) != 0) return 'B';
+        if ((masks[WHITE] & bit) != 0) return 'W';
+        return 'O';
+    }
+
+    /**
+     * Compte les cases de la colonne de droite occupées par un pion.
+     * @param piece L'indice du pion.
+     * @return Le nombre de cases occupées dans la colonne de droite.
+     */
+    public int rightColumnCount(int piece) {
+        return rightColumn[piece];
+    }
+
+    /**
+     * Obtient le hachage de Zobrist des placements des pions.
+     * @return Le hachage sur 64 bits.
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Vérifie si un pion peut se déplacer horizontalement à une position donnée.
+     * Même règle que Board.canMoveHorizontal : la case doit être vide et la case de droite vide ou occupée par le pion.
+     * @param piece L'indice du pion.
+     * @param position La position à vérifier.
+     * @return Un booléen indiquant si le déplacement horizontal est possible.
+     */
+    public boolean canMoveHorizontal(int piece, int position) {
+        int second = HORIZONTAL_SECOND[position];
+        return second >= 0 && isFree(piece, position, second);
+    }
+
+    /**
+     * Vérifie si un pion peut se déplacer verticalement à une position donnée.
+     * Même règle que Board.canMoveVertical : la case doit être vide et la case du dessus vide ou occupée par le pion.
+     * @param piece L'indice du pion.
+     * @param position La position à vérifier.
+     * @return Un booléen indiquant si le déplacement vertical est possible.
+     */
+    public boolean canMoveVertical(int piece, int position) {
+        int second = VERTICAL_SECOND[position];
+        return second >= 0 && isFree(piece, position, second);
+    }
+
+    private boolean isFree(int piece, int position, int second) {
+        int occupied = getOccupied();
+        int others = occupied & ~getMask(piece);
+        return (occupied & (1 << position)) == 0 && (others & (1 << second)) == 0;
+    }
+
+    /**
+     * Remplit le tampon avec les options de mouvement d'un pion, dans l'ordre de Board.getAvailableMoves :
+     * d'abord les positions horizontales puis les positions verticales. Une même position peut apparaître deux fois.
+     * @param piece L'indice du pion.
+     * @param buffer Le tampon recevant les positions, d'au moins MAX_MOVES cases.
+     * @return Le nombre d'options écrites dans le tampon.
+     */
+    public int generateOptions(int piece, int[] buffer) {
+        int count = 0;
+        for (int position = 0; position < CELL_COUNT; position++) {
+            if (canMoveHorizontal(piece, position)) {
+                buffer[count++] = position;
+            }
+        }
+        for (int position = 3; position < CELL_COUNT; position++) {
+            if (canMoveVertical(piece, position)) {
+                buffer[count++] = position;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Remplit le tampon avec les mouvements distincts d'un pion, codés avec l'orientation qui sera réellement appliquée.
+     * Comme Board.calculateNewOrientation préfère la verticale, une position jouable dans les deux sens n'est
+     * produite qu'une fois, en vertical.
+     * @param piece L'indice du pion.
+     * @param buffer Le tampon recevant les mouvements codés, d'au moins MAX_MOVES cases.
+     * @return Le nombre de mouvements écrits dans le tampon.
+     */
+    public int generateMoves(int piece, int[] buffer) {
+        int count = 0;
+        for (int position = 0; position < CELL_COUNT; position++) {
+            if (canMoveHorizontal(piece, position) && !canMoveVertical(piece, position)) {
+                buffer[count++] = position;
+            }
+        }
+        for (int position = 3; position < CELL_COUNT; position++) {
+            if (canMoveVertical(piece, position)) {
+                buffer[count++] = position | VERTICAL;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Indique si un pion a au moins un mouvement possible.
+     * @param piece L'indice du pion.
+     * @return Vrai si le pion peut se déplacer.
+     */
+    public boolean hasMoves(int piece) {
+        for (int position = 0; position < CELL_COUNT; position++) {
+            if (canMoveHorizontal(piece, position) || canMoveVertical(piece, position)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Résout l'option choisie (une position) en mouvement codé, comme le fait Board.effectuerMouvement.
+     * @param piece L'indice du pion.
+     * @param position La position choisie.
+     * @return Le mouvement codé, ou -1 si la position n'est pas jouable.
+     */
+    public int resolveMove(int piece, int position) {
+        if (canMoveVertical(piece, position)) return position | VERTICAL;
+        if (canMoveHorizontal(piece, position)) return position;
+        return -1;
+    }
+
+    /**
+     * Applique un mouvement codé supposé valide : efface l'ancien placement du pion et occupe le nouveau.
+     * @param piece L'indice du pion.
+     * @param move Le mouvement codé.
+     */
+    public void applyMove(int piece, int move) {
+        setPlacement(piece, move);
+    }
+
+    /**
+     * Applique un mouvement codé supposé valide en l'inscrivant dans le journal d'annulation.
+     * @param piece L'indice du pion.
+     * @param move Le mouvement codé.
+     */
+    public void pushMove(int piece, int move) {
+        if (undoSize == undoLog.length) {
+            undoLog = java.util.Arrays.copyOf(undoLog, undoSize * 2);
+        }
+        undoLog[undoSize++] = (piece << 8) | placements[piece];
+        setPlacement(piece, move);
+    }
+
+    /**
+     * Annule le dernier mouvement empilé par pushMove : le pion retrouve sa position et son orientation précédentes.
+     * @return L'indice du pion replacé.
+     */
+    public int popMove() {
+        int entry = undoLog[--undoSize];
+        int piece = entry >>> 8;
+        setPlacement(piece, entry & 0xFF);
+        return piece;
+    }
+
+    /**
+     * Obtient le nombre de mouvements dans le journal d'annulation.
+     * @return La profondeur du journal.
+     */
+    public int getUndoSize() {
+        return undoSize;
+    }
+
+    /**
+     * Définit directement le placement d'un pion, sans vérification.
+     * @param piece L'indice du pion.
+     * @param placement Le placement codé.
+     */
+    public void setPlacement(int piece, int placement) {
+        masks[piece] = FOOTPRINT[placement];
+        recordPlacement(piece, placement);
+        rightColumn[piece] = RIGHT_COLUMN_COUNT[placement];
+    }
+
+    /**
+     * Efface les cases d'un masque, quel que soit le pion qui les occupe.
+     * @param cells Le masque des cases à effacer.
+     */
+    void clearCells(int cells) {
+        masks[RED] &= ~cells;
+        masks[BLUE] &= ~cells;
+        masks[WHITE] &= ~cells;
+        if ((cells & RIGHT_COLUMN) != 0) {
+            for (int piece = 0; piece < PIECE_COUNT; piece++) {
+                rightColumn[piece] = Integer.bitCount(masks[piece] & RIGHT_COLUMN);
+            }
+        }
+    }
+
+    /**
+     * Marque les cases d'un masque comme occupées par un pion, sans toucher à son placement enregistré.
+     * @param piece L'indice du pion.
+     * @param cells Le masque des cases à occuper.
+     */
+    void fillCells(int piece, int cells) {
+        clearCells(cells);
+        masks[piece] |= cells;
+        rightColumn[piece] = Integer.bitCount(masks[piece] & RIGHT_COLUMN);
+    }
+
+    /**
+     * Enregistre le placement d'un pion sans modifier les masques.
+     * @param piece L'indice du pion.
+     * @param placement Le placement codé.
+     */
+    void recordPlacement(int piece, int placement) {
+        hash ^= Zobrist.PLACEMENT[piece][placements[piece]] ^ Zobrist.PLACEMENT[piece][placement];
+        placements[piece] = placement;
+    }
+}
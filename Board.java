@@ -4,8 +4,11 @@ import java.util.*;
  * Classe représentant le plateau de jeu.
  */
 public class Board {
-    // Le plateau de jeu est représenté par un tableau de 9 cases. Chaque case est soit vide (O) soit contient un pion (R, B, W).
-    private char[] spots;
+    // Le plateau de jeu est représenté par un BitBoard : un masque de 9 bits par pion. Chaque case est soit vide (O) soit contient un pion (R, B, W).
+    private final BitBoard bits;
+
+    // Tampon réutilisé pour la génération des mouvements
+    private final int[] moveBuffer = new int[BitBoard.MAX_MOVES];
 
     // Initialisation des pions sur le plateau
     private Pion pionRouge, pionBleu, pionBlanc;
@@ -14,14 +17,40 @@ public class Board {
      * Constructeur pour initialiser le plateau de jeu et les pions sur le plateau.
      */
     public Board() {
-        // Initialiser le plateau de jeu avec des cases vides
-        this.spots = new char[9];
-        // Remplir le tableau avec des cases vides
-        Arrays.fill(this.spots, 'O');
+        // Initialiser le plateau de jeu
+        this.bits = new BitBoard();
         // Initialiser les pions sur le plateau
         initPions();
     }
 
+    /**
+     * Constructeur pour afficher et manipuler un plateau compact existant sans replacer les pions.
+     * @param bits Le plateau compact à envelopper.
+     */
+    public Board(BitBoard bits) {
+        this.bits = bits;
+        this.pionRouge = new Pion(Pion.Color.RED, BitBoard.position(bits.getPlacement(BitBoard.RED)), orientation(bits.getPlacement(BitBoard.RED)));
+        this.pionBleu = new Pion(Pion.Color.BLUE, BitBoard.position(bits.getPlacement(BitBoard.BLUE)), orientation(bits.getPlacement(BitBoard.BLUE)));
+        this.pionBlanc = new Pion(Pion.Color.WHITE, BitBoard.position(bits.getPlacement(BitBoard.WHITE)), orientation(bits.getPlacement(BitBoard.WHITE)));
+    }
+
+    /**
+     * Obtient le plateau compact sous-jacent.
+     * @return Le plateau compact.
+     */
+    public BitBoard getBitBoard() {
+        return bits;
+    }
+
+    /**
+     * Convertit un placement codé en orientation de pion.
+     * @param placement Le placement codé.
+     * @return L'orientation correspondante.
+     */
+    static Pion.Orientation orientation(int placement) {
+        return BitBoard.isVertical(placement) ? Pion.Orientation.VERTICAL : Pion.Orientation.HORIZONTAL;
+    }
+
     /**
      * Initialise les pions sur le plateau de jeu en leurs donnant une position et une orientation initiale.
      * Utilise la méthode placePion pour placer les pions sur le plateau qui met à jour la position et l'orientation du pion.
@@ -38,25 +67,21 @@ public class Board {
     }
 
     /**
-     * Affiche le plateau de jeu.
+     * Affiche le plateau de jeu sur la sortie standard.
      */
     public void printBoard() {
-        // Nous utilisons une boucle for pour parcourir le tableau de cases et afficher le plateau de jeu
-        // Car le plateau de jeu est représenté par un tableau de 9 cases
-        // Un premier for qui affiche ligne par ligne le plateau de jeu
-        // premier for pour afficher la ligne complete du plateau de jeu
-        // deuxième for pour construire les cases du plateau de jeu
-        // nous mettons les valeurs du tableau dans des cases du plateau de jeu
-        System.out.println("* * * * * * * * * * * * *");
-
-        for (int i = 0; i < spots.length; i += 3) {
-
-            System.out.println("*       *       *       *");
-            System.out.println("*   " + formatSpot(spots[i]) + "   *   " + formatSpot(spots[i + 1]) + "   *   " + formatSpot(spots[i + 2]) + "   *");
-            System.out.println("*       *       *       *");
-            if (i < 6) System.out.println("* * * * * * * * * * * * *");
-        }
-        System.out.println("* * * * * * * * * * * * *");
+        printBoard(System.out);
+    }
+
+    /**
+     * Affiche le plateau de jeu sur un flux donné.
+     * @param out Le flux de sortie.
+     */
+    public void printBoard(java.io.PrintStream out) {
+        // L'image du plateau est construite une seule fois par position par BoardRenderer, puis écrite d'un bloc
+        long start = System.nanoTime();
+        out.println(BoardRenderer.text(bits));
+        GameMetrics.RENDER.stop(start);
     }
 
     /**
@@ -65,51 +90,17 @@ public class Board {
      * Parcourt le tableau de cases et affiche le plateau de jeu avec les options de mouvement.
      * Vérifie si la position est vide ou contient un pion.
      * Si la position est vide nous affichons un espace sinon nous affichons la valeur de la position.
+     * Le texte est construit par BoardRenderer et mis en cache par position.
      * @param pionToMove Le pion à déplacer.
      * @return Une chaîne de caractères représentant le plateau de jeu avec les options de mouvement.
      */
     public String getBoardWithMoveOptions(Pion pionToMove) {
-        List<Integer> availableMoves = getAvailableMoves(pionToMove);
-        String[] displaySpots = new String[spots.length];
-        for (int i = 0; i < spots.length; i++) {
-            if (i == 2 || i == 5 || i == 8) { // Colonnes les plus à droite
-                displaySpots[i] = spots[i] == 'O' ? "O" : String.valueOf(spots[i]);
-            } else {
-                displaySpots[i] = spots[i] == 'O' ? " " : String.valueOf(spots[i]);
-            }
-        }
-
-        // Nettoyer la position initiale et la position adjacente si le pion est horizontal.
-        int startPosition = pionToMove.getPosition();
-        if (pionToMove.getOrientation() == Pion.Orientation.HORIZONTAL && startPosition % 3 < 2) {
-            displaySpots[startPosition + 1] = displaySpots[startPosition] = " ";
-        }
-
-        // Ajouter les options de mouvement avec des numéros directement basés sur leur ordre dans la liste.
-        int moveNumber = 1;
-        for (int move : availableMoves) {
-            if (move < displaySpots.length) { // Assure que le numéro de mouvement est dans la plage du tableau
-                displaySpots[move] = Integer.toString(moveNumber++);
-            }
-        }
-
-        // Construction et retour de la chaîne de caractères représentant le plateau de jeu
-        StringBuilder boardDisplay = new StringBuilder();
-        boardDisplay.append("* * * * * * * * * * * * *\n");
-        for (int i = 0; i < displaySpots.length; i += 3) {
-            boardDisplay.append("*       *       *       *\n"); // Lignes vides pour la séparation
-            boardDisplay.append("*   ")
-                    .append(displaySpots[i]).append("   *   ")
-                    .append(displaySpots[i+1]).append("   *   ")
-                    .append(displaySpots[i+2]).append("   *\n");
-            boardDisplay.append("*       *       *       *\n");
-            if (i < 6) { // Séparateurs entre les lignes de spots, sauf pour la dernière ligne
-                boardDisplay.append("* * * * * * * * * * * * *\n");
-            }
-        }
-        boardDisplay.append("* * * * * * * * * * * * *");
-
-        return boardDisplay.toString();
+        int piece = BitBoard.pieceIndex(pionToMove.getColor());
+        int startPlacement = BitBoard.encode(pionToMove.getPosition(), pionToMove.getOrientation() == Pion.Orientation.VERTICAL);
+        long start = System.nanoTime();
+        String text = BoardRenderer.optionsText(bits, piece, startPlacement);
+        GameMetrics.RENDER.stop(start);
+        return text;
     }
 
     /**
@@ -128,7 +119,8 @@ public class Board {
      * @return Un booléen indiquant si la position est un spot de pion.
      */
     public boolean isPionSpot(int position, Pion pion) {
-        return spots[position] == pion.getColor().getSymbol();
+        int piece = BitBoard.pieceIndex(pion.getColor());
+        return piece < 0 ? isEmpty(position) : (bits.getMask(piece) & (1 << position)) != 0;
     }
 
     /**
@@ -137,36 +129,25 @@ public class Board {
      * @return Un tableau de caractères représentant les spots de la colonne la plus à droite.
      */
     public char[] getRightColumnSpots() {
-        return new char[] {spots[2], spots[5], spots[8]};
+        return new char[] {bits.symbolAt(2), bits.symbolAt(5), bits.symbolAt(8)};
     }
 
     /**
      * Obtient les mouvements possibles pour un pion donné.
      * Utilise une liste pour stocker les mouvements possibles.
-     * Parcourt le tableau de cases et obtient les mouvements possibles.
-     * Utilise les méthodes canMoveHorizontal et canMoveVertical pour vérifier les mouvements possibles.
+     * Délègue la génération à BitBoard.generateOptions : d'abord les mouvements horizontaux puis les verticaux.
+     * Pour générer des mouvements sans allocation, utiliser directement getBitBoard().generateOptions.
      * @param pion Le pion pour lequel obtenir les mouvements possibles.
      * @return Une liste d'entiers représentant les mouvements possibles.
      */
     public List<Integer> getAvailableMoves(Pion pion) {
-        List<Integer> availableMoves = new ArrayList<>();
-
-        // Mouvements horizontaux possibles pour des positions qui ne sont pas en fin de ligne
-        for (int i = 0; i < spots.length; i++) {
-            if (i % 3 < 2) { // 0 ou 1 ou 3 ou 4 ou 6 ou 7 (donc pas 2, 5, ou 8)
-                if (canMoveHorizontal(i, pion)) {
-                    availableMoves.add(i);
-                }
-            }
+        long start = System.nanoTime();
+        int count = bits.generateOptions(BitBoard.pieceIndex(pion.getColor()), moveBuffer);
+        List<Integer> availableMoves = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            availableMoves.add(moveBuffer[i]);
         }
-
-        // Mouvements verticaux possibles pour des positions qui ne sont pas dans la première ligne
-        for (int i = 3; i < spots.length; i++) {
-            if (canMoveVertical(i, pion)) {
-                availableMoves.add(i); // La position - 3 représente le mouvement vertical vers le haut
-            }
-        }
-
+        GameMetrics.AVAILABLE_MOVES.stop(start);
         return availableMoves;
     }
 
@@ -181,14 +162,7 @@ public class Board {
      * @return Un booléen indiquant si le pion peut se déplacer horizontalement à la position donnée.
      */
     public boolean canMoveHorizontal(int position, Pion pion) {
-        if (position % 3 == 2) return false; // Empêche de vérifier à l'extrême droite.
-
-        // Vérifie si la case actuelle est vide et si la case directement à droite est vide ou contient le pion actuel.
-        char currentSpot = spots[position];
-        char nextSpot = spots[position + 1];
-
-        // Pour un déplacement horizontal valide, la position actuelle doit être vide et la suivante doit être vide ou contenir le pion actuel.
-        return currentSpot == 'O' && (nextSpot == 'O' || nextSpot == pion.getColor().getSymbol());
+        return bits.canMoveHorizontal(BitBoard.pieceIndex(pion.getColor()), position);
     }
 
     /**
@@ -202,12 +176,7 @@ public class Board {
      * @return Un booléen indiquant si le pion peut se déplacer verticalement à la position donnée.
      */
     public boolean canMoveVertical(int position, Pion pion) {
-        if (position < 3) return false;
-
-        char currentSpot = spots[position];
-        char nextSpot = spots[position - 3];
-
-        return currentSpot == 'O' && (nextSpot == 'O' || nextSpot == pion.getColor().getSymbol());
+        return bits.canMoveVertical(BitBoard.pieceIndex(pion.getColor()), position);
     }
 
     /**
@@ -241,11 +210,13 @@ public class Board {
         }
         if ((isEmpty(nouvellePosition) || isPionSpot(nouvellePosition, pion)) &&
                 (isEmpty(deuxiemeCase) || isPionSpot(deuxiemeCase, pion))) {
-            spots[nouvellePosition] = pion.getColor().getSymbol();
-            if (nouvelleOrientation == Pion.Orientation.HORIZONTAL && nouvellePosition % 3 < 2) {
-                spots[deuxiemeCase] = pion.getColor().getSymbol();
-            } else if (nouvelleOrientation == Pion.Orientation.VERTICAL && nouvellePosition >= 3) {
-                spots[deuxiemeCase] = pion.getColor().getSymbol();
+            int piece = BitBoard.pieceIndex(pion.getColor());
+            int placement = BitBoard.encode(nouvellePosition, nouvelleOrientation == Pion.Orientation.VERTICAL);
+            if (piece < 0) {
+                bits.clearCells(BitBoard.footprint(placement));
+            } else {
+                bits.fillCells(piece, BitBoard.footprint(placement));
+                bits.recordPlacement(piece, placement);
             }
         } else {
             return;
@@ -317,7 +288,7 @@ public class Board {
      * @return Un booléen indiquant si la position est vide.
      */
     public boolean isEmpty(int position) {
-        return spots[position] == 'O';
+        return (bits.getOccupied() & (1 << position)) == 0;
     }
 
     /**
@@ -329,13 +300,8 @@ public class Board {
      * @param pion Le pion dont la position doit être effacée.
      */
     public void clearPionPosition(Pion pion) {
-        int position = pion.getPosition();
-        spots[position] = 'O';
-        if (pion.getOrientation() == Pion.Orientation.HORIZONTAL && position % 3 < 2) {
-            spots[position + 1] = 'O';
-        } else if (pion.getOrientation() == Pion.Orientation.VERTICAL && position >= 3) {
-            spots[position - 3] = 'O';
-        }
+        int placement = BitBoard.encode(pion.getPosition(), pion.getOrientation() == Pion.Orientation.VERTICAL);
+        bits.clearCells(BitBoard.footprint(placement));
     }
 
     /**
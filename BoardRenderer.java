@@ -0,0 +1,204 @@
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Rendu du plateau de jeu en mode texte, avec un cache des images déjà construites.
+ * Une image est identifiée par les trois placements (5 bits chacun) et par le pion dont les options de mouvement
+ * sont affichées, soit au plus 2^17 images distinctes ; chaque image n'est construite qu'une seule fois, puis écrite
+ * d'un bloc sur un flux tamponné.
+ * Le cache est partagé par tous les rendus : les images sont immuables, ce qui permet de les publier entre fils sans verrou.
+ */
+public class BoardRenderer {
+    // Valeur du pion dans la clé quand aucune option de mouvement n'est affichée (printBoard)
+    static final int NO_OPTIONS = 3;
+    private static final Frame[] CACHE = new Frame[1 << 17];
+    private static final String SEPARATOR = "* * * * * * * * * * * * *";
+    private static final String EMPTY_ROW = "*       *       *       *";
+
+    private final OutputStream out;
+
+    /**
+     * Constructeur de la classe BoardRenderer.
+     * @param out Le flux de sortie, enveloppé dans un tampon.
+     */
+    public BoardRenderer(OutputStream out) {
+        this.out = new BufferedOutputStream(out, 1 << 16);
+    }
+
+    /**
+     * Image rendue : le texte, et ses octets terminés par une fin de ligne prêts à être écrits.
+     */
+    static final class Frame {
+        final String text;
+        final byte[] bytes;
+
+        Frame(String text) {
+            this.text = text;
+            this.bytes = (text.replace("\n", System.lineSeparator()) + System.lineSeparator())
+                    .getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    /**
+     * Écrit le plateau de jeu dans le tampon.
+     * @param board Le plateau à afficher.
+     */
+    public void render(BitBoard board) {
+        long start = System.nanoTime();
+        write(frame(board, NO_OPTIONS));
+        GameMetrics.RENDER.stop(start);
+    }
+
+    /**
+     * Écrit le plateau de jeu avec les options de mouvement d'un pion dans le tampon.
+     * @param board Le plateau à afficher.
+     * @param piece L'indice du pion à déplacer.
+     */
+    public void renderOptions(BitBoard board, int piece) {
+        long start = System.nanoTime();
+        write(frame(board, piece));
+        GameMetrics.RENDER.stop(start);
+    }
+
+    /**
+     * Écrit une ligne de texte dans le tampon, entre deux images par exemple.
+     * @param line La ligne à écrire.
+     */
+    public void println(String line) {
+        try {
+            out.write((line + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Vide le tampon vers le flux de sortie.
+     */
+    public void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(Frame frame) {
+        try {
+            out.write(frame.bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Obtient l'image du plateau, construite au premier appel puis lue dans le cache.
+     * @param board Le plateau à afficher.
+     * @param piece L'indice du pion dont les options sont affichées, ou NO_OPTIONS.
+     * @return L'image correspondante.
+     */
+    static Frame frame(BitBoard board, int piece) {
+        if (!matchesPlacements(board)) {
+            // Un pion mal placé par Board.placePion n'occupe pas les cases de son placement : pas de cache possible
+            return new Frame(piece == NO_OPTIONS ? boardText(board)
+                    : buildOptions(board, piece, board.getPlacement(piece)));
+        }
+        int key = board.getPlacement(BitBoard.RED)
+                | board.getPlacement(BitBoard.BLUE) << 5
+                | board.getPlacement(BitBoard.WHITE) << 10
+                | piece << 15;
+        Frame frame = CACHE[key];
+        if (frame == null) {
+            frame = new Frame(piece == NO_OPTIONS ? boardText(board)
+                    : buildOptions(board, piece, board.getPlacement(piece)));
+            CACHE[key] = frame;
+        }
+        return frame;
+    }
+
+    /**
+     * Obtient le texte du plateau sans options de mouvement.
+     * @param board Le plateau à afficher.
+     * @return Le texte, sans fin de ligne finale.
+     */
+    static String text(BitBoard board) {
+        return frame(board, NO_OPTIONS).text;
+    }
+
+    /**
+     * Obtient le texte du plateau avec les options de mouvement d'un pion.
+     * Seule l'image où le pion est à sa place sur le plateau est mise en cache. Un pion hors du plateau (indice
+     * négatif, comme Pion.Color.SPECIAL) n'occupe aucune case : son image est construite sans cache, comme avant.
+     * @param board Le plateau à afficher.
+     * @param piece L'indice du pion à déplacer, ou -1 pour un pion hors du plateau.
+     * @param startPlacement Le placement de départ du pion, dont les cases sont effacées à l'affichage.
+     * @return Le texte, sans fin de ligne finale.
+     */
+    static String optionsText(BitBoard board, int piece, int startPlacement) {
+        return piece >= 0 && startPlacement == board.getPlacement(piece) ? frame(board, piece).text
+                : buildOptions(board, piece, startPlacement);
+    }
+
+    /**
+     * Vérifie que chaque pion occupe exactement les cases de son placement, seul cas où les placements suffisent comme clé.
+     */
+    private static boolean matchesPlacements(BitBoard board) {
+        for (int piece = 0; piece < BitBoard.PIECE_COUNT; piece++) {
+            if (board.getMask(piece) != BitBoard.footprint(board.getPlacement(piece))) return false;
+        }
+        return true;
+    }
+
+    private static String boardText(BitBoard board) {
+        String[] spots = new String[BitBoard.CELL_COUNT];
+        for (int i = 0; i < spots.length; i++) {
+            char spot = board.symbolAt(i);
+            spots[i] = spot == 'O' ? " " : String.valueOf(spot);
+        }
+        return layout(spots);
+    }
+
+    /**
+     * Construit le texte des options de mouvement, comme le faisait Board.getBoardWithMoveOptions :
+     * les cases vides de la colonne de droite restent affichées 'O', et les cases de départ d'un pion horizontal sont effacées.
+     */
+    private static String buildOptions(BitBoard board, int piece, int startPlacement) {
+        String[] spots = new String[BitBoard.CELL_COUNT];
+        for (int i = 0; i < spots.length; i++) {
+            char spot = board.symbolAt(i);
+            spots[i] = spot == 'O' && i % 3 != 2 ? " " : String.valueOf(spot);
+        }
+        int start = BitBoard.position(startPlacement);
+        if (!BitBoard.isVertical(startPlacement) && start % 3 < 2) {
+            spots[start] = spots[start + 1] = " ";
+        }
+        int[] options = new int[BitBoard.MAX_MOVES];
+        int count = board.generateOptions(piece, options);
+        int moveNumber = 1;
+        for (int i = 0; i < count; i++) {
+            spots[options[i]] = Integer.toString(moveNumber++);
+        }
+        return layout(spots);
+    }
+
+    private static String layout(String[] spots) {
+        StringBuilder boardDisplay = new StringBuilder(SEPARATOR.length() * 14);
+        boardDisplay.append(SEPARATOR).append('\n');
+        for (int i = 0; i < spots.length; i += 3) {
+            boardDisplay.append(EMPTY_ROW).append('\n');
+            boardDisplay.append("*   ")
+                    .append(spots[i]).append("   *   ")
+                    .append(spots[i + 1]).append("   *   ")
+                    .append(spots[i + 2]).append("   *\n");
+            boardDisplay.append(EMPTY_ROW).append('\n');
+            if (i < 6) {
+                boardDisplay.append(SEPARATOR).append('\n');
+            }
+        }
+        boardDisplay.append(SEPARATOR);
+        return boardDisplay.toString();
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Classement Elo de plusieurs agents à partir des résultats de leurs matchs.
+ * Les classements sont estimés par maximum de vraisemblance du modèle de Bradley-Terry sur l'ensemble des parties,
+ * un nul comptant pour une demi-victoire de chaque côté : le résultat ne dépend donc pas de l'ordre des parties,
+ * contrairement à une mise à jour Elo partie par partie, ce qui le rend reproductible quel que soit le nombre de fils.
+ * Chaque paire qui s'est rencontrée reçoit un nul fictif, pour qu'un agent sans victoire garde un classement fini.
+ * Les intervalles de confiance viennent de l'information de Fisher de chaque agent, les autres classements étant fixés.
+ */
+public class EloRatings {
+    // Classement moyen des agents
+    public static final double BASE_RATING = 1500;
+    // Points Elo par unité de logarithme naturel du rapport des forces
+    private static final double ELO_PER_NEPER = 400 / Math.log(10);
+    private static final int MAX_ITERATIONS = 10_000;
+    private static final double TOLERANCE = 1e-9;
+
+    // Points marqués par i contre j (victoire 1, nul 0,5) et nombre de parties entre i et j
+    private final double[][] points;
+    private final double[][] games;
+    private double[] ratings;
+    private double[] errors;
+
+    /**
+     * Constructeur de la classe EloRatings.
+     * @param agents Le nombre d'agents.
+     */
+    public EloRatings(int agents) {
+        this.points = new double[agents][agents];
+        this.games = new double[agents][agents];
+    }
+
+    /**
+     * Ajoute le résultat d'une série de parties entre deux agents.
+     * @param a L'indice du premier agent.
+     * @param b L'indice du second agent.
+     * @param winsA Les victoires du premier agent.
+     * @param winsB Les victoires du second agent.
+     * @param draws Les parties nulles, limite de tours comprise.
+     */
+    public void addResult(int a, int b, long winsA, long winsB, long draws) {
+        points[a][b] += winsA + draws / 2.0;
+        points[b][a] += winsB + draws / 2.0;
+        games[a][b] += winsA + winsB + draws;
+        games[b][a] += winsA + winsB + draws;
+        ratings = null;
+    }
+
+    /**
+     * Méthode pour obtenir le classement d'un agent.
+     * @param agent L'indice de l'agent.
+     * @return Le classement Elo, la moyenne des agents valant BASE_RATING.
+     */
+    public double getRating(int agent) {
+        solve();
+        return ratings[agent];
+    }
+
+    /**
+     * Méthode pour obtenir la demi-largeur de l'intervalle de confiance à 95 % du classement d'un agent.
+     * @param agent L'indice de l'agent.
+     * @return La demi-largeur en points Elo, infinie pour un agent sans partie.
+     */
+    public double getError(int agent) {
+        solve();
+        return errors[agent];
+    }
+
+    /**
+     * Estime les forces par l'algorithme MM de Hunter, puis les convertit en points Elo.
+     */
+    private void solve() {
+        if (ratings != null) return;
+        int n = points.length;
+        double[][] wins = new double[n][n];
+        double[][] played = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i != j && games[i][j] > 0) {
+                    wins[i][j] = points[i][j] + 0.5;
+                    played[i][j] = games[i][j] + 1;
+                }
+            }
+        }
+        double[] strength = new double[n];
+        java.util.Arrays.fill(strength, 1);
+        for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+            double change = 0;
+            for (int i = 0; i < n; i++) {
+                double totalWins = 0, denominator = 0;
+                for (int j = 0; j < n; j++) {
+                    if (played[i][j] == 0) continue;
+                    totalWins += wins[i][j];
+                    denominator += played[i][j] / (strength[i] + strength[j]);
+                }
+                if (denominator == 0) continue;
+                double updated = totalWins / denominator;
+                change = Math.max(change, Math.abs(Math.log(updated / strength[i])));
+                strength[i] = updated;
+            }
+            if (change < TOLERANCE) break;
+        }
+
+        ratings = new double[n];
+        errors = new double[n];
+        // Un agent sans partie garde BASE_RATING et n'entre pas dans la moyenne
+        double mean = 0;
+        int rated = 0;
+        for (int i = 0; i < n; i++) {
+            ratings[i] = ELO_PER_NEPER * Math.log(strength[i]);
+            if (hasGames(i)) {
+                mean += ratings[i];
+                rated++;
+            }
+        }
+        mean = rated == 0 ? 0 : mean / rated;
+        for (int i = 0; i < n; i++) {
+            ratings[i] = hasGames(i) ? ratings[i] + BASE_RATING - mean : BASE_RATING;
+            double information = 0;
+            for (int j = 0; j < n; j++) {
+                if (played[i][j] == 0) continue;
+                double p = strength[i] / (strength[i] + strength[j]);
+                information += played[i][j] * p * (1 - p);
+            }
+            errors[i] = information == 0 ? Double.POSITIVE_INFINITY : 1.96 * ELO_PER_NEPER / Math.sqrt(information);
+        }
+    }
+
+    private boolean hasGames(int agent) {
+        for (double count : games[agent]) {
+            if (count > 0) return true;
+        }
+        return false;
+    }
+}
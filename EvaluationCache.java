@@ -0,0 +1,201 @@
+/**
+ * Cache borné de notes de positions, à clés primitives, avec éviction de l'entrée la moins récemment utilisée.
+ * La capacité est donnée en octets : chaque entrée coûte ENTRY_BYTES (clé, note, chaînage et cases de l'index),
+ * ce qui permet de régler le cache sur un budget mémoire plutôt que sur un nombre d'entrées.
+ * Les entrées vivent dans des tableaux parallèles ; l'index est une table à adressage ouvert (sondage linéaire,
+ * suppression par décalage arrière) et la liste LRU est doublement chaînée par indices, sans aucun objet par entrée.
+ * Une instance n'est utilisée que par un seul fil, comme l'agent qui la possède.
+ */
+public class EvaluationCache {
+    // Valeur renvoyée par get quand la position n'est pas dans le cache
+    public static final int MISS = Integer.MIN_VALUE;
+    // Coût d'une entrée : clé (8), note (4), précédent et suivant (8), deux cases d'index (8)
+    public static final int ENTRY_BYTES = 28;
+    private static final int NONE = -1;
+
+    private final int capacity;
+    private final long[] keys;
+    private final int[] values;
+    private final int[] previous;
+    private final int[] next;
+    private final int[] index;
+    private final int indexMask;
+    private int size;
+    // Tête : entrée la plus récente ; queue : la prochaine évincée
+    private int head = NONE;
+    private int tail = NONE;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Constructeur de la classe EvaluationCache.
+     * @param maxBytes Le budget mémoire du cache, en octets.
+     */
+    public EvaluationCache(long maxBytes) {
+        this.capacity = (int) Math.max(1, Math.min(maxBytes / ENTRY_BYTES, 1 << 28));
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.previous = new int[capacity];
+        this.next = new int[capacity];
+        int slots = Integer.highestOneBit(capacity * 2 - 1) << 1;
+        this.index = new int[slots];
+        this.indexMask = slots - 1;
+        java.util.Arrays.fill(index, NONE);
+    }
+
+    /**
+     * Cherche la note d'une position ; une position trouvée devient la plus récemment utilisée.
+     * @param key La clé de la position, par exemple GameEngine.compactKey.
+     * @return La note, ou MISS si la position n'est pas dans le cache.
+     */
+    public int get(long key) {
+        int entry = find(key);
+        if (entry == NONE) {
+            misses++;
+            return MISS;
+        }
+        hits++;
+        moveToHead(entry);
+        return values[entry];
+    }
+
+    /**
+     * Enregistre la note d'une position, en évinçant la moins récemment utilisée si le cache est plein.
+     * @param key La clé de la position.
+     * @param value La note, différente de MISS.
+     */
+    public void put(long key, int value) {
+        int entry = find(key);
+        if (entry == NONE) {
+            if (size < capacity) {
+                entry = size++;
+            } else {
+                entry = tail;
+                unlink(entry);
+                removeFromIndex(entry);
+                evictions++;
+            }
+            keys[entry] = key;
+            insertInIndex(entry);
+            linkAtHead(entry);
+        } else {
+            moveToHead(entry);
+        }
+        values[entry] = value;
+    }
+
+    /**
+     * Vide le cache, sans remettre à zéro les compteurs.
+     */
+    public void clear() {
+        java.util.Arrays.fill(index, NONE);
+        size = 0;
+        head = tail = NONE;
+    }
+
+    private static int mix(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return (int) (key ^ (key >>> 32));
+    }
+
+    private int find(long key) {
+        for (int slot = mix(key) & indexMask; ; slot = (slot + 1) & indexMask) {
+            int entry = index[slot];
+            if (entry == NONE) return NONE;
+            if (keys[entry] == key) return entry;
+        }
+    }
+
+    private void insertInIndex(int entry) {
+        int slot = mix(keys[entry]) & indexMask;
+        while (index[slot] != NONE) {
+            slot = (slot + 1) & indexMask;
+        }
+        index[slot] = entry;
+    }
+
+    /**
+     * Retire une entrée de l'index, puis recule les entrées suivantes de la même grappe pour qu'elles restent trouvables.
+     */
+    private void removeFromIndex(int entry) {
+        int slot = mix(keys[entry]) & indexMask;
+        while (index[slot] != entry) {
+            slot = (slot + 1) & indexMask;
+        }
+        int hole = slot;
+        for (slot = (hole + 1) & indexMask; index[slot] != NONE; slot = (slot + 1) & indexMask) {
+            int home = mix(keys[index[slot]]) & indexMask;
+            // L'entrée peut boucher le trou si sa case d'origine n'est pas strictement entre le trou et sa case actuelle
+            if (((slot - home) & indexMask) >= ((slot - hole) & indexMask)) {
+                index[hole] = index[slot];
+                hole = slot;
+            }
+        }
+        index[hole] = NONE;
+    }
+
+    private void moveToHead(int entry) {
+        if (entry == head) return;
+        unlink(entry);
+        linkAtHead(entry);
+    }
+
+    private void unlink(int entry) {
+        int before = previous[entry];
+        int after = next[entry];
+        if (before == NONE) head = after; else next[before] = after;
+        if (after == NONE) tail = before; else previous[after] = before;
+    }
+
+    private void linkAtHead(int entry) {
+        previous[entry] = NONE;
+        next[entry] = head;
+        if (head != NONE) previous[head] = entry;
+        head = entry;
+        if (tail == NONE) tail = entry;
+    }
+
+    /**
+     * Méthode pour obtenir le nombre maximal d'entrées permis par le budget mémoire.
+     * @return La capacité en entrées.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Méthode pour obtenir le nombre d'entrées présentes.
+     * @return Le nombre d'entrées.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Méthode pour obtenir la proportion de recherches réussies.
+     * @return Le taux de succès, entre 0 et 1.
+     */
+    public double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /**
+     * Méthode pour obtenir le nombre d'entrées évincées.
+     * @return Le nombre d'évictions.
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Résume l'activité du cache.
+     * @return Les compteurs de succès, d'échecs et d'évictions.
+     */
+    public String statistics() {
+        return String.format("cache : %d succès (%.1f %%), %d échecs, %d évictions, %d/%d entrées",
+                hits, 100.0 * getHitRate(), misses, evictions, size, capacity);
+    }
+}
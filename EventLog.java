@@ -0,0 +1,346 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Journal des événements des parties, pour retrouver le déroulement exact d'une partie contestée.
+ * Les fils de jeu publient les événements dans un anneau préalloué sans verrou ni allocation : chaque producteur
+ * réserve un numéro de séquence, remplit sa case puis la publie. Un fil d'écriture vide l'anneau par lots dans le
+ * fichier et force l'écriture sur disque (fsync) dès qu'il a écrit depuis le dernier fsync et que syncMillis est
+ * écoulé, même si l'anneau ne se vide jamais sous une charge soutenue.
+ * Si l'écriture prend du retard au point de remplir l'anneau, le producteur attend qu'une case se libère : aucun
+ * événement n'est perdu, et chaque attente est mesurée par GameMetrics.EVENT_LOG_STALL.
+ *
+ * Format du fichier, petit-boutiste : un en-tête (signature, version, heure de création en millisecondes depuis
+ * l'époque), puis des enregistrements de RECORD_BYTES octets : instant en nanosecondes depuis la création, partie,
+ * type, puis trois champs dont le sens dépend du type.
+ */
+public final class EventLog implements AutoCloseable {
+    // Types d'événements et sens de leurs champs
+    public static final int GAME_START = 1;         // aucun champ
+    public static final int COLOR_ASSIGNMENT = 2;   // pion du joueur 1
+    public static final int PLAYER_MOVE = 3;        // joueur, mouvement codé
+    public static final int NEUTRAL_MOVE = 4;       // joueur, mouvement codé
+    public static final int SCORE_UPDATE = 5;       // score du joueur 1, score du joueur 2
+    public static final int GAME_END = 6;           // issue de checkWinCondition (rang dans GameEngine.Outcome), scores
+    public static final int FORFEIT = 7;            // joueur perdant par forfait
+
+    static final int MAGIC = 0x33534A4C; // "3SJL"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    public static final int RECORD_BYTES = 32;
+    // Cases de l'anneau par événement : instant, partie, type et premier champ, deux derniers champs
+    private static final int SLOT_LONGS = 4;
+    // Événements recopiés au plus dans un lot d'écriture
+    private static final int BATCH_EVENTS = 1024;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final int STALL_SPINS = 100;
+    private static final long STALL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final FileChannel channel;
+    private final long[] slots;
+    // Numéro de séquence publié dans chaque case, -1 tant que la case n'a jamais servi
+    private final long[] published;
+    private final int mask;
+    private final long syncNanos;
+    private final long origin = System.nanoTime();
+    private final ByteBuffer batch = ByteBuffer.allocateDirect(BATCH_EVENTS * RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private final Thread writer;
+
+    // Prochain numéro à réserver par un producteur, et prochain numéro à recopier par le fil d'écriture ; à la
+    // fermeture, claimed devient négatif pour refuser toute nouvelle réservation
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long consumed;
+    // Nombre de numéros réservés avant la fermeture, écrit avant closing
+    private volatile long closedAt;
+    private final AtomicLong gameIds = new AtomicLong();
+    private final LongAccumulator maxLag = new LongAccumulator(Math::max, 0);
+    private final LongAdder syncs = new LongAdder();
+    private volatile boolean closing;
+    private volatile IOException failure;
+
+    /**
+     * Constructeur de la classe EventLog : crée le fichier et démarre le fil d'écriture.
+     * @param path Le fichier du journal, remplacé s'il existe.
+     * @param capacity Le nombre d'événements de l'anneau, arrondi à la puissance de deux supérieure.
+     * @param syncMillis L'intervalle minimal entre deux écritures forcées sur disque.
+     * @throws IOException Si le fichier ne peut pas être créé.
+     */
+    public EventLog(Path path, int capacity, long syncMillis) throws IOException {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new long[size * SLOT_LONGS];
+        this.published = new long[size];
+        java.util.Arrays.fill(published, -1);
+        this.mask = size - 1;
+        this.syncNanos = TimeUnit.MILLISECONDS.toNanos(syncMillis);
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putLong(System.currentTimeMillis()).flip();
+        while (header.hasRemaining()) channel.write(header);
+        this.writer = new Thread(this::drain, "journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Ouvre le journal désigné par la propriété système journal (-Djournal=fichier).
+     * @return Le journal, ou null si la propriété n'est pas définie.
+     * @throws IOException Si le fichier ne peut pas être créé.
+     */
+    public static EventLog fromSystemProperty() throws IOException {
+        String path = System.getProperty("journal");
+        return path == null ? null : new EventLog(Paths.get(path), 1 << 16, 50);
+    }
+
+    /**
+     * Attribue un numéro à une nouvelle partie.
+     * @return Le numéro, unique dans ce journal.
+     */
+    public long nextGameId() {
+        return gameIds.incrementAndGet();
+    }
+
+    /**
+     * Publie un événement. Sans verrou ni allocation ; n'attend que si l'anneau est plein.
+     * @param game Le numéro de la partie.
+     * @param type Le type d'événement.
+     * @param a Le premier champ.
+     * @param b Le deuxième champ.
+     * @param c Le troisième champ.
+     */
+    public void publish(long game, int type, int a, int b, int c) {
+        long sequence = claimed.getAndIncrement();
+        if (sequence < 0) {
+            throw new IllegalStateException("Le journal est fermé.");
+        }
+        long lag = sequence - consumed;
+        if (lag >= published.length) {
+            long start = System.nanoTime();
+            for (int spins = 0; sequence - consumed >= published.length; spins++) {
+                if (failure != null || !writer.isAlive()) {
+                    throw new IllegalStateException("Le fil d'écriture du journal est arrêté.", failure);
+                }
+                // Attente active brève, puis on cède le processeur au fil d'écriture
+                if (spins < STALL_SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(STALL_PARK_NANOS);
+                }
+            }
+            GameMetrics.EVENT_LOG_STALL.stop(start);
+        }
+        maxLag.accumulate(Math.min(lag + 1, published.length));
+        int index = (int) sequence & mask;
+        int slot = index * SLOT_LONGS;
+        slots[slot] = System.nanoTime() - origin;
+        slots[slot + 1] = game;
+        slots[slot + 2] = (long) type << 32 | (a & 0xFFFFFFFFL);
+        slots[slot + 3] = (long) b << 32 | (c & 0xFFFFFFFFL);
+        LONGS.setRelease(published, index, sequence);
+    }
+
+    /**
+     * Publie un événement à un seul champ.
+     * @param game Le numéro de la partie.
+     * @param type Le type d'événement.
+     * @param a Le champ.
+     */
+    public void publish(long game, int type, int a) {
+        publish(game, type, a, 0, 0);
+    }
+
+    /**
+     * Boucle du fil d'écriture : recopie les cases publiées dans le lot, écrit le lot, force l'écriture sur disque
+     * quand syncMillis est écoulé depuis la dernière fois, ou à la fermeture. Le fil s'arrête une fois recopiés tous
+     * les numéros réservés avant la fermeture : un producteur qui a réservé le sien finit toujours de le publier.
+     */
+    private void drain() {
+        long next = 0;
+        long lastSync = System.nanoTime();
+        boolean dirty = false;
+        try {
+            while (true) {
+                boolean done = closing;
+                int copied = 0;
+                while (copied < BATCH_EVENTS) {
+                    int index = (int) next & mask;
+                    if ((long) LONGS.getAcquire(published, index) != next) break;
+                    int slot = index * SLOT_LONGS;
+                    batch.putLong(slots[slot]).putLong(slots[slot + 1]).putLong(slots[slot + 2]).putLong(slots[slot + 3]);
+                    next++;
+                    copied++;
+                }
+                if (copied > 0) {
+                    // Les cases recopiées peuvent resservir avant même l'écriture du lot
+                    consumed = next;
+                    batch.flip();
+                    while (batch.hasRemaining()) channel.write(batch);
+                    batch.clear();
+                    dirty = true;
+                }
+                if (dirty && (done || System.nanoTime() - lastSync >= syncNanos)) {
+                    channel.force(false);
+                    syncs.increment();
+                    lastSync = System.nanoTime();
+                    dirty = false;
+                }
+                if (done && copied == 0 && next == closedAt) break;
+                if (copied == 0) LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * Méthode pour obtenir le nombre d'événements publiés.
+     * @return Le nombre d'événements.
+     */
+    public long getPublished() {
+        return closing ? closedAt : claimed.get();
+    }
+
+    /**
+     * Méthode pour obtenir le nombre d'événements recopiés par le fil d'écriture.
+     * @return Le nombre d'événements.
+     */
+    public long getWritten() {
+        return consumed;
+    }
+
+    /**
+     * Méthode pour obtenir le plus grand retard observé du fil d'écriture, en événements.
+     * Un retard égal à la capacité signifie que des producteurs ont attendu.
+     * @return Le retard maximal.
+     */
+    public long getMaxLag() {
+        return maxLag.get();
+    }
+
+    /**
+     * Méthode pour obtenir le nombre d'écritures forcées sur disque.
+     * @return Le nombre de fsync.
+     */
+    public long getSyncs() {
+        return syncs.sum();
+    }
+
+    /**
+     * Méthode pour obtenir la capacité de l'anneau.
+     * @return Le nombre d'événements de l'anneau.
+     */
+    public int getCapacity() {
+        return published.length;
+    }
+
+    /**
+     * Résume l'activité du journal.
+     * @return Le résumé.
+     */
+    public String statistics() {
+        return String.format("journal : %d événements, %d écrits, %d fsync, retard maximal %d/%d, %d attentes",
+                getPublished(), getWritten(), getSyncs(), getMaxLag(), getCapacity(), GameMetrics.EVENT_LOG_STALL.getCount());
+    }
+
+    /**
+     * Vide l'anneau, force l'écriture sur disque et ferme le fichier.
+     * @throws IOException Si une écriture a échoué.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closing) {
+            // Passe claimed en négatif d'un seul coup : chaque réservation est soit comptée ici, soit refusée
+            closedAt = claimed.getAndAdd(Long.MIN_VALUE);
+            closing = true;
+        }
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (failure != null) throw failure;
+    }
+
+    /**
+     * Affiche un journal en texte, un événement par ligne.
+     * Arguments : fichier [partie].
+     * @param args Les arguments de la ligne de commande.
+     * @throws IOException Si le fichier est illisible.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage : java EventLog fichier [partie]");
+            return;
+        }
+        long game = args.length > 1 ? Long.parseLong(args[1]) : -1;
+        print(Paths.get(args[0]), game, System.out);
+    }
+
+    /**
+     * Affiche les événements d'un journal.
+     * @param path Le fichier du journal.
+     * @param game Le numéro de la partie à afficher, -1 pour toutes.
+     * @param out Le flux de sortie.
+     * @throws IOException Si le fichier est illisible ou n'est pas un journal.
+     */
+    static void print(Path path, long game, PrintStream out) throws IOException {
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size()).order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Fichier de journal invalide : " + path);
+            }
+            long created = buffer.getLong();
+            out.printf("Journal créé le %tF %<tT%n", created);
+            while (buffer.remaining() >= RECORD_BYTES) {
+                long nanos = buffer.getLong();
+                long id = buffer.getLong();
+                long typeAndA = buffer.getLong();
+                long bAndC = buffer.getLong();
+                if (game >= 0 && id != game) continue;
+                out.printf("%12.6f s  partie %d  %s%n", nanos / 1e9, id,
+                        describe((int) (typeAndA >>> 32), (int) typeAndA, (int) (bAndC >>> 32), (int) bAndC));
+            }
+        }
+    }
+
+    /**
+     * Décrit un événement en texte.
+     */
+    static String describe(int type, int a, int b, int c) {
+        switch (type) {
+            case GAME_START:
+                return "début de partie";
+            case COLOR_ASSIGNMENT:
+                return "joueur 1 : " + BitBoard.color(a);
+            case PLAYER_MOVE:
+                return "joueur " + (a + 1) + " en " + BitBoard.notation(b);
+            case NEUTRAL_MOVE:
+                return "pion neutre (joueur " + (a + 1) + ") en " + BitBoard.notation(b);
+            case SCORE_UPDATE:
+                return "score " + a + " - " + b;
+            case GAME_END:
+                return "fin de partie, " + b + " - " + c + " : " + GameEngine.Outcome.values()[a].getMessage();
+            case FORFEIT:
+                return "forfait du joueur " + (a + 1);
+            default:
+                return "type inconnu " + type;
+        }
+    }
+}
@@ -1,37 +1,185 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
 import java.util.List;
 import java.util.Scanner;
 
 /**
- * Classe représentant le jeu.
+ * Classe représentant le jeu en console.
+ * Les règles sont appliquées par GameEngine ; cette classe ne fait que lire les choix et afficher le plateau.
  */
 public class Game {
-    private Board board;
+    private final GameEngine engine;
+    private final Board board;
+    private final InputStream in;
+    private final PrintStream out;
     private Pion pionRouge, pionBleu, pionBlanc;
     private Pion pionJoueur1, pionJoueur2;
     private int scoreJoueur1 = 0, scoreJoueur2 = 0;
+    // Identités des joueurs, créées avec leurs pions, et statistiques facultatives où enregistrer le résultat
+    private final String[] noms = new String[2];
+    private final Player[] joueurs = new Player[2];
+    private PlayerStats statistiques;
+    // Joueurs automatiques éventuels, indexés par joueur (null pour un joueur humain)
+    private final Agent[] ordinateurs = new Agent[2];
+    private final int[] mouvements = new int[BitBoard.MAX_MOVES];
+    // Journal facultatif des événements de la partie, et numéro de la partie dans ce journal
+    private EventLog journal;
+    private long partie;
+    // Analyse facultative des options pendant que les joueurs humains réfléchissent
+    private Ponderer analyse;
 
     /**
      * Constructeur de la classe Game.
-     * Initialise le plateau et les pions à leurs positions de départ.
+     * Initialise le plateau et les pions à leurs positions de départ puis démarre une partie sur la console.
      */
     public Game() {
-        this.board = new Board();
+        this(System.in, System.out);
+        start();
+    }
+
+    /**
+     * Constructeur de la classe Game lisant et écrivant sur les flux donnés, sans démarrer la partie.
+     * @param in Le flux d'entrée des choix des joueurs.
+     * @param out Le flux de sortie de l'affichage.
+     */
+    public Game(InputStream in, PrintStream out) {
+        this.engine = new GameEngine();
+        this.board = new Board(engine.getBoard());
+        this.in = in;
+        this.out = out;
         this.pionRouge = new Pion(Pion.Color.RED, 1, Pion.Orientation.HORIZONTAL);
         this.pionBlanc = new Pion(Pion.Color.WHITE, 4, Pion.Orientation.HORIZONTAL);
         this.pionBleu = new Pion(Pion.Color.BLUE, 7, Pion.Orientation.HORIZONTAL);
-        start();
+    }
+
+    /**
+     * Méthode pour obtenir le moteur de jeu.
+     * @return Le moteur de jeu.
+     */
+    public GameEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Méthode pour confier un joueur à l'ordinateur ; il jouera aussi le pion neutre à son tour.
+     * @param joueur L'indice du joueur (0 pour le joueur 1, 1 pour le joueur 2).
+     * @param agent L'agent qui choisit les mouvements, ou null pour un joueur humain ; il est fermé à la fin de start.
+     */
+    public void setOrdinateur(int joueur, Agent agent) {
+        this.ordinateurs[joueur] = agent;
+    }
+
+    /**
+     * Méthode pour nommer les joueurs ; sans nom, un joueur humain est nommé à la console si les statistiques sont
+     * enregistrées, et « Joueur 1 » ou « Joueur 2 » sinon. Les noms suivent les règles de PlayerStats.
+     * @param nomJoueur1 Le nom du joueur 1, ou null.
+     * @param nomJoueur2 Le nom du joueur 2, ou null, différent du nom du joueur 1.
+     */
+    public void setJoueurs(String nomJoueur1, String nomJoueur2) {
+        for (String nom : new String[] {nomJoueur1, nomJoueur2}) {
+            if (nom != null && !PlayerStats.isValidName(nom)) {
+                throw new IllegalArgumentException("Nom de joueur invalide : \"" + nom + "\"");
+            }
+        }
+        if (nomJoueur1 != null && nomJoueur1.equals(nomJoueur2)) {
+            throw new IllegalArgumentException("Les deux joueurs ont le même nom : " + nomJoueur1);
+        }
+        this.noms[0] = nomJoueur1;
+        this.noms[1] = nomJoueur2;
+    }
+
+    /**
+     * Méthode pour enregistrer le résultat de la partie dans les statistiques persistantes des joueurs.
+     * @param statistiques Les statistiques, ou null pour ne rien enregistrer.
+     */
+    public void setStatistiques(PlayerStats statistiques) {
+        this.statistiques = statistiques;
+    }
+
+    /**
+     * Méthode pour obtenir un joueur, une fois les couleurs choisies.
+     * @param joueur L'indice du joueur (0 pour le joueur 1, 1 pour le joueur 2).
+     * @return Le joueur, ou null avant le choix des couleurs.
+     */
+    public Player getJoueur(int joueur) {
+        return joueurs[joueur];
+    }
+
+    /**
+     * Méthode pour afficher les estimations d'une analyse en arrière-plan pendant les choix des joueurs humains.
+     * @param analyse L'analyse, ou null pour ne rien afficher ; elle est fermée à la fin de start.
+     */
+    public void setAnalyse(Ponderer analyse) {
+        this.analyse = analyse;
+    }
+
+    /**
+     * Méthode pour journaliser les événements de la partie.
+     * @param journal Le journal, ou null pour ne rien journaliser.
+     */
+    public void setJournal(EventLog journal) {
+        this.journal = journal;
+        this.partie = journal == null ? 0 : journal.nextGameId();
+    }
+
+    /**
+     * Publie un événement dans le journal s'il y en a un.
+     */
+    private void journaliser(int type, int a, int b, int c) {
+        if (journal != null) {
+            journal.publish(partie, type, a, b, c);
+        }
     }
 
     /**
      * Méthode pour démarrer le jeu.
      * Demande aux joueurs de choisir une couleur et lance la boucle de jeu.
+     * Les ordinateurs et l'analyse sont fermés à la fin de la partie, même interrompue.
      */
     public void start() {
-        Scanner scanner = new Scanner(System.in);
-        System.out.println("Joueur 1, choisissez une couleur (R pour Rouge, B pour Bleu): ");
+        try {
+            jouer();
+        } finally {
+            for (Agent ordinateur : ordinateurs) {
+                if (ordinateur != null) ordinateur.close();
+            }
+            if (analyse != null) {
+                analyse.close();
+            }
+        }
+    }
+
+    /**
+     * Nomme les joueurs, fait choisir la couleur du joueur 1 puis joue la partie.
+     */
+    private void jouer() {
+        Scanner scanner = new Scanner(in);
+        // Les noms identifient les joueurs dans les statistiques : deux ordinateurs sont numérotés pour les distinguer
+        for (int joueur = 0; joueur < 2; joueur++) {
+            if (noms[joueur] == null && ordinateurs[joueur] != null) {
+                boolean homonyme = ordinateurs[1 - joueur] != null || "Ordinateur".equals(noms[1 - joueur]);
+                noms[joueur] = homonyme ? "Ordinateur " + (joueur + 1) : "Ordinateur";
+            }
+        }
+        for (int joueur = 0; joueur < 2; joueur++) {
+            if (noms[joueur] != null) continue;
+            if (statistiques != null) {
+                out.println("Joueur " + (joueur + 1) + ", entrez votre nom :");
+                String nom = scanner.nextLine().trim();
+                while (!PlayerStats.isValidName(nom) || nom.equals(noms[1 - joueur])) {
+                    out.println("Nom vide ou déjà pris. Veuillez réessayer.");
+                    nom = scanner.nextLine().trim();
+                }
+                noms[joueur] = nom;
+            } else {
+                noms[joueur] = "Joueur " + (joueur + 1);
+            }
+        }
+        out.println("Joueur 1, choisissez une couleur (R pour Rouge, B pour Bleu): ");
         String couleur = scanner.nextLine().toUpperCase();
         while (!couleur.equals("R") && !couleur.equals("B")) {
-            System.out.println("Choix de couleur invalide. Veuillez réessayer.");
+            out.println("Choix de couleur invalide. Veuillez réessayer.");
             couleur = scanner.nextLine().toUpperCase();
         }
         assignPions(couleur);
@@ -54,12 +202,14 @@ public class Game {
                 this.pionJoueur2 = this.pionRouge;
                 break;
             default:
-                System.out.println("Choix de couleur invalide.");
+                out.println("Choix de couleur invalide.");
                 return;
         }
-        this.board.placePion(this.pionJoueur1, this.pionJoueur1.getPosition(), this.pionJoueur1.getOrientation());
-        this.board.placePion(this.pionBlanc, this.pionBlanc.getPosition(), this.pionBlanc.getOrientation());
-        this.board.placePion(this.pionJoueur2, this.pionJoueur2.getPosition(), this.pionJoueur2.getOrientation());
+        this.engine.assignPions(BitBoard.pieceIndex(this.pionJoueur1.getColor()));
+        this.joueurs[0] = new Player(noms[0] == null ? "Joueur 1" : noms[0], pionJoueur1);
+        this.joueurs[1] = new Player(noms[1] == null ? "Joueur 2" : noms[1], pionJoueur2);
+        journaliser(EventLog.GAME_START, 0, 0, 0);
+        journaliser(EventLog.COLOR_ASSIGNMENT, engine.getPlayerPiece(0), 0, 0);
     }
 
     /**
@@ -69,14 +219,15 @@ public class Game {
     private void gameloop(Scanner scanner) {
         boolean gameOver = false;
         while (!gameOver) {
-            if (!executePlayerTurn(scanner, pionJoueur1)) {
+            Pion pionCourant = engine.getCurrentPlayer() == 0 ? pionJoueur1 : pionJoueur2;
+            if (!executePlayerTurn(scanner, pionCourant)) {
                 gameOver = true;
                 continue;
             }
-            executeNeutralTurn(scanner, pionBlanc);
+            if (engine.isNeutralTurn()) {
+                executeNeutralTurn(scanner, pionBlanc);
+            }
             gameOver = checkWinCondition();
-            if (gameOver) break;
-            echangerJoueurs();
         }
     }
 
@@ -87,16 +238,20 @@ public class Game {
      * @return Un booléen indiquant si le tour du joueur a été exécuté avec succès.
      */
     private boolean executePlayerTurn(Scanner scanner, Pion currentPlayerPion) {
-        System.out.println("Déplacements possibles pour " + currentPlayerPion.getColor() + ":");
-        System.out.println(board.getBoardWithMoveOptions(currentPlayerPion));
+        long start = System.nanoTime();
+        out.println("Déplacements possibles pour " + currentPlayerPion.getColor() + ":");
+        out.println(board.getBoardWithMoveOptions(currentPlayerPion));
         List<Integer> playerMoves = this.board.getAvailableMoves(currentPlayerPion);
         if (playerMoves.isEmpty()) {
-            System.out.println("Aucun déplacement possible pour " + currentPlayerPion.getColor() + ". Match nul.");
+            out.println("Aucun déplacement possible pour " + currentPlayerPion.getColor() + ". Match nul.");
+            journaliser(EventLog.GAME_END, GameEngine.Outcome.DRAW.ordinal(), scoreJoueur1, scoreJoueur2);
+            enregistrerResultat(GameEngine.Outcome.DRAW);
+            GameMetrics.PLAYER_TURN.stop(start);
             return false;
         }
-        int playerChoice = obtenirChoix(scanner, currentPlayerPion, playerMoves);
-        this.board.effectuerMouvement(playerChoice, currentPlayerPion);
+        effectuerMouvement(choisirMouvement(scanner, currentPlayerPion, playerMoves), currentPlayerPion);
         updateScores();
+        GameMetrics.PLAYER_TURN.stop(start);
         return true;
     }
 
@@ -106,34 +261,72 @@ public class Game {
      * @param neutralPion Le pion neutre.
      */
     private void executeNeutralTurn(Scanner scanner, Pion neutralPion) {
-        System.out.println("Déplacements possibles pour le pion neutre :");
-        System.out.println(board.getBoardWithMoveOptions(neutralPion));
+        long start = System.nanoTime();
+        out.println("Déplacements possibles pour le pion neutre :");
+        out.println(board.getBoardWithMoveOptions(neutralPion));
         List<Integer> neutralMoves = this.board.getAvailableMoves(neutralPion);
         if (!neutralMoves.isEmpty()) {
-            int neutralChoice = obtenirChoix(scanner, neutralPion, neutralMoves);
-            this.board.effectuerMouvement(neutralChoice, neutralPion);
+            effectuerMouvement(choisirMouvement(scanner, neutralPion, neutralMoves), neutralPion);
         }
+        GameMetrics.NEUTRAL_TURN.stop(start);
     }
 
     /**
-     * Méthode pour mettre à jour les scores des joueurs.
+     * Méthode pour obtenir le mouvement du joueur courant, humain ou ordinateur.
+     * @param scanner L'objet Scanner utilisé pour lire l'entrée d'un joueur humain.
+     * @param pion Le pion à déplacer.
+     * @param mouvementsPossibles La liste des mouvements possibles pour le pion.
+     * @return Le mouvement codé.
      */
-    private void updateScores() {
-        scoreJoueur1 = 0;
-        scoreJoueur2 = 0;
-
-        char[] rightColumnSpots = board.getRightColumnSpots();
-
-        for (char spot : rightColumnSpots) {
-            if (spot == pionJoueur1.getColor().getSymbol()) {
-                scoreJoueur1++;
-            } else if (spot == pionJoueur2.getColor().getSymbol()) {
-                scoreJoueur2++;
+    private int choisirMouvement(Scanner scanner, Pion pion, List<Integer> mouvementsPossibles) {
+        Agent ordinateur = ordinateurs[engine.getCurrentPlayer()];
+        long start = System.nanoTime();
+        if (ordinateur == null) {
+            if (analyse != null) {
+                analyse.start(engine, mouvementsPossibles);
             }
+            int choix = obtenirChoix(scanner, pion, mouvementsPossibles);
+            if (analyse != null) {
+                analyse.stop();
+            }
+            GameMetrics.HUMAN_CHOICE.stop(start);
+            return engine.resolveOption(choix);
         }
+        int count = engine.generateMoves(mouvements);
+        int move = ordinateur.chooseMove(engine, mouvements, count);
+        GameMetrics.AGENT_CHOICE.stop(start);
+        out.println("L'ordinateur joue en " + BitBoard.position(move) + " (" + ordinateur.report() + ")");
+        return move;
+    }
 
-        System.out.println("Score Joueur 1: " + scoreJoueur1 + " - Score Joueur 2: " + scoreJoueur2);
-        board.printBoard();
+    /**
+     * Méthode pour appliquer un mouvement au moteur et recopier le nouveau placement dans le pion affiché.
+     * @param move Le mouvement codé.
+     * @param pion Le pion déplacé.
+     */
+    private void effectuerMouvement(int move, Pion pion) {
+        journaliser(engine.isNeutralTurn() ? EventLog.NEUTRAL_MOVE : EventLog.PLAYER_MOVE,
+                engine.getCurrentPlayer(), move, 0);
+        if (analyse != null) {
+            analyse.advance(move);
+        }
+        engine.applyMove(move);
+        pion.setPosition(BitBoard.position(move));
+        pion.setOrientation(Board.orientation(move));
+    }
+
+    /**
+     * Méthode pour mettre à jour les scores des joueurs à partir du moteur.
+     */
+    private void updateScores() {
+        scoreJoueur1 = engine.getScore(0);
+        scoreJoueur2 = engine.getScore(1);
+        joueurs[0].addScore(scoreJoueur1 - joueurs[0].getScore());
+        joueurs[1].addScore(scoreJoueur2 - joueurs[1].getScore());
+        journaliser(EventLog.SCORE_UPDATE, scoreJoueur1, scoreJoueur2, 0);
+
+        out.println("Score Joueur 1: " + scoreJoueur1 + " - Score Joueur 2: " + scoreJoueur2);
+        board.printBoard(out);
     }
 
     /**
@@ -146,7 +339,7 @@ public class Game {
     private int obtenirChoix(Scanner scanner, Pion pion, List<Integer> mouvementsPossibles) {
         int choixIndex = -1;
         do {
-            System.out.println("Entrez le numéro de votre choix :");
+            out.println("Entrez le numéro de votre choix :");
             if (scanner.hasNextInt()) {
                 int choix = scanner.nextInt();
                 if (choix > 0 && choix <= mouvementsPossibles.size()) {
@@ -164,36 +357,36 @@ public class Game {
 
     /**
      * Méthode pour vérifier si les conditions de victoire sont remplies.
+     * Affiche le message de fin de partie lorsqu'un joueur a gagné.
      * @return Un booléen indiquant si les conditions de victoire sont remplies.
      */
     boolean checkWinCondition() {
-        if (this.scoreJoueur1 >= 12) {
-            if (this.scoreJoueur2 < 6) {
-                System.out.println("Le joueur 2 gagne car le joueur 1 a atteint 12 points mais le joueur 2 a moins de 6 points.");
-                return true;
-            } else {
-                System.out.println("Le joueur 1 gagne.");
-                return true;
-            }
-        } else if (this.scoreJoueur2 >= 12) {
-            if (this.scoreJoueur1 < 6) {
-                System.out.println("Le joueur 1 gagne car le joueur 2 a atteint 12 points mais le joueur 1 a moins de 6 points.");
-                return true;
-            } else {
-                System.out.println("Le joueur 2 gagne.");
-                return true;
-            }
+        GameEngine.Outcome outcome = GameEngine.checkWinCondition(this.scoreJoueur1, this.scoreJoueur2);
+        if (outcome == GameEngine.Outcome.IN_PROGRESS) {
+            return false;
         }
-        return false;
+        out.println(outcome.getMessage());
+        journaliser(EventLog.GAME_END, outcome.ordinal(), scoreJoueur1, scoreJoueur2);
+        enregistrerResultat(outcome);
+        return true;
     }
 
     /**
-     * Méthode pour échanger les joueurs.
+     * Enregistre le résultat de la partie dans les statistiques et affiche le nouveau rang de chaque joueur.
+     * @param outcome L'issue de la partie.
      */
-    private void echangerJoueurs() {
-        Pion temp = this.pionJoueur1;
-        this.pionJoueur1 = this.pionJoueur2;
-        this.pionJoueur2 = temp;
+    private void enregistrerResultat(GameEngine.Outcome outcome) {
+        if (statistiques == null || joueurs[0] == null) return;
+        try {
+            statistiques.record(joueurs[0].getName(), joueurs[1].getName(), joueurs[0].getScore(),
+                    joueurs[1].getScore(), outcome);
+            for (Player joueur : joueurs) {
+                out.printf("%s : rang %d, classement %.0f%n", joueur.getName(), statistiques.rank(joueur.getName()),
+                        statistiques.getRating(joueur.getName()));
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            out.println("Résultat non enregistré : " + e.getMessage());
+        }
     }
 
     /**
@@ -201,7 +394,7 @@ public class Game {
      * @return Un booléen indiquant que le jeu est terminé.
      */
     public boolean end() {
-        System.out.println("Fin du jeu.");
+        out.println("Fin du jeu.");
         return true;
     }
 
@@ -213,4 +406,4 @@ public class Game {
     public boolean movePion(int choix) {
         return true;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,352 @@
+/**
+ * Moteur de jeu sans entrée ni sortie.
+ * Contient l'état complet d'une partie (plateau compact, couleurs des joueurs, tour en cours, scores)
+ * et applique les règles de Game : un joueur déplace son pion, marque un point par case occupée dans la
+ * colonne de droite, puis déplace le pion neutre. La partie se termine selon checkWinCondition,
+ * ou par un match nul si le joueur courant ne peut plus se déplacer.
+ */
+public class GameEngine {
+    /**
+     * Enumération représentant l'issue d'une partie.
+     */
+    public enum Outcome {
+        IN_PROGRESS(-1, "Partie en cours."),
+        PLAYER1_WINS(0, "Le joueur 1 gagne."),
+        PLAYER2_WINS(1, "Le joueur 2 gagne."),
+        PLAYER1_WINS_UNDER_SIX(0, "Le joueur 1 gagne car le joueur 2 a atteint 12 points mais le joueur 1 a moins de 6 points."),
+        PLAYER2_WINS_UNDER_SIX(1, "Le joueur 2 gagne car le joueur 1 a atteint 12 points mais le joueur 2 a moins de 6 points."),
+        DRAW(-1, "Match nul.");
+
+        private final int winner;
+        private final String message;
+
+        /**
+         * Constructeur de l'énumération Outcome.
+         * @param winner L'indice du joueur gagnant, -1 s'il n'y en a pas.
+         * @param message Le message affiché en fin de partie.
+         */
+        Outcome(int winner, String message) {
+            this.winner = winner;
+            this.message = message;
+        }
+
+        /**
+         * Méthode pour obtenir le joueur gagnant.
+         * @return L'indice du joueur gagnant (0 pour le joueur 1, 1 pour le joueur 2), -1 s'il n'y en a pas.
+         */
+        public int getWinner() {
+            return winner;
+        }
+
+        /**
+         * Méthode pour obtenir le message de fin de partie.
+         * @return Le message de fin de partie.
+         */
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    // Score à atteindre pour terminer la partie et score minimal que l'adversaire doit avoir atteint
+    public static final int WINNING_SCORE = 12;
+    public static final int MINIMUM_OPPONENT_SCORE = 6;
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    private final BitBoard board = new BitBoard();
+    private final int[] playerPieces = {BitBoard.RED, BitBoard.BLUE};
+    private final int[] scores = new int[2];
+    private int currentPlayer;
+    private boolean neutralTurn;
+    private int turn;
+    private Outcome outcome;
+    // Journal d'annulation de makeMove : scores, joueur courant, phase, issue et nombre de tours avant chaque mouvement
+    private long[] undoLog = new long[64];
+    private int undoSize;
+
+    /**
+     * Constructeur de la classe GameEngine.
+     * Initialise le plateau à sa disposition de départ, le joueur 1 jouant le rouge.
+     */
+    public GameEngine() {
+        reset();
+    }
+
+    /**
+     * Remet la partie à zéro sans changer l'attribution des couleurs.
+     */
+    public void reset() {
+        board.reset();
+        scores[0] = 0;
+        scores[1] = 0;
+        currentPlayer = 0;
+        neutralTurn = false;
+        turn = 0;
+        outcome = Outcome.IN_PROGRESS;
+        undoSize = 0;
+    }
+
+    /**
+     * Copie l'état d'un autre moteur dans celui-ci.
+     * @param other Le moteur à copier.
+     */
+    public void copyFrom(GameEngine other) {
+        board.copyFrom(other.board);
+        playerPieces[0] = other.playerPieces[0];
+        playerPieces[1] = other.playerPieces[1];
+        scores[0] = other.scores[0];
+        scores[1] = other.scores[1];
+        currentPlayer = other.currentPlayer;
+        neutralTurn = other.neutralTurn;
+        turn = other.turn;
+        outcome = other.outcome;
+        undoSize = 0;
+    }
+
+    /**
+     * Méthode pour assigner les pions aux joueurs en fonction du choix de couleur du joueur 1.
+     * @param piecePlayer1 L'indice du pion choisi par le joueur 1 (BitBoard.RED ou BitBoard.BLUE).
+     */
+    public void assignPions(int piecePlayer1) {
+        if (piecePlayer1 != BitBoard.RED && piecePlayer1 != BitBoard.BLUE) {
+            throw new IllegalArgumentException("Choix de couleur invalide : " + piecePlayer1);
+        }
+        playerPieces[0] = piecePlayer1;
+        playerPieces[1] = piecePlayer1 == BitBoard.RED ? BitBoard.BLUE : BitBoard.RED;
+    }
+
+    /**
+     * Méthode pour obtenir le plateau compact.
+     * @return Le plateau compact.
+     */
+    public BitBoard getBoard() {
+        return board;
+    }
+
+    /**
+     * Méthode pour obtenir le joueur dont c'est le tour (il joue aussi le pion neutre).
+     * @return L'indice du joueur courant (0 pour le joueur 1, 1 pour le joueur 2).
+     */
+    public int getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    /**
+     * Méthode pour savoir si le prochain mouvement est celui du pion neutre.
+     * @return Vrai si le pion neutre doit être déplacé.
+     */
+    public boolean isNeutralTurn() {
+        return neutralTurn;
+    }
+
+    /**
+     * Méthode pour obtenir le pion à déplacer au prochain mouvement.
+     * @return L'indice du pion à déplacer.
+     */
+    public int getPieceToMove() {
+        return neutralTurn ? BitBoard.WHITE : playerPieces[currentPlayer];
+    }
+
+    /**
+     * Méthode pour obtenir le pion d'un joueur.
+     * @param player L'indice du joueur.
+     * @return L'indice du pion du joueur.
+     */
+    public int getPlayerPiece(int player) {
+        return playerPieces[player];
+    }
+
+    /**
+     * Méthode pour obtenir le score d'un joueur.
+     * @param player L'indice du joueur.
+     * @return Le score du joueur.
+     */
+    public int getScore(int player) {
+        return scores[player];
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de tours de joueur déjà joués.
+     * @return Le nombre de tours joués.
+     */
+    public int getTurn() {
+        return turn;
+    }
+
+    /**
+     * Méthode pour obtenir l'issue de la partie.
+     * @return L'issue de la partie, IN_PROGRESS si elle n'est pas terminée.
+     */
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Calcule le hachage de Zobrist de l'état complet : placements, couleur du joueur 1, joueur qui a la main,
+     * phase du tour et scores. Le hachage des placements est tenu à jour par le plateau ; le reste ne coûte que
+     * quelques ou exclusifs.
+     * @return Le hachage sur 64 bits.
+     */
+    public long hash() {
+        long hash = board.getHash() ^ Zobrist.PLAYER[currentPlayer]
+                ^ Zobrist.score(0, scores[0]) ^ Zobrist.score(1, scores[1]);
+        if (neutralTurn) hash ^= Zobrist.NEUTRAL_TURN;
+        if (playerPieces[0] == BitBoard.BLUE) hash ^= Zobrist.BLUE_FIRST;
+        return hash;
+    }
+
+    /**
+     * Calcule une clé exacte de l'état complet, sans collision : les trois placements (5 bits chacun), le joueur qui a
+     * la main, la phase du tour, les deux scores (6 bits chacun) et la couleur du joueur 1.
+     * @return La clé sur 30 bits.
+     */
+    public long compactKey() {
+        return board.getPlacement(BitBoard.RED)
+                | board.getPlacement(BitBoard.BLUE) << 5
+                | board.getPlacement(BitBoard.WHITE) << 10
+                | currentPlayer << 15
+                | (neutralTurn ? 1 : 0) << 16
+                | (scores[0] & 0x3F) << 17
+                | (scores[1] & 0x3F) << 23
+                | (playerPieces[0] == BitBoard.BLUE ? 1 : 0) << 29;
+    }
+
+    /**
+     * Méthode pour savoir si la partie est terminée.
+     * @return Vrai si la partie est terminée.
+     */
+    public boolean isOver() {
+        return outcome != Outcome.IN_PROGRESS;
+    }
+
+    /**
+     * Remplit le tampon avec les mouvements distincts du pion à déplacer.
+     * @param buffer Le tampon recevant les mouvements codés, d'au moins BitBoard.MAX_MOVES cases.
+     * @return Le nombre de mouvements, 0 si la partie est terminée.
+     */
+    public int generateMoves(int[] buffer) {
+        return isOver() ? 0 : board.generateMoves(getPieceToMove(), buffer);
+    }
+
+    /**
+     * Remplit le tampon avec les options numérotées du pion à déplacer, dans l'ordre affiché par Game.
+     * @param buffer Le tampon recevant les positions, d'au moins BitBoard.MAX_MOVES cases.
+     * @return Le nombre d'options, 0 si la partie est terminée.
+     */
+    public int generateOptions(int[] buffer) {
+        return isOver() ? 0 : board.generateOptions(getPieceToMove(), buffer);
+    }
+
+    /**
+     * Résout une position choisie parmi les options en mouvement codé.
+     * @param position La position choisie.
+     * @return Le mouvement codé, ou -1 si la position n'est pas jouable.
+     */
+    public int resolveOption(int position) {
+        return board.resolveMove(getPieceToMove(), position);
+    }
+
+    /**
+     * Applique un mouvement valide du pion à déplacer puis fait avancer la partie.
+     * Après le mouvement d'un joueur, son score augmente du nombre de cases de son pion dans la colonne de droite.
+     * Le tour du pion neutre est passé s'il ne peut pas bouger. En fin de tour, la condition de victoire est
+     * vérifiée puis la main passe à l'autre joueur ; s'il ne peut pas bouger, la partie est nulle.
+     * @param move Le mouvement codé, tel que produit par generateMoves ou resolveOption.
+     */
+    public void applyMove(int move) {
+        if (isOver()) {
+            throw new IllegalStateException("La partie est terminée.");
+        }
+        int piece = getPieceToMove();
+        board.applyMove(piece, move);
+        afterMove(piece);
+    }
+
+    /**
+     * Fait avancer la partie après le mouvement d'un pion : points marqués, passage du pion neutre, fin de tour.
+     * @param piece Le pion qui vient d'être déplacé.
+     */
+    private void afterMove(int piece) {
+        if (neutralTurn) {
+            endTurn();
+        } else {
+            scores[currentPlayer] += board.rightColumnCount(piece);
+            turn++;
+            neutralTurn = true;
+            if (!board.hasMoves(BitBoard.WHITE)) {
+                endTurn();
+            }
+        }
+    }
+
+    /**
+     * Applique un mouvement comme applyMove en gardant de quoi l'annuler avec unmakeMove.
+     * Permet d'explorer un arbre de recherche sur un seul moteur, sans copier la partie à chaque nœud.
+     * @param move Le mouvement codé, tel que produit par generateMoves ou resolveOption.
+     */
+    public void makeMove(int move) {
+        if (isOver()) {
+            throw new IllegalStateException("La partie est terminée.");
+        }
+        if (undoSize == undoLog.length) {
+            undoLog = java.util.Arrays.copyOf(undoLog, undoSize * 2);
+        }
+        undoLog[undoSize++] = (long) turn << 32
+                | outcome.ordinal() << 18
+                | (neutralTurn ? 1 << 17 : 0)
+                | currentPlayer << 16
+                | scores[1] << 8
+                | scores[0];
+        board.pushMove(getPieceToMove(), move);
+        afterMove(getPieceToMove());
+    }
+
+    /**
+     * Annule le dernier mouvement joué par makeMove et restaure les scores, la phase et le joueur courant.
+     */
+    public void unmakeMove() {
+        long entry = undoLog[--undoSize];
+        board.popMove();
+        scores[0] = (int) (entry & 0xFF);
+        scores[1] = (int) ((entry >>> 8) & 0xFF);
+        currentPlayer = (int) ((entry >>> 16) & 1);
+        neutralTurn = ((entry >>> 17) & 1) != 0;
+        outcome = OUTCOMES[(int) ((entry >>> 18) & 7)];
+        turn = (int) (entry >>> 32);
+    }
+
+    /**
+     * Termine le tour du joueur courant : vérifie la victoire puis passe la main.
+     */
+    private void endTurn() {
+        neutralTurn = false;
+        outcome = checkWinCondition();
+        if (outcome != Outcome.IN_PROGRESS) return;
+        currentPlayer ^= 1;
+        if (!board.hasMoves(playerPieces[currentPlayer])) {
+            outcome = Outcome.DRAW;
+        }
+    }
+
+    /**
+     * Méthode pour vérifier si les conditions de victoire sont remplies, sans rien afficher.
+     * @return L'issue correspondant aux scores actuels.
+     */
+    public Outcome checkWinCondition() {
+        return checkWinCondition(scores[0], scores[1]);
+    }
+
+    /**
+     * Applique la règle des 12 et 6 points à une paire de scores.
+     * @param scoreJoueur1 Le score du joueur 1.
+     * @param scoreJoueur2 Le score du joueur 2.
+     * @return L'issue correspondant aux scores.
+     */
+    public static Outcome checkWinCondition(int scoreJoueur1, int scoreJoueur2) {
+        if (scoreJoueur1 >= WINNING_SCORE) {
+            return scoreJoueur2 < MINIMUM_OPPONENT_SCORE ? Outcome.PLAYER2_WINS_UNDER_SIX : Outcome.PLAYER1_WINS;
+        } else if (scoreJoueur2 >= WINNING_SCORE) {
+            return scoreJoueur1 < MINIMUM_OPPONENT_SCORE ? Outcome.PLAYER1_WINS_UNDER_SIX : Outcome.PLAYER2_WINS;
+        }
+        return Outcome.IN_PROGRESS;
+    }
+}
@@ -0,0 +1,130 @@
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Mesures de la boucle de jeu : un LatencyTimer par étape instrumentée, partagé par tous les fils.
+ * L'enregistrement ne prend aucun verrou et n'alloue rien, ce qui permet de laisser les mesures actives pendant
+ * les simulations. Les mesures sont publiées par JMX et peuvent être affichées périodiquement en texte.
+ */
+public class GameMetrics implements GameMetricsMBean {
+    public static final String OBJECT_NAME = "troisspots:type=GameMetrics";
+
+    // Tours de Game : mouvement d'un joueur et mouvement du pion neutre, choix compris
+    public static final LatencyTimer PLAYER_TURN = new LatencyTimer("tour joueur");
+    public static final LatencyTimer NEUTRAL_TURN = new LatencyTimer("tour neutre");
+    // Temps de réflexion : humain dans obtenirChoix, ordinateur dans Agent.chooseMove
+    public static final LatencyTimer HUMAN_CHOICE = new LatencyTimer("choix humain");
+    public static final LatencyTimer AGENT_CHOICE = new LatencyTimer("choix ordinateur");
+    public static final LatencyTimer AVAILABLE_MOVES = new LatencyTimer("getAvailableMoves");
+    public static final LatencyTimer RENDER = new LatencyTimer("rendu");
+    // Recherches des agents, avec leur travail : nœuds pour alpha-bêta, parties simulées pour Monte-Carlo
+    public static final LatencyTimer ALPHABETA_SEARCH = new LatencyTimer("recherche alpha-bêta");
+    public static final LatencyTimer MCTS_SEARCH = new LatencyTimer("recherche mcts");
+    // Attentes d'un producteur d'EventLog quand l'anneau est plein
+    public static final LatencyTimer EVENT_LOG_STALL = new LatencyTimer("attente journal");
+
+    private static final LatencyTimer[] TIMERS = {
+            PLAYER_TURN, NEUTRAL_TURN, HUMAN_CHOICE, AGENT_CHOICE, AVAILABLE_MOVES, RENDER, ALPHABETA_SEARCH, MCTS_SEARCH,
+            EVENT_LOG_STALL
+    };
+    private static final GameMetrics INSTANCE = new GameMetrics();
+    private static boolean registered;
+
+    private GameMetrics() {
+    }
+
+    /**
+     * Publie les mesures par JMX sous le nom OBJECT_NAME ; les appels suivants ne font rien.
+     */
+    public static synchronized void register() {
+        if (registered) return;
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+            registered = true;
+        } catch (JMException e) {
+            throw new IllegalStateException("Impossible de publier les mesures par JMX.", e);
+        }
+    }
+
+    /**
+     * Affiche le rapport des mesures à intervalle régulier, sur un fil démon.
+     * @param out Le flux de sortie.
+     * @param periodSeconds L'intervalle en secondes.
+     * @return Le planificateur, à arrêter pour mettre fin à l'affichage.
+     */
+    public static ScheduledExecutorService startPeriodicDump(PrintStream out, long periodSeconds) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mesures");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> out.println(INSTANCE.snapshot()), periodSeconds, periodSeconds, TimeUnit.SECONDS);
+        return scheduler;
+    }
+
+    /**
+     * Méthode pour obtenir l'instance publiée par JMX.
+     * @return L'instance unique.
+     */
+    public static GameMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public String[] getTimerNames() {
+        String[] names = new String[TIMERS.length];
+        for (int i = 0; i < TIMERS.length; i++) names[i] = TIMERS[i].getName();
+        return names;
+    }
+
+    @Override
+    public long[] getCounts() {
+        long[] counts = new long[TIMERS.length];
+        for (int i = 0; i < TIMERS.length; i++) counts[i] = TIMERS[i].getCount();
+        return counts;
+    }
+
+    @Override
+    public double[] getMeanMicros() {
+        double[] means = new double[TIMERS.length];
+        for (int i = 0; i < TIMERS.length; i++) means[i] = TIMERS[i].getMeanMicros();
+        return means;
+    }
+
+    @Override
+    public double[] getP99Micros() {
+        double[] percentiles = new double[TIMERS.length];
+        for (int i = 0; i < TIMERS.length; i++) percentiles[i] = TIMERS[i].getPercentileMicros(99);
+        return percentiles;
+    }
+
+    @Override
+    public double[] getUnitsPerSecond() {
+        double[] rates = new double[TIMERS.length];
+        for (int i = 0; i < TIMERS.length; i++) rates[i] = TIMERS[i].getUnitsPerSecond();
+        return rates;
+    }
+
+    @Override
+    public String snapshot() {
+        StringBuilder report = new StringBuilder("Mesures :");
+        for (LatencyTimer timer : TIMERS) {
+            if (timer.getCount() > 0) report.append(System.lineSeparator()).append("  ").append(timer);
+        }
+        return report.toString();
+    }
+
+    @Override
+    public void reset() {
+        for (LatencyTimer timer : TIMERS) {
+            timer.reset();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * Interface JMX des mesures de GameMetrics, consultable avec jconsole ou VisualVM.
+ * Les tableaux sont dans l'ordre de getTimerNames.
+ */
+public interface GameMetricsMBean {
+    /**
+     * Méthode pour obtenir les noms des compteurs.
+     * @return Les noms.
+     */
+    String[] getTimerNames();
+
+    /**
+     * Méthode pour obtenir le nombre de mesures de chaque compteur.
+     * @return Les nombres de mesures.
+     */
+    long[] getCounts();
+
+    /**
+     * Méthode pour obtenir la durée moyenne de chaque compteur.
+     * @return Les moyennes en microsecondes.
+     */
+    double[] getMeanMicros();
+
+    /**
+     * Méthode pour obtenir le percentile 99 de chaque compteur.
+     * @return Les percentiles en microsecondes.
+     */
+    double[] getP99Micros();
+
+    /**
+     * Méthode pour obtenir le débit de travail de chaque compteur (nœuds ou parties simulées par seconde).
+     * @return Les débits, 0 pour les compteurs sans travail associé.
+     */
+    double[] getUnitsPerSecond();
+
+    /**
+     * Produit le rapport texte de toutes les mesures.
+     * @return Le rapport.
+     */
+    String snapshot();
+
+    /**
+     * Remet toutes les mesures à zéro.
+     */
+    void reset();
+}
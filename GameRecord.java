@@ -0,0 +1,31 @@
+/**
+ * Format binaire compact des parties enregistrées, partagé par GameRecordWriter et GameRecordReader.
+ * Le fichier commence par un en-tête (signature et version, en petit-boutiste), suivi des parties bout à bout.
+ * Une partie occupe trois octets d'en-tête puis un octet par mouvement, du joueur comme du pion neutre :
+ * - octet 0 : bit 0 pour le pion du joueur 1 (0 rouge, 1 bleu), bits 1 à 3 pour l'issue (ordinal de GameEngine.Outcome,
+ *   IN_PROGRESS pour une partie arrêtée par la limite de tours) ;
+ * - octets 1 et 2 : le nombre de mouvements, en petit-boutiste ;
+ * - puis chaque mouvement codé comme dans BitBoard : la case d'ancrage et le bit VERTICAL, soit l'orientation
+ *   que Board.calculateNewOrientation aurait choisie.
+ * Les tours passés du pion neutre ne sont pas enregistrés : le moteur les retrouve en rejouant la partie.
+ */
+final class GameRecord {
+    static final int MAGIC = 0x33535052; // "3SPR"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    static final int GAME_HEADER_SIZE = 3;
+    static final int MAX_MOVES = 0xFFFF;
+
+    private GameRecord() {
+    }
+
+    /**
+     * Calcule l'octet d'en-tête d'une partie.
+     * @param piecePlayer1 Le pion du joueur 1 (BitBoard.RED ou BitBoard.BLUE).
+     * @param outcome L'issue de la partie.
+     * @return L'octet d'en-tête.
+     */
+    static int flags(int piecePlayer1, GameEngine.Outcome outcome) {
+        return (piecePlayer1 == BitBoard.BLUE ? 1 : 0) | outcome.ordinal() << 1;
+    }
+}
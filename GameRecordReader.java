@@ -0,0 +1,166 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lecture par projection mémoire d'un fichier au format GameRecord.
+ * Le lecteur est un curseur : next passe à la partie suivante et les accesseurs lisent directement dans la projection,
+ * sans créer d'objet par partie. Un lecteur n'est pas partagé entre fils ; duplicate en donne un indépendant.
+ */
+public class GameRecordReader {
+    private static final GameEngine.Outcome[] OUTCOMES = GameEngine.Outcome.values();
+
+    private final ByteBuffer buffer;
+    // Région lue : de la première partie (incluse) à la fin (exclue)
+    private final int start;
+    private final int end;
+    // Début de la partie courante, et début de la suivante
+    private int current = -1;
+    private int next;
+
+    private GameRecordReader(ByteBuffer buffer, int start, int end) {
+        this.buffer = buffer;
+        this.start = start;
+        this.end = end;
+        this.next = start;
+    }
+
+    /**
+     * Projette un fichier d'enregistrement en mémoire.
+     * @param path Le chemin du fichier écrit par GameRecordWriter.
+     * @return Le lecteur, placé avant la première partie.
+     * @throws IOException Si le fichier est illisible, n'est pas un enregistrement valide ou dépasse 2 Gio.
+     */
+    public static GameRecordReader open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Fichier d'enregistrement trop grand pour une seule projection : " + path);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.limit() < GameRecord.HEADER_SIZE || buffer.getInt(0) != GameRecord.MAGIC
+                    || buffer.getInt(4) != GameRecord.VERSION) {
+                throw new IOException("Fichier d'enregistrement invalide : " + path);
+            }
+            return new GameRecordReader(buffer, GameRecord.HEADER_SIZE, buffer.limit());
+        }
+    }
+
+    /**
+     * Crée un lecteur indépendant sur la même projection et la même région, replacé avant la première partie.
+     * @return Le nouveau lecteur.
+     */
+    public GameRecordReader duplicate() {
+        return new GameRecordReader(buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN), start, end);
+    }
+
+    /**
+     * Découpe la région du lecteur en morceaux de tailles voisines, chacun commençant au début d'une partie.
+     * Seuls les en-têtes des parties sont parcourus pour trouver les frontières.
+     * @param parts Le nombre de morceaux souhaité.
+     * @return Des lecteurs indépendants couvrant la région, au plus parts, replacés avant leur première partie.
+     */
+    public GameRecordReader[] split(int parts) {
+        GameRecordReader[] readers = new GameRecordReader[parts];
+        int count = 0;
+        int regionStart = start;
+        int position = start;
+        for (int part = 1; part < parts; part++) {
+            long target = start + (long) (end - start) * part / parts;
+            while (position < target && position + GameRecord.GAME_HEADER_SIZE <= end) {
+                position += GameRecord.GAME_HEADER_SIZE + Short.toUnsignedInt(buffer.getShort(position + 1));
+            }
+            if (position > regionStart && position < end) {
+                readers[count++] = new GameRecordReader(buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN), regionStart, position);
+                regionStart = position;
+            }
+        }
+        readers[count++] = new GameRecordReader(buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN), regionStart, end);
+        return java.util.Arrays.copyOf(readers, count);
+    }
+
+    /**
+     * Méthode pour obtenir la taille de la région lue.
+     * @return Le nombre d'octets de la région.
+     */
+    public int getRegionSize() {
+        return end - start;
+    }
+
+    /**
+     * Passe à la partie suivante.
+     * @return Vrai s'il y a une partie, faux à la fin du fichier.
+     * @throws IllegalStateException Si la dernière partie est tronquée.
+     */
+    public boolean next() {
+        if (next >= end) {
+            current = next;
+            return false;
+        }
+        if (next + GameRecord.GAME_HEADER_SIZE > end) {
+            throw new IllegalStateException("Partie tronquée à l'octet " + next);
+        }
+        current = next;
+        next = current + GameRecord.GAME_HEADER_SIZE + getMoveCount();
+        if (next > end) {
+            throw new IllegalStateException("Partie tronquée à l'octet " + current);
+        }
+        return true;
+    }
+
+    /**
+     * Méthode pour obtenir le pion du joueur 1 dans la partie courante.
+     * @return BitBoard.RED ou BitBoard.BLUE.
+     */
+    public int getPiecePlayer1() {
+        return (buffer.get(current) & 1) == 0 ? BitBoard.RED : BitBoard.BLUE;
+    }
+
+    /**
+     * Méthode pour obtenir l'issue enregistrée de la partie courante.
+     * @return L'issue, IN_PROGRESS si la partie a été arrêtée par la limite de tours.
+     */
+    public GameEngine.Outcome getOutcome() {
+        return OUTCOMES[(buffer.get(current) >>> 1) & 7];
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de mouvements de la partie courante.
+     * @return Le nombre de mouvements, du joueur et du pion neutre.
+     */
+    public int getMoveCount() {
+        return Short.toUnsignedInt(buffer.getShort(current + 1));
+    }
+
+    /**
+     * Méthode pour obtenir un mouvement de la partie courante.
+     * @param index L'indice du mouvement, de 0 à getMoveCount() - 1.
+     * @return Le mouvement codé.
+     */
+    public int getMove(int index) {
+        return buffer.get(current + GameRecord.GAME_HEADER_SIZE + index) & 0xFF;
+    }
+
+    /**
+     * Rejoue la partie courante sur un moteur.
+     * @param engine Le moteur, remis à zéro par cette méthode.
+     */
+    public void replay(GameEngine engine) {
+        engine.reset();
+        engine.assignPions(getPiecePlayer1());
+        int count = getMoveCount();
+        for (int i = 0; i < count; i++) {
+            engine.applyMove(getMove(i));
+        }
+    }
+
+    /**
+     * Replace le lecteur avant la première partie.
+     */
+    public void rewind() {
+        current = -1;
+        next = start;
+    }
+}
@@ -0,0 +1,81 @@
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Écriture en continu de parties au format GameRecord, à travers un tampon.
+ * writeGame peut être appelée par plusieurs fils : chaque partie est écrite d'un bloc sous verrou.
+ */
+public class GameRecordWriter implements AutoCloseable {
+    private final OutputStream out;
+    private final byte[] header = new byte[GameRecord.GAME_HEADER_SIZE];
+    private long gameCount;
+
+    /**
+     * Constructeur de la classe GameRecordWriter ; l'en-tête du fichier est écrit aussitôt.
+     * @param out Le flux de sortie, enveloppé dans un tampon.
+     * @throws IOException Si l'en-tête ne peut pas être écrit.
+     */
+    public GameRecordWriter(OutputStream out) throws IOException {
+        this.out = new BufferedOutputStream(out, 1 << 16);
+        writeIntLittleEndian(GameRecord.MAGIC);
+        writeIntLittleEndian(GameRecord.VERSION);
+    }
+
+    /**
+     * Crée un fichier d'enregistrement, en écrasant un éventuel fichier existant.
+     * @param path Le chemin du fichier.
+     * @return L'enregistreur.
+     * @throws IOException Si le fichier ne peut pas être créé.
+     */
+    public static GameRecordWriter create(Path path) throws IOException {
+        return new GameRecordWriter(Files.newOutputStream(path));
+    }
+
+    /**
+     * Écrit une partie.
+     * @param piecePlayer1 Le pion du joueur 1 (BitBoard.RED ou BitBoard.BLUE).
+     * @param outcome L'issue de la partie.
+     * @param moves Les mouvements codés, un par octet, dans l'ordre où ils ont été joués.
+     * @param count Le nombre de mouvements.
+     * @throws IOException Si l'écriture échoue.
+     */
+    public synchronized void writeGame(int piecePlayer1, GameEngine.Outcome outcome, byte[] moves, int count)
+            throws IOException {
+        if (count > GameRecord.MAX_MOVES) {
+            throw new IllegalArgumentException("Partie trop longue : " + count + " mouvements.");
+        }
+        header[0] = (byte) GameRecord.flags(piecePlayer1, outcome);
+        header[1] = (byte) count;
+        header[2] = (byte) (count >>> 8);
+        out.write(header);
+        out.write(moves, 0, count);
+        gameCount++;
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de parties écrites.
+     * @return Le nombre de parties.
+     */
+    public synchronized long getGameCount() {
+        return gameCount;
+    }
+
+    private void writeIntLittleEndian(int value) throws IOException {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+
+    /**
+     * Vide le tampon puis ferme le flux.
+     * @throws IOException Si l'écriture échoue.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,547 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * Serveur TCP hébergeant de nombreuses parties simultanées.
+ * Un seul fil gère toutes les connexions avec un sélecteur NIO : une session inactive ne coûte qu'une clé de
+ * sélection et un petit tampon de lecture, ce qui permet de garder des milliers de sessions ouvertes en mémoire bornée.
+ *
+ * Protocole ligne à ligne, en texte :
+ * - le serveur demande une couleur, le client répond R ou B ;
+ * - la file d'attente apparie les joueurs dans l'ordre d'arrivée ; le plus ancien est le joueur 1 et garde sa couleur,
+ *   comme le choix du joueur 1 dans Game.start ;
+ * - à son tour, le joueur reçoit le plateau avec les options numérotées et répond par un numéro, comme dans obtenirChoix ;
+ * - une session dont on attend une réponse depuis plus que le délai est fermée ; en partie, elle perd par forfait.
+ */
+public class GameServer implements Runnable, AutoCloseable {
+    // Longueur maximale d'une ligne reçue, et volume maximal en attente d'envoi avant de couper un client trop lent
+    private static final int MAX_LINE = 64;
+    private static final int MAX_PENDING_BYTES = 64 * 1024;
+    // Intervalle de vérification des délais, en millisecondes
+    private static final long TICK_MILLIS = 250;
+    private static final byte[] PROMPT_COLOR = line("Joueur, choisissez une couleur (R pour Rouge, B pour Bleu): ");
+    private static final byte[] PROMPT_CHOICE = line("Entrez le numéro de votre choix :");
+
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final long timeoutNanos;
+    private final int maxSessions;
+    // Tampon de lecture commun : les octets lus sont aussitôt recopiés dans la ligne en cours de la session
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(4096);
+    private final ArrayDeque<Session> waiting = new ArrayDeque<>();
+    private volatile boolean running = true;
+    private Thread thread;
+    // Journal facultatif des événements des parties, et diffusion facultative aux spectateurs
+    private EventLog journal;
+    private SpectatorHub spectateurs;
+    private long matchIds;
+
+    private volatile int sessionCount;
+    private volatile long gamesStarted;
+    private volatile long gamesFinished;
+
+    /**
+     * Constructeur de la classe GameServer ; le serveur écoute dès la construction.
+     * @param port Le port d'écoute, 0 pour un port libre.
+     * @param timeoutMillis Le délai de réponse accordé à un client, en millisecondes.
+     * @param maxSessions Le nombre maximal de sessions ouvertes ; les connexions suivantes sont refusées.
+     * @throws IOException Si le port ne peut pas être ouvert.
+     */
+    public GameServer(int port, long timeoutMillis, int maxSessions) throws IOException {
+        this.timeoutNanos = timeoutMillis * 1_000_000L;
+        this.maxSessions = maxSessions;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), 1024);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Méthode pour obtenir le port d'écoute.
+     * @return Le port effectivement ouvert.
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Méthode pour journaliser les événements des parties ; à appeler avant start.
+     * @param journal Le journal, ou null pour ne rien journaliser.
+     */
+    public void setJournal(EventLog journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Méthode pour diffuser les parties aux spectateurs ; à appeler avant start.
+     * @param spectateurs Le diffuseur, ou null pour ne rien diffuser.
+     */
+    public void setSpectateurs(SpectatorHub spectateurs) {
+        this.spectateurs = spectateurs;
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de sessions ouvertes.
+     * @return Le nombre de sessions.
+     */
+    public int getSessionCount() {
+        return sessionCount;
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de parties commencées.
+     * @return Le nombre de parties.
+     */
+    public long getGamesStarted() {
+        return gamesStarted;
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de parties terminées, normalement ou par forfait.
+     * @return Le nombre de parties.
+     */
+    public long getGamesFinished() {
+        return gamesFinished;
+    }
+
+    /**
+     * Démarre la boucle du serveur sur un fil dédié.
+     * @return Le serveur, pour chaîner les appels.
+     */
+    public GameServer start() {
+        thread = new Thread(this, "serveur");
+        thread.setDaemon(true);
+        thread.start();
+        return this;
+    }
+
+    /**
+     * Boucle du sélecteur : acceptations, lectures, écritures, puis vérification des délais.
+     */
+    @Override
+    public void run() {
+        long nextTick = System.nanoTime();
+        try {
+            while (running) {
+                selector.select(TICK_MILLIS);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Session session = (Session) key.attachment();
+                    if (key.isReadable()) read(session);
+                    if (key.isValid() && key.isWritable()) flush(session);
+                }
+                long now = System.nanoTime();
+                if (now - nextTick >= 0) {
+                    expire(now);
+                    nextTick = now + TICK_MILLIS * 1_000_000L;
+                }
+            }
+        } catch (IOException e) {
+            throw new java.io.UncheckedIOException(e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                closeQuietly(key);
+            }
+            closeQuietly(serverChannel);
+            closeQuietly(selector);
+        }
+    }
+
+    /**
+     * Arrête le serveur et ferme toutes les sessions.
+     */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            if (sessionCount >= maxSessions) {
+                channel.write(ByteBuffer.wrap(line("Serveur complet.")));
+                channel.close();
+                continue;
+            }
+            Session session = new Session(channel);
+            session.key = channel.register(selector, SelectionKey.OP_READ, session);
+            sessionCount++;
+            session.send(PROMPT_COLOR);
+        }
+    }
+
+    /**
+     * Lit les octets disponibles et traite chaque ligne complète.
+     */
+    private void read(Session session) {
+        readBuffer.clear();
+        int read;
+        try {
+            read = session.channel.read(readBuffer);
+        } catch (IOException e) {
+            read = -1;
+        }
+        if (read < 0) {
+            disconnect(session);
+            return;
+        }
+        readBuffer.flip();
+        while (readBuffer.hasRemaining() && session.key.isValid()) {
+            byte b = readBuffer.get();
+            if (b == '\n') {
+                String text = new String(session.line, 0, session.lineLength, StandardCharsets.US_ASCII).trim();
+                session.lineLength = 0;
+                onLine(session, text);
+            } else if (b != '\r') {
+                if (session.lineLength == MAX_LINE) {
+                    session.send(line("Ligne trop longue."));
+                    disconnect(session);
+                    return;
+                }
+                session.line[session.lineLength++] = b;
+            }
+        }
+    }
+
+    private void onLine(Session session, String text) {
+        if (session.closing) return;
+        if (session.match != null) {
+            session.match.onLine(session, text);
+            return;
+        }
+        if (session.color >= 0) {
+            session.send(line("En attente d'un adversaire..."));
+            return;
+        }
+        String couleur = text.toUpperCase();
+        if (!couleur.equals("R") && !couleur.equals("B")) {
+            session.send(line("Choix de couleur invalide. Veuillez réessayer."));
+            return;
+        }
+        session.color = couleur.equals("R") ? BitBoard.RED : BitBoard.BLUE;
+        Session opponent = waiting.pollFirst();
+        if (opponent == null) {
+            waiting.addLast(session);
+            session.send(line("En attente d'un adversaire..."));
+        } else {
+            new Match(opponent, session).start();
+        }
+    }
+
+    /**
+     * Ferme les sessions dont on attend une réponse depuis trop longtemps.
+     */
+    private void expire(long now) {
+        for (SelectionKey key : selector.keys()) {
+            if (!(key.attachment() instanceof Session)) continue;
+            Session session = (Session) key.attachment();
+            if (!session.closing && session.awaitingInput() && now - session.deadline > 0) {
+                session.send(line("Temps écoulé."));
+                if (session.match != null) {
+                    session.match.forfeit(session);
+                } else {
+                    waiting.remove(session);
+                    session.closeWhenFlushed();
+                }
+            }
+        }
+    }
+
+    /**
+     * Gère la déconnexion d'un client ; son adversaire éventuel est prévenu et sa session fermée.
+     */
+    private void disconnect(Session session) {
+        waiting.remove(session);
+        if (session.match != null && !session.match.finished) {
+            Session opponent = session.match.players[session.player ^ 1];
+            session.match.finish("Le joueur " + (session.player + 1) + " s'est déconnecté.");
+            opponent.send(line("L'adversaire s'est déconnecté."));
+            opponent.closeWhenFlushed();
+        }
+        close(session);
+    }
+
+    private void close(Session session) {
+        if (session.key.isValid()) {
+            sessionCount--;
+        }
+        closeQuietly(session.key);
+    }
+
+    private void flush(Session session) {
+        try {
+            while (!session.output.isEmpty()) {
+                ByteBuffer head = session.output.peekFirst();
+                session.channel.write(head);
+                if (head.hasRemaining()) break;
+                session.pendingBytes -= head.limit();
+                session.output.pollFirst();
+            }
+        } catch (IOException e) {
+            disconnect(session);
+            return;
+        }
+        if (session.output.isEmpty()) {
+            if (session.closing) {
+                close(session);
+            } else {
+                session.key.interestOps(SelectionKey.OP_READ);
+            }
+        } else {
+            session.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+    }
+
+    private static byte[] line(String text) {
+        return (text + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void closeQuietly(SelectionKey key) {
+        key.cancel();
+        closeQuietly(key.channel());
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // Rien à faire : la connexion est perdue de toute façon
+        }
+    }
+
+    /**
+     * Connexion d'un client : ligne en cours de lecture, octets en attente d'envoi, partie éventuelle.
+     */
+    private final class Session {
+        final SocketChannel channel;
+        SelectionKey key;
+        final byte[] line = new byte[MAX_LINE];
+        int lineLength;
+        // Les images du plateau sont partagées par toutes les sessions ; seule une vue est mise en file
+        final ArrayDeque<ByteBuffer> output = new ArrayDeque<>(4);
+        int pendingBytes;
+        long deadline = System.nanoTime() + timeoutNanos;
+        int color = -1;
+        Match match;
+        int player;
+        boolean closing;
+
+        Session(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Indique si le serveur attend une réponse de ce client : choix de couleur, ou mouvement à son tour.
+         * Un client en file d'attente n'a rien à répondre et attend son adversaire sans limite de temps.
+         */
+        boolean awaitingInput() {
+            if (match == null) return color < 0;
+            return !match.engine.isOver() && match.engine.getCurrentPlayer() == player;
+        }
+
+        void send(byte[] bytes) {
+            if (!key.isValid()) return;
+            pendingBytes += bytes.length;
+            if (pendingBytes > MAX_PENDING_BYTES) {
+                // Client trop lent : on le coupe plutôt que d'accumuler des données pour lui
+                output.clear();
+                disconnect(this);
+                return;
+            }
+            output.addLast(ByteBuffer.wrap(bytes));
+            flush(this);
+        }
+
+        void closeWhenFlushed() {
+            closing = true;
+            if (output.isEmpty()) close(this);
+        }
+    }
+
+    /**
+     * Partie entre deux sessions, jouée sur un GameEngine.
+     */
+    private final class Match {
+        final GameEngine engine = new GameEngine();
+        final Session[] players;
+        final int[] options = new int[BitBoard.MAX_MOVES];
+        final long id = journal == null ? ++matchIds : journal.nextGameId();
+        int optionCount;
+        boolean finished;
+
+        Match(Session player1, Session player2) {
+            this.players = new Session[] {player1, player2};
+            player1.match = this;
+            player1.player = 0;
+            player2.match = this;
+            player2.player = 1;
+        }
+
+        void start() {
+            gamesStarted++;
+            engine.assignPions(players[0].color);
+            journaliser(EventLog.GAME_START, 0, 0, 0);
+            journaliser(EventLog.COLOR_ASSIGNMENT, players[0].color, 0, 0);
+            if (spectateurs != null) {
+                spectateurs.publishStart(id, engine);
+            }
+            for (Session session : players) {
+                session.deadline = System.nanoTime() + timeoutNanos;
+                session.send(line("Partie trouvée : vous êtes le joueur " + (session.player + 1) + " ("
+                        + BitBoard.color(engine.getPlayerPiece(session.player)) + ")."));
+            }
+            prompt();
+        }
+
+        /**
+         * Envoie le plateau et les options numérotées au joueur qui a la main.
+         */
+        void prompt() {
+            Session session = players[engine.getCurrentPlayer()];
+            int piece = engine.getPieceToMove();
+            optionCount = engine.generateOptions(options);
+            session.send(line(piece == BitBoard.WHITE ? "Déplacements possibles pour le pion neutre :"
+                    : "Déplacements possibles pour " + BitBoard.color(piece) + ":"));
+            session.send(BoardRenderer.frame(engine.getBoard(), piece).bytes);
+            session.send(PROMPT_CHOICE);
+            session.deadline = System.nanoTime() + timeoutNanos;
+        }
+
+        void onLine(Session session, String text) {
+            if (finished) return;
+            if (session.player != engine.getCurrentPlayer()) {
+                session.send(line("Ce n'est pas votre tour."));
+                return;
+            }
+            int choix;
+            try {
+                choix = Integer.parseInt(text);
+            } catch (NumberFormatException e) {
+                choix = 0;
+            }
+            if (choix <= 0 || choix > optionCount) {
+                session.send(PROMPT_CHOICE);
+                return;
+            }
+            boolean neutral = engine.isNeutralTurn();
+            int piece = engine.getPieceToMove();
+            int move = engine.resolveOption(options[choix - 1]);
+            journaliser(neutral ? EventLog.NEUTRAL_MOVE : EventLog.PLAYER_MOVE, session.player, move, 0);
+            engine.applyMove(move);
+            if (spectateurs != null) {
+                spectateurs.publishMove(id, engine, piece);
+            }
+            if (!neutral) {
+                journaliser(EventLog.SCORE_UPDATE, engine.getScore(0), engine.getScore(1), 0);
+                byte[] scores = line("Score Joueur 1: " + engine.getScore(0) + " - Score Joueur 2: " + engine.getScore(1));
+                byte[] board = BoardRenderer.frame(engine.getBoard(), BoardRenderer.NO_OPTIONS).bytes;
+                for (Session player : players) {
+                    player.send(scores);
+                    player.send(board);
+                }
+            }
+            if (engine.isOver()) {
+                journaliser(EventLog.GAME_END, engine.getOutcome().ordinal(), engine.getScore(0), engine.getScore(1));
+                byte[] message = line(engine.getOutcome().getMessage());
+                finish(engine.getOutcome().getMessage());
+                for (Session player : players) {
+                    player.send(message);
+                    player.send(line("Fin du jeu."));
+                    player.closeWhenFlushed();
+                }
+            } else {
+                prompt();
+            }
+        }
+
+        /**
+         * Termine la partie par forfait du joueur qui n'a pas répondu à temps.
+         */
+        void forfeit(Session loser) {
+            journaliser(EventLog.FORFEIT, loser.player, 0, 0);
+            Session winner = players[loser.player ^ 1];
+            String text = "Le joueur " + (loser.player + 1) + " perd par forfait. Le joueur " + (winner.player + 1) + " gagne.";
+            finish(text);
+            byte[] message = line(text);
+            for (Session player : players) {
+                player.send(message);
+                player.closeWhenFlushed();
+            }
+        }
+
+        void journaliser(int type, int a, int b, int c) {
+            if (journal != null) {
+                journal.publish(id, type, a, b, c);
+            }
+        }
+
+        void finish(String message) {
+            if (!finished) {
+                finished = true;
+                gamesFinished++;
+                if (spectateurs != null) {
+                    spectateurs.publishEnd(id, message);
+                }
+            }
+        }
+    }
+
+    /**
+     * Lance le serveur.
+     * @param args Le port (4321 par défaut), le délai de réponse en secondes (60 par défaut) et le nombre maximal de sessions (10000 par défaut).
+     * @throws IOException Si le port ne peut pas être ouvert.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 4321;
+        long timeout = args.length > 1 ? Long.parseLong(args[1]) * 1000 : 60_000;
+        int maxSessions = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        GameServer server = new GameServer(port, timeout, maxSessions);
+        // -Djournal=fichier journalise les événements de toutes les parties
+        EventLog journal = EventLog.fromSystemProperty();
+        server.setJournal(journal);
+        // -Dspectateurs=port diffuse les parties aux spectateurs sur ce port
+        int spectatorPort = Integer.getInteger("spectateurs", -1);
+        SpectatorHub spectateurs = spectatorPort < 0 ? null : new SpectatorHub(spectatorPort).start();
+        server.setSpectateurs(spectateurs);
+        if (spectateurs != null) {
+            System.out.println("Spectateurs sur le port " + spectateurs.getPort());
+        }
+        GameMetrics.register();
+        long dumpPeriod = Long.getLong("mesures", 0);
+        if (dumpPeriod > 0) {
+            GameMetrics.startPeriodicDump(System.out, dumpPeriod);
+        }
+        System.out.println("Serveur à l'écoute sur le port " + server.getPort());
+        try {
+            server.run();
+        } finally {
+            if (spectateurs != null) spectateurs.close();
+            if (journal != null) journal.close();
+        }
+    }
+}
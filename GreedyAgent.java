@@ -0,0 +1,127 @@
+import java.util.SplittableRandom;
+
+/**
+ * Agent maximisant le score immédiat.
+ * Avec son pion, il prend le mouvement qui rapporte le plus de points, sans atteindre 12 points tant que
+ * l'adversaire en a moins de 6. Avec le pion neutre, il laisse l'adversaire marquer au tour suivant les points qui lui
+ * manquent pour atteindre 6 et limite ceux au-delà : bloquer l'adversaire sous 6 points le forcerait à dépasser 12
+ * trop tôt et à perdre par la règle des 6 points.
+ * Les égalités sont départagées au hasard.
+ * La note de chaque couple position-mouvement peut être gardée dans un EvaluationCache, conservé d'un tour à l'autre
+ * et d'une partie à l'autre tant que l'agent est réutilisé.
+ */
+public class GreedyAgent implements Agent {
+    private SplittableRandom random;
+    private final GameEngine scratch = new GameEngine();
+    private final int[] replies = new int[BitBoard.MAX_MOVES];
+    private final EvaluationCache cache;
+
+    /**
+     * Constructeur de la classe GreedyAgent.
+     * @param seed La graine du générateur aléatoire utilisé pour départager les égalités.
+     */
+    public GreedyAgent(long seed) {
+        this(seed, null);
+    }
+
+    /**
+     * Constructeur de la classe GreedyAgent avec un cache de notes.
+     * @param seed La graine du générateur aléatoire utilisé pour départager les égalités.
+     * @param cache Le cache des notes, ou null pour s'en passer.
+     */
+    public GreedyAgent(long seed, EvaluationCache cache) {
+        this.random = new SplittableRandom(seed);
+        this.cache = cache;
+    }
+
+    @Override
+    public int chooseMove(GameEngine engine, int[] moves, int count) {
+        int player = engine.getCurrentPlayer();
+        int best = moves[0];
+        int bestScore = Integer.MIN_VALUE;
+        int ties = 0;
+        // Clé canonique de la position, complétée par le mouvement (5 bits) pour chaque entrée du cache : une note
+        // est partagée entre les positions qui ne diffèrent que par les couleurs ou par le joueur qui a la main
+        long key = cache == null ? 0 : (long) PositionSymmetry.canonicalKey(engine) << 5;
+        for (int i = 0; i < count; i++) {
+            int score = cache == null ? EvaluationCache.MISS : cache.get(key | moves[i]);
+            if (score == EvaluationCache.MISS) {
+                score = evaluate(engine, moves[i], player);
+                if (cache != null) cache.put(key | moves[i], score);
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                best = moves[i];
+                ties = 1;
+            } else if (score == bestScore && random.nextInt(++ties) == 0) {
+                best = moves[i];
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public void reseed(long seed) {
+        random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Note un mouvement en le jouant sur le moteur de travail.
+     */
+    private int evaluate(GameEngine engine, int move, int player) {
+        scratch.copyFrom(engine);
+        scratch.applyMove(move);
+        if (scratch.isOver()) {
+            int winner = scratch.getOutcome().getWinner();
+            return winner == player ? 1000 : winner < 0 ? 0 : -1000;
+        }
+        return engine.isNeutralTurn() ? neutralScore(scratch, player) : playerScore(engine, scratch, player);
+    }
+
+    /**
+     * Note le coup d'un joueur : les points marqués, pénalisés s'ils mènent à 12 points trop tôt.
+     */
+    private static int playerScore(GameEngine before, GameEngine after, int player) {
+        int gain = after.getScore(player) - before.getScore(player);
+        if (after.getScore(player) >= GameEngine.WINNING_SCORE
+                && after.getScore(player ^ 1) < GameEngine.MINIMUM_OPPONENT_SCORE) {
+            return -100;
+        }
+        return gain;
+    }
+
+    /**
+     * Note un coup du pion neutre d'après le meilleur gain qu'il laisse à l'adversaire : les points qui le mènent
+     * jusqu'à 6 sont bienvenus, puisque l'agent ne peut pas gagner avant, seuls ceux au-delà sont à éviter.
+     */
+    private int neutralScore(GameEngine after, int player) {
+        int opponent = after.getScore(player ^ 1);
+        int reached = opponent + opponentBestGain(after, player);
+        int needed = Math.max(0, GameEngine.MINIMUM_OPPONENT_SCORE - opponent);
+        return Math.min(reached - opponent, needed)
+                - Math.max(0, reached - Math.max(opponent, GameEngine.MINIMUM_OPPONENT_SCORE));
+    }
+
+    /**
+     * Calcule le meilleur gain immédiat de l'adversaire après la fin du tour, 0 si la partie est terminée.
+     */
+    private int opponentBestGain(GameEngine after, int player) {
+        if (after.isOver() || after.getCurrentPlayer() == player) return 0;
+        BitBoard board = after.getBoard();
+        int piece = after.getPieceToMove();
+        int count = after.generateMoves(replies);
+        int placement = board.getPlacement(piece);
+        int best = 0;
+        for (int i = 0; i < count; i++) {
+            board.applyMove(piece, replies[i]);
+            best = Math.max(best, board.rightColumnCount(piece));
+        }
+        board.setPlacement(piece, placement);
+        return best;
+    }
+
+    @Override
+    public String report() {
+        return cache == null ? "" : cache.statistics();
+    }
+}
@@ -0,0 +1,145 @@
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteur de durées avec histogramme, sans verrou ni allocation à l'enregistrement.
+ * Les durées sont rangées par puissance de deux de nanosecondes : l'histogramme tient en 64 compteurs et
+ * les percentiles sont estimés par la borne supérieure de leur tranche, à un facteur 2 près.
+ * Un nombre d'unités de travail (nœuds, parties simulées...) peut accompagner chaque durée pour en déduire un débit.
+ */
+public class LatencyTimer {
+    private static final int BUCKETS = 64;
+
+    private final String name;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder units = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+    /**
+     * Constructeur de la classe LatencyTimer.
+     * @param name Le nom affiché du compteur.
+     */
+    public LatencyTimer(String name) {
+        this.name = name;
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Enregistre une durée.
+     * @param nanos La durée en nanosecondes.
+     */
+    public void record(long nanos) {
+        record(nanos, 0);
+    }
+
+    /**
+     * Enregistre une durée et le travail fait pendant cette durée.
+     * @param nanos La durée en nanosecondes.
+     * @param work Le nombre d'unités de travail.
+     */
+    public void record(long nanos, long work) {
+        if (nanos < 0) nanos = 0;
+        count.increment();
+        totalNanos.add(nanos);
+        if (work != 0) units.add(work);
+        maxNanos.accumulate(nanos);
+        buckets[BUCKETS - 1 - Long.numberOfLeadingZeros(nanos | 1)].increment();
+    }
+
+    /**
+     * Enregistre la durée écoulée depuis un instant donné.
+     * @param startNanos L'instant de départ, lu avec System.nanoTime.
+     */
+    public void stop(long startNanos) {
+        record(System.nanoTime() - startNanos, 0);
+    }
+
+    /**
+     * Méthode pour obtenir le nom du compteur.
+     * @return Le nom.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de durées enregistrées.
+     * @return Le nombre de mesures.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Méthode pour obtenir la durée moyenne.
+     * @return La moyenne en microsecondes.
+     */
+    public double getMeanMicros() {
+        long n = count.sum();
+        return n == 0 ? 0.0 : totalNanos.sum() / 1000.0 / n;
+    }
+
+    /**
+     * Méthode pour obtenir la durée maximale.
+     * @return Le maximum en microsecondes.
+     */
+    public double getMaxMicros() {
+        return maxNanos.get() / 1000.0;
+    }
+
+    /**
+     * Estime un percentile des durées par la borne supérieure de sa tranche.
+     * @param percentile Le percentile, entre 0 et 100.
+     * @return La durée estimée en microsecondes.
+     */
+    public double getPercentileMicros(double percentile) {
+        long n = count.sum();
+        if (n == 0) return 0.0;
+        long rank = (long) Math.ceil(n * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i].sum();
+            if (seen >= rank) {
+                return Math.min((double) (2L << i), maxNanos.get()) / 1000.0;
+            }
+        }
+        return getMaxMicros();
+    }
+
+    /**
+     * Méthode pour obtenir le débit de travail pendant les durées mesurées.
+     * @return Les unités de travail par seconde, 0 si aucune n'a été enregistrée.
+     */
+    public double getUnitsPerSecond() {
+        long nanos = totalNanos.sum();
+        return nanos == 0 ? 0.0 : units.sum() * 1e9 / nanos;
+    }
+
+    /**
+     * Remet le compteur à zéro ; les mesures concurrentes peuvent être en partie conservées.
+     */
+    public void reset() {
+        count.reset();
+        totalNanos.reset();
+        units.reset();
+        maxNanos.reset();
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+    }
+
+    /**
+     * Résume le compteur sur une ligne.
+     * @return Le nombre de mesures, la moyenne, les percentiles 50 et 99, le maximum et le débit éventuel.
+     */
+    @Override
+    public String toString() {
+        String line = String.format("%-22s %10d  moy %10.1f µs  p50 %10.1f µs  p99 %10.1f µs  max %10.1f µs",
+                name, getCount(), getMeanMicros(), getPercentileMicros(50), getPercentileMicros(99), getMaxMicros());
+        return units.sum() == 0 ? line : line + String.format("  %.0f unités/s", getUnitsPerSecond());
+    }
+}
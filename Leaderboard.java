@@ -0,0 +1,180 @@
+import java.util.Arrays;
+
+/**
+ * Classement des joueurs par classement Elo décroissant, puis par numéro de joueur croissant à égalité.
+ * Les joueurs sont rangés dans un arbre binaire de recherche aléatoire (treap) dont chaque nœud connaît la taille de
+ * son sous-arbre : ajouter un joueur, changer son classement, obtenir son rang ou le joueur d'un rang donné coûtent
+ * O(log n) en moyenne, sans jamais retrier. Les nœuds sont les numéros des joueurs et vivent dans des tableaux.
+ */
+public class Leaderboard {
+    private static final int NONE = -1;
+
+    private double[] ratings = new double[0];
+    private int[] left = new int[0];
+    private int[] right = new int[0];
+    private int[] size = new int[0];
+    private int[] priority = new int[0];
+    private int root = NONE;
+    // Résultats de split, pour ne rien allouer
+    private int splitBefore;
+    private int splitAfter;
+
+    /**
+     * Ajoute un joueur au classement.
+     * @param player Le numéro du joueur, absent du classement.
+     * @param rating Son classement Elo.
+     */
+    public void add(int player, double rating) {
+        if (player >= ratings.length) {
+            grow(Math.max(player + 1, ratings.length * 2));
+        }
+        ratings[player] = rating;
+        left[player] = right[player] = NONE;
+        size[player] = 1;
+        root = insert(root, player);
+    }
+
+    /**
+     * Change le classement Elo d'un joueur déjà présent.
+     * @param player Le numéro du joueur.
+     * @param rating Son nouveau classement Elo.
+     */
+    public void update(int player, double rating) {
+        root = remove(root, player);
+        add(player, rating);
+    }
+
+    /**
+     * Méthode pour obtenir le rang d'un joueur.
+     * @param player Le numéro du joueur, présent dans le classement.
+     * @return Le rang, 1 pour le meilleur joueur.
+     */
+    public int rank(int player) {
+        int rank = 0;
+        int node = root;
+        while (node != player) {
+            if (before(player, node)) {
+                node = left[node];
+            } else {
+                rank += sizeOf(left[node]) + 1;
+                node = right[node];
+            }
+        }
+        return rank + sizeOf(left[player]) + 1;
+    }
+
+    /**
+     * Méthode pour obtenir le joueur d'un rang donné.
+     * @param rank Le rang, de 1 au nombre de joueurs.
+     * @return Le numéro du joueur.
+     */
+    public int select(int rank) {
+        int node = root;
+        while (true) {
+            int before = sizeOf(left[node]) + 1;
+            if (rank == before) return node;
+            if (rank < before) {
+                node = left[node];
+            } else {
+                rank -= before;
+                node = right[node];
+            }
+        }
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de joueurs classés.
+     * @return Le nombre de joueurs.
+     */
+    public int size() {
+        return sizeOf(root);
+    }
+
+    /**
+     * Vrai si le joueur a passe avant le joueur b.
+     */
+    private boolean before(int a, int b) {
+        return ratings[a] > ratings[b] || ratings[a] == ratings[b] && a < b;
+    }
+
+    private int sizeOf(int node) {
+        return node == NONE ? 0 : size[node];
+    }
+
+    private int resize(int node) {
+        size[node] = sizeOf(left[node]) + sizeOf(right[node]) + 1;
+        return node;
+    }
+
+    private int insert(int node, int player) {
+        if (node == NONE) return player;
+        if (priority[player] > priority[node]) {
+            split(node, player);
+            left[player] = splitBefore;
+            right[player] = splitAfter;
+            return resize(player);
+        }
+        if (before(player, node)) {
+            left[node] = insert(left[node], player);
+        } else {
+            right[node] = insert(right[node], player);
+        }
+        return resize(node);
+    }
+
+    /**
+     * Sépare un sous-arbre entre les joueurs qui passent avant player (splitBefore) et les autres (splitAfter).
+     */
+    private void split(int node, int player) {
+        if (node == NONE) {
+            splitBefore = splitAfter = NONE;
+        } else if (before(node, player)) {
+            split(right[node], player);
+            right[node] = splitBefore;
+            splitBefore = resize(node);
+        } else {
+            split(left[node], player);
+            left[node] = splitAfter;
+            splitAfter = resize(node);
+        }
+    }
+
+    private int remove(int node, int player) {
+        if (node == player) return merge(left[node], right[node]);
+        if (before(player, node)) {
+            left[node] = remove(left[node], player);
+        } else {
+            right[node] = remove(right[node], player);
+        }
+        return resize(node);
+    }
+
+    /**
+     * Réunit deux sous-arbres dont tous les joueurs de a passent avant ceux de b.
+     */
+    private int merge(int a, int b) {
+        if (a == NONE) return b;
+        if (b == NONE) return a;
+        if (priority[a] > priority[b]) {
+            right[a] = merge(right[a], b);
+            return resize(a);
+        }
+        left[b] = merge(a, left[b]);
+        return resize(b);
+    }
+
+    private void grow(int capacity) {
+        int old = ratings.length;
+        ratings = Arrays.copyOf(ratings, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        size = Arrays.copyOf(size, capacity);
+        priority = Arrays.copyOf(priority, capacity);
+        for (int player = old; player < capacity; player++) {
+            // Priorité pseudo-aléatoire mais reproductible, tirée du numéro du joueur
+            long mixed = (player + 1) * 0x9E3779B97F4A7C15L;
+            mixed = (mixed ^ (mixed >>> 31)) * 0xBF58476D1CE4E5B9L;
+            priority[player] = (int) (mixed ^ (mixed >>> 32));
+        }
+    }
+}
@@ -4,11 +4,41 @@
 public class Main {
     /**
      * Point d'entrée de l'application.
+     * Sans argument, deux joueurs humains s'affrontent. Avec l'argument "ordinateur [millisecondes]",
+     * le joueur 2 est joué par la recherche alpha-bêta avec le temps de réflexion donné par coup.
+     * Avec l'argument "serveur [port]", les parties sont hébergées par GameServer et jouées à distance.
+     * La propriété -Djournal=fichier journalise les événements des parties dans un EventLog, et -Danalyse affiche
+     * pendant la réflexion des joueurs humains les estimations de chaque option calculées en arrière-plan.
+     * La propriété -Dstatistiques=dossier enregistre le résultat dans les statistiques des joueurs (PlayerStats).
      *
      * @param args Les arguments de la ligne de commande.
+     * @throws java.io.IOException Si le journal ne peut pas être écrit.
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws java.io.IOException {
+        GameMetrics.register();
+        if (args.length > 0 && args[0].equals("serveur")) {
+            try {
+                GameServer.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+            } catch (java.io.IOException e) {
+                System.out.println("Impossible de démarrer le serveur : " + e.getMessage());
+            }
+            return;
+        }
         // Création d'une nouvelle instance de jeu
-        Game game = new Game();
+        Game game = new Game(System.in, System.out);
+        if (args.length > 0 && args[0].equals("ordinateur")) {
+            long budget = args.length > 1 ? Long.parseLong(args[1]) : 1000;
+            game.setOrdinateur(1, new AlphaBetaAgent(budget, 64, new TranspositionTable(64)));
+        }
+        if (Boolean.getBoolean("analyse")) {
+            game.setAnalyse(new Ponderer(Runtime.getRuntime().availableProcessors(), 1 << 20, System.out));
+        }
+        String dossier = System.getProperty("statistiques");
+        try (EventLog journal = EventLog.fromSystemProperty();
+             PlayerStats statistiques = dossier == null ? null : new PlayerStats(java.nio.file.Paths.get(dossier))) {
+            game.setJournal(journal);
+            game.setStatistiques(statistiques);
+            game.start();
+        }
     }
 }
\ No newline at end of file
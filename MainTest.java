@@ -123,4 +123,1088 @@ class BoardTest {
         board.clearPionPosition(pion);
         assertTrue(board.isEmpty(1));
     }
-}
\ No newline at end of file
+
+    // Teste si les options de la position de départ sont celles des règles d'origine (cases vides testées en % 3 et - 3)
+    @Test
+    void generateOptions_matchesBaselineRules() {
+        Board board = new Board();
+        // Rouge en 1H, bleu en 7H, neutre en 4H : seules les cases 0, 3 et 6 sont vides
+        java.util.Map<Pion.Color, java.util.List<Integer>> expected = new java.util.EnumMap<>(Pion.Color.class);
+        expected.put(Pion.Color.RED, java.util.Arrays.asList(0, 3, 6));
+        expected.put(Pion.Color.BLUE, java.util.Arrays.asList(6, 3, 6));
+        expected.put(Pion.Color.WHITE, java.util.Arrays.asList(3, 3, 6));
+        int[] buffer = new int[BitBoard.MAX_MOVES];
+        for (java.util.Map.Entry<Pion.Color, java.util.List<Integer>> entry : expected.entrySet()) {
+            Pion pion = new Pion(entry.getKey(), 0, Pion.Orientation.HORIZONTAL);
+            assertEquals(entry.getValue(), board.getAvailableMoves(pion));
+            int count = board.getBitBoard().generateOptions(BitBoard.pieceIndex(entry.getKey()), buffer);
+            assertEquals(entry.getValue().size(), count);
+            for (int i = 0; i < count; i++) {
+                assertEquals((int) entry.getValue().get(i), buffer[i]);
+            }
+        }
+    }
+
+    // Teste si applyMove met à jour les masques comme effectuerMouvement
+    @Test
+    void applyMove_matchesEffectuerMouvement() {
+        Board board = new Board();
+        BitBoard bits = new BitBoard();
+        Pion pion = new Pion(Pion.Color.RED, 1, Pion.Orientation.HORIZONTAL);
+        board.effectuerMouvement(0, pion);
+        bits.applyMove(BitBoard.RED, bits.resolveMove(BitBoard.RED, 0));
+        assertEquals(board.getBitBoard().getMask(BitBoard.RED), bits.getMask(BitBoard.RED));
+        assertEquals(BitBoard.encode(0, false), bits.getPlacement(BitBoard.RED));
+    }
+
+    // Teste si chaque issue de GameEngine suit Game.checkWinCondition d'origine : 12 points avec un adversaire à 6 ou
+    // plus, 12 points avec un adversaire sous 6, joueur suivant bloqué (nul) et pion neutre bloqué (tour passé)
+    @Test
+    void gameEngine_outcomesMatchBaselineRules() {
+        for (int score1 = 0; score1 <= 20; score1++) {
+            for (int score2 = 0; score2 <= 20; score2++) {
+                assertEquals(baselineMessage(score1, score2),
+                        GameEngine.checkWinCondition(score1, score2) == GameEngine.Outcome.IN_PROGRESS ? null
+                                : GameEngine.checkWinCondition(score1, score2).getMessage());
+            }
+        }
+        java.util.SplittableRandom random = new java.util.SplittableRandom(2);
+        GameEngine engine = new GameEngine();
+        int[] moves = new int[BitBoard.MAX_MOVES];
+        int wins = 0;
+        int underSix = 0;
+        int draws = 0;
+        int passes = 0;
+        for (int game = 0; game < 200; game++) {
+            engine.reset();
+            engine.assignPions(random.nextBoolean() ? BitBoard.RED : BitBoard.BLUE);
+            int[] scores = new int[2];
+            while (!engine.isOver()) {
+                int player = engine.getCurrentPlayer();
+                boolean neutral = engine.isNeutralTurn();
+                engine.applyMove(moves[random.nextInt(engine.generateMoves(moves))]);
+                if (!neutral) {
+                    // Un point par case du pion dans la colonne de droite, comptée comme updateScores
+                    int piece = engine.getPlayerPiece(player);
+                    for (int spot = 2; spot < BitBoard.CELL_COUNT; spot += 3) {
+                        if (engine.getBoard().symbolAt(spot) == BitBoard.color(piece).getSymbol()) scores[player]++;
+                    }
+                    assertEquals(scores[player], engine.getScore(player));
+                    if (engine.getBoard().hasMoves(BitBoard.WHITE)) {
+                        assertTrue(engine.isNeutralTurn());
+                        assertFalse(engine.isOver());
+                        continue;
+                    }
+                    // Le pion neutre ne peut pas bouger : executeNeutralTurn ne fait rien et le tour se termine
+                    assertFalse(engine.isNeutralTurn());
+                    passes++;
+                }
+                String message = baselineMessage(scores[0], scores[1]);
+                if (message != null) {
+                    assertEquals(message, engine.getOutcome().getMessage());
+                    if (engine.getOutcome().name().endsWith("UNDER_SIX")) underSix++;
+                    else wins++;
+                } else if (!engine.getBoard().hasMoves(engine.getPlayerPiece(player ^ 1))) {
+                    // executePlayerTurn du joueur suivant ne trouve aucun déplacement : match nul
+                    assertEquals(GameEngine.Outcome.DRAW, engine.getOutcome());
+                    draws++;
+                } else {
+                    assertEquals(GameEngine.Outcome.IN_PROGRESS, engine.getOutcome());
+                    assertEquals(player ^ 1, engine.getCurrentPlayer());
+                }
+            }
+        }
+        assertTrue(wins > 0 && underSix > 0 && draws > 0 && passes > 0);
+    }
+
+    // Game.checkWinCondition d'origine : le message affiché, ou null si la partie continue
+    private static String baselineMessage(int scoreJoueur1, int scoreJoueur2) {
+        if (scoreJoueur1 >= 12) {
+            if (scoreJoueur2 < 6) {
+                return "Le joueur 2 gagne car le joueur 1 a atteint 12 points mais le joueur 2 a moins de 6 points.";
+            } else {
+                return "Le joueur 1 gagne.";
+            }
+        } else if (scoreJoueur2 >= 12) {
+            if (scoreJoueur1 < 6) {
+                return "Le joueur 1 gagne car le joueur 2 a atteint 12 points mais le joueur 1 a moins de 6 points.";
+            } else {
+                return "Le joueur 2 gagne.";
+            }
+        }
+        return null;
+    }
+
+    // Teste si la table de finales, écrite puis relue par projection mémoire, donne la valeur et la distance d'une
+    // recherche exhaustive jusqu'à la fin de partie, dont des pertes forcées par la règle des 6 points et un nul faute de mouvement
+    @Test
+    void tablebase_matchesExhaustiveSearch() throws Exception {
+        // Les indices parcourent la table dans l'ordre, sans trou ni doublon
+        int expectedIndex = 0;
+        for (int neutral = 0; neutral < 2; neutral++) {
+            for (int moverScore = 0; moverScore < Tablebase.SCORE_LIMIT; moverScore++) {
+                for (int opponentScore = 0; opponentScore < Tablebase.SCORE_LIMIT; opponentScore++) {
+                    for (int mover : Tablebase.PLACEMENTS) {
+                        for (int opponent : Tablebase.PLACEMENTS) {
+                            for (int white : Tablebase.PLACEMENTS) {
+                                assertEquals(expectedIndex++, Tablebase.index(neutral == 1, moverScore, opponentScore, mover, opponent, white));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        assertEquals(Tablebase.SIZE, expectedIndex);
+
+        java.nio.file.Path path = java.nio.file.Files.createTempFile("tablebase", ".bin");
+        try {
+            TablebaseSolver solver = new TablebaseSolver();
+            solver.enumerate();
+            solver.solve();
+            solver.write(path);
+            Tablebase tablebase = Tablebase.load(path);
+            TablebaseAgent agent = new TablebaseAgent(tablebase);
+
+            java.util.SplittableRandom random = new java.util.SplittableRandom(1);
+            GameEngine engine = new GameEngine();
+            GameEngine after = new GameEngine();
+            int[] moves = new int[BitBoard.MAX_MOVES];
+            int[][] buffers = new int[9][BitBoard.MAX_MOVES];
+            int checked = 0;
+            int underSixLosses = 0;
+            int noMoveDraws = 0;
+            for (int game = 0; game < 50; game++) {
+                engine.reset();
+                engine.assignPions(random.nextBoolean() ? BitBoard.RED : BitBoard.BLUE);
+                while (!engine.isOver()) {
+                    int count = engine.generateMoves(moves);
+                    int exhaustive = exhaustiveEntry(engine, buffers.length - 1, buffers);
+                    if (exhaustive != 0) {
+                        int entry = tablebase.probe(engine);
+                        assertEquals(Tablebase.value(exhaustive), Tablebase.value(entry));
+                        if (Tablebase.value(entry) != Tablebase.DRAW) {
+                            assertEquals(Tablebase.distance(exhaustive), Tablebase.distance(entry));
+                        }
+                        checked++;
+                        // Pertes où chaque mouvement atteint 12 points avant que l'adversaire en ait 6, nuls où un
+                        // mouvement laisse l'adversaire sans mouvement possible
+                        int player = engine.getCurrentPlayer();
+                        boolean forcedUnderSix = true;
+                        boolean noMove = false;
+                        for (int i = 0; i < count; i++) {
+                            engine.makeMove(moves[i]);
+                            GameEngine.Outcome outcome = engine.getOutcome();
+                            forcedUnderSix &= outcome.getWinner() == (player ^ 1) && outcome != GameEngine.Outcome.PLAYER1_WINS
+                                    && outcome != GameEngine.Outcome.PLAYER2_WINS;
+                            noMove |= outcome == GameEngine.Outcome.DRAW;
+                            engine.unmakeMove();
+                        }
+                        if (forcedUnderSix) {
+                            assertEquals(Tablebase.LOSS, Tablebase.value(entry));
+                            underSixLosses++;
+                        }
+                        if (noMove && Tablebase.value(entry) == Tablebase.DRAW) noMoveDraws++;
+                        // L'agent garde un gain en se rapprochant de la fin d'un demi-coup
+                        if (Tablebase.value(entry) == Tablebase.WIN) {
+                            after.copyFrom(engine);
+                            after.applyMove(agent.chooseMove(engine, moves, count));
+                            if (after.isOver()) {
+                                assertEquals(player, after.getOutcome().getWinner());
+                                assertEquals(1, Tablebase.distance(entry));
+                            } else {
+                                int next = tablebase.probe(after);
+                                assertEquals(after.getCurrentPlayer() == player ? Tablebase.WIN : Tablebase.LOSS, Tablebase.value(next));
+                                assertEquals(Tablebase.distance(entry) - 1, Tablebase.distance(next));
+                            }
+                        }
+                    }
+                    engine.applyMove(moves[random.nextInt(count)]);
+                }
+            }
+            assertTrue(checked >= 50);
+            assertTrue(underSixLosses > 0);
+            assertTrue(noMoveDraws > 0);
+
+            // Un fichier tronqué est refusé
+            java.nio.file.Files.write(path, java.util.Arrays.copyOf(java.nio.file.Files.readAllBytes(path), 1000));
+            assertThrows(java.io.IOException.class, () -> Tablebase.load(path));
+        } finally {
+            java.nio.file.Files.deleteIfExists(path);
+        }
+    }
+
+    // Recherche exhaustive sur au plus depth mouvements, sans table : entrée de Tablebase pour le joueur qui a la main
+    // (gain le plus court, sinon nul, sinon perte la plus longue), ou 0 si une suite n'est pas terminée à cette profondeur
+    private static int exhaustiveEntry(GameEngine engine, int depth, int[][] buffers) {
+        if (depth == 0) return 0;
+        int player = engine.getCurrentPlayer();
+        int count = engine.generateMoves(buffers[depth]);
+        int win = Integer.MAX_VALUE;
+        int loss = -1;
+        boolean draw = false;
+        boolean unknown = false;
+        for (int i = 0; i < count; i++) {
+            engine.makeMove(buffers[depth][i]);
+            int value;
+            int distance = 1;
+            if (engine.isOver()) {
+                int winner = engine.getOutcome().getWinner();
+                value = winner < 0 ? Tablebase.DRAW : winner == player ? Tablebase.WIN : Tablebase.LOSS;
+            } else {
+                int child = exhaustiveEntry(engine, depth - 1, buffers);
+                value = Tablebase.value(child);
+                distance += Tablebase.distance(child);
+                if (engine.getCurrentPlayer() != player && (value == Tablebase.WIN || value == Tablebase.LOSS)) {
+                    value = value == Tablebase.WIN ? Tablebase.LOSS : Tablebase.WIN;
+                }
+            }
+            engine.unmakeMove();
+            if (value == Tablebase.WIN) {
+                win = Math.min(win, distance);
+            } else if (value == Tablebase.LOSS) {
+                loss = Math.max(loss, distance);
+            } else if (value == Tablebase.DRAW) {
+                draw = true;
+            } else {
+                unknown = true;
+            }
+        }
+        if (unknown) return 0;
+        if (win != Integer.MAX_VALUE) return Tablebase.entry(Tablebase.WIN, win);
+        return draw ? Tablebase.entry(Tablebase.DRAW, 0) : Tablebase.entry(Tablebase.LOSS, loss);
+    }
+
+    // Teste si alpha-bêta, limité en profondeur, joue un coup qui gagne à la fin du tour, n'atteint pas 12 points quand
+    // l'adversaire en a moins de 6, et choisit le même mouvement avec la même note avec ou sans table de transposition
+    @Test
+    void alphaBetaAgent_findsWinsAvoidsUnderSixAndIgnoresTable() {
+        TranspositionTable table = new TranspositionTable(1);
+        java.util.SplittableRandom random = new java.util.SplittableRandom(3);
+        GameEngine engine = new GameEngine();
+        int[] moves = new int[BitBoard.MAX_MOVES];
+        int winsTaken = 0;
+        int underSixAvoided = 0;
+        long tableHits = 0;
+        for (int game = 0; game < 40; game++) {
+            engine.reset();
+            engine.assignPions(random.nextBoolean() ? BitBoard.RED : BitBoard.BLUE);
+            while (!engine.isOver()) {
+                int count = engine.generateMoves(moves);
+                int player = engine.getCurrentPlayer();
+                // Le coup d'un joueur qui atteint 12 points décide de la partie à la fin du tour, après le pion neutre
+                boolean opponentBehind = engine.getScore(player ^ 1) < GameEngine.MINIMUM_OPPONENT_SCORE;
+                boolean canReach = false;
+                boolean canStayBelow = false;
+                for (int i = 0; i < count && !engine.isNeutralTurn(); i++) {
+                    engine.makeMove(moves[i]);
+                    boolean reaches = engine.getScore(player) >= GameEngine.WINNING_SCORE;
+                    canReach |= reaches;
+                    canStayBelow |= !reaches;
+                    engine.unmakeMove();
+                }
+                // Budget de temps hors d'atteinte : seule la profondeur arrête la recherche, qui est donc déterministe
+                AlphaBetaAgent plain = new AlphaBetaAgent(600_000, 6, null);
+                AlphaBetaAgent cached = new AlphaBetaAgent(600_000, 6, table);
+                table.clear();
+                int move = plain.chooseMove(engine, moves.clone(), count);
+                assertEquals(move, cached.chooseMove(engine, moves.clone(), count));
+                assertEquals(plain.getLastScore(), cached.getLastScore());
+                tableHits += table.getHits();
+
+                engine.makeMove(move);
+                if (canReach && !opponentBehind) {
+                    assertTrue(engine.getScore(player) >= GameEngine.WINNING_SCORE);
+                    winsTaken++;
+                }
+                if (canReach && opponentBehind && canStayBelow) {
+                    assertTrue(engine.getScore(player) < GameEngine.WINNING_SCORE);
+                    underSixAvoided++;
+                }
+                engine.unmakeMove();
+                engine.applyMove(moves[random.nextInt(count)]);
+            }
+        }
+        assertTrue(winsTaken > 0);
+        assertTrue(underSixAvoided > 0);
+        assertTrue(tableHits > 0);
+    }
+
+    // Teste si le hachage incrémental reste égal au hachage recalculé des composantes, quel que soit le chemin suivi,
+    // et s'il revient à sa valeur après unmakeMove
+    @Test
+    void zobrist_incrementalHashMatchesRecomputed() {
+        java.util.SplittableRandom random = new java.util.SplittableRandom(9);
+        java.util.Map<Long, Long> hashes = new java.util.HashMap<>();
+        GameEngine engine = new GameEngine();
+        int[] moves = new int[BitBoard.MAX_MOVES];
+        long[] path = new long[200];
+        int checked = 0;
+        for (int game = 0; game < 300; game++) {
+            engine.reset();
+            engine.assignPions(random.nextBoolean() ? BitBoard.RED : BitBoard.BLUE);
+            int depth = 0;
+            for (int step = 0; step < 200; step++) {
+                long hash = engine.hash();
+                assertEquals(recomputedHash(engine), hash);
+                Long previous = hashes.putIfAbsent(engine.compactKey(), hash);
+                if (previous != null) assertEquals(previous.longValue(), hash);
+                checked++;
+                // Un retour en arrière sur trois, ou en fin de partie, vérifie le hachage restauré
+                if (depth > 0 && (engine.isOver() || random.nextInt(3) == 0)) {
+                    engine.unmakeMove();
+                    assertEquals(path[--depth], engine.hash());
+                    continue;
+                }
+                if (engine.isOver()) break;
+                int count = engine.generateMoves(moves);
+                path[depth++] = hash;
+                engine.makeMove(moves[random.nextInt(count)]);
+            }
+        }
+        // Aucune collision entre les états distincts rencontrés
+        assertEquals(hashes.size(), new java.util.HashSet<>(hashes.values()).size());
+        assertTrue(checked > 10_000);
+    }
+
+    private static long recomputedHash(GameEngine engine) {
+        long hash = Zobrist.PLAYER[engine.getCurrentPlayer()]
+                ^ Zobrist.score(0, engine.getScore(0)) ^ Zobrist.score(1, engine.getScore(1));
+        for (int piece = 0; piece < BitBoard.PIECE_COUNT; piece++) {
+            hash ^= Zobrist.PLACEMENT[piece][engine.getBoard().getPlacement(piece)];
+        }
+        if (engine.isNeutralTurn()) hash ^= Zobrist.NEUTRAL_TURN;
+        if (engine.getPlayerPiece(0) == BitBoard.BLUE) hash ^= Zobrist.BLUE_FIRST;
+        return hash;
+    }
+
+    // Teste si la table de transposition rend ce qui a été enregistré, garde l'entrée la plus profonde dans la première
+    // case du seau, remplace toujours la seconde, rejette une entrée corrompue et compte succès, échecs et collisions
+    @Test
+    void transpositionTable_replacesAndRejectsCorruptedEntries() throws Exception {
+        TranspositionTable table = new TranspositionTable(1);
+        // Ces clés tombent toutes dans le seau 0 : (clé ^ clé >>> 32) a ses bits de poids faible nuls
+        long deep = 1L << 32 | 1;
+        long shallow = 2L << 32 | 2;
+        long newer = 3L << 32 | 3;
+        long deeper = 4L << 32 | 4;
+        long deepData = TranspositionTable.pack(-7, 5, TranspositionTable.LOWER_BOUND, 12);
+        table.store(deep, deepData);
+        assertEquals(deepData, table.probe(deep));
+        assertEquals(-7, TranspositionTable.score(deepData));
+        assertEquals(5, TranspositionTable.depth(deepData));
+        assertEquals(TranspositionTable.LOWER_BOUND, TranspositionTable.bound(deepData));
+        assertEquals(12, TranspositionTable.move(deepData));
+
+        // Moins profonde, l'entrée va dans la seconde case, puis y est remplacée par la plus récente
+        table.store(shallow, TranspositionTable.pack(3, 2, TranspositionTable.EXACT, 1));
+        assertEquals(TranspositionTable.pack(3, 2, TranspositionTable.EXACT, 1), table.probe(shallow));
+        table.store(newer, TranspositionTable.pack(4, 1, TranspositionTable.UPPER_BOUND, 2));
+        assertEquals(TranspositionTable.MISS, table.probe(shallow));
+        assertEquals(deepData, table.probe(deep));
+        assertEquals(TranspositionTable.pack(4, 1, TranspositionTable.UPPER_BOUND, 2), table.probe(newer));
+        // Plus profonde, elle prend la première case
+        table.store(deeper, TranspositionTable.pack(9, 8, TranspositionTable.EXACT, 3));
+        assertEquals(TranspositionTable.MISS, table.probe(deep));
+        assertEquals(TranspositionTable.pack(9, 8, TranspositionTable.EXACT, 3), table.probe(deeper));
+        // La même position remplace son entrée même avec une recherche moins profonde
+        table.store(deeper, TranspositionTable.pack(10, 6, TranspositionTable.EXACT, 4));
+        assertEquals(TranspositionTable.pack(10, 6, TranspositionTable.EXACT, 4), table.probe(deeper));
+        assertEquals(6, table.getHits());
+        assertEquals(2, table.getMisses());
+        assertEquals(2, table.getCollisions());
+
+        // Une donnée modifiée sans sa clé (écriture déchirée) ne se vérifie plus et compte comme une collision
+        table.clear();
+        assertEquals(0, table.getHits() + table.getMisses() + table.getCollisions());
+        assertEquals(TranspositionTable.MISS, table.probe(deep));
+        table.store(deep, deepData);
+        java.lang.reflect.Field field = TranspositionTable.class.getDeclaredField("memory");
+        field.setAccessible(true);
+        java.nio.ByteBuffer memory = (java.nio.ByteBuffer) field.get(table);
+        memory.putLong(0, deepData ^ 1L << 40);
+        assertEquals(TranspositionTable.MISS, table.probe(deep));
+        assertEquals(0, table.getHits());
+        assertEquals(2, table.getMisses());
+        assertEquals(1, table.getCollisions());
+    }
+
+    // Teste si popMove restaure le placement et le compte de la colonne de droite après pushMove
+    @Test
+    void popMove_restoresPlacement() {
+        BitBoard bits = new BitBoard();
+        int before = bits.getPlacement(BitBoard.RED);
+        bits.pushMove(BitBoard.RED, bits.resolveMove(BitBoard.RED, 3));
+        assertEquals(0, bits.rightColumnCount(BitBoard.RED));
+        assertEquals(BitBoard.RED, bits.popMove());
+        assertEquals(before, bits.getPlacement(BitBoard.RED));
+        assertEquals(1, bits.rightColumnCount(BitBoard.RED));
+    }
+
+    // Teste si unmakeMove restaure le hachage, la clé, les scores, le tour, le joueur et l'issue après chaque makeMove,
+    // y compris après un coup qui termine la partie et après un tour où le pion neutre ne peut pas bouger
+    @Test
+    void unmakeMove_restoresStateAfterEveryMove() {
+        java.util.SplittableRandom random = new java.util.SplittableRandom(5);
+        GameEngine engine = new GameEngine();
+        GameEngine replay = new GameEngine();
+        int[] moves = new int[BitBoard.MAX_MOVES];
+        int endings = 0;
+        int passes = 0;
+        for (int game = 0; game < 200; game++) {
+            engine.reset();
+            replay.reset();
+            int piecePlayer1 = random.nextBoolean() ? BitBoard.RED : BitBoard.BLUE;
+            engine.assignPions(piecePlayer1);
+            replay.assignPions(piecePlayer1);
+            while (!engine.isOver()) {
+                long hash = engine.hash();
+                long key = engine.compactKey();
+                String state = engineState(engine);
+                int count = engine.generateMoves(moves);
+                // Chaque mouvement possible est joué puis annulé
+                for (int i = 0; i < count; i++) {
+                    boolean neutral = engine.isNeutralTurn();
+                    engine.makeMove(moves[i]);
+                    if (engine.isOver()) endings++;
+                    if (!neutral && !engine.isNeutralTurn()) passes++;
+                    engine.unmakeMove();
+                    assertEquals(hash, engine.hash());
+                    assertEquals(key, engine.compactKey());
+                    assertEquals(state, engineState(engine));
+                }
+                // La partie avance par makeMove et reste identique à celle jouée par applyMove
+                int move = moves[random.nextInt(count)];
+                engine.makeMove(move);
+                replay.applyMove(move);
+                assertEquals(replay.hash(), engine.hash());
+                assertEquals(engineState(replay), engineState(engine));
+            }
+        }
+        assertTrue(endings > 0);
+        assertTrue(passes > 0);
+    }
+
+    private static String engineState(GameEngine engine) {
+        return engine.getScore(0) + " " + engine.getScore(1) + " " + engine.getTurn() + " " + engine.getCurrentPlayer()
+                + " " + engine.isNeutralTurn() + " " + engine.getOutcome() + " "
+                + java.util.Arrays.toString(new int[] {engine.getBoard().getPlacement(BitBoard.RED),
+                        engine.getBoard().getPlacement(BitBoard.BLUE), engine.getBoard().getPlacement(BitBoard.WHITE),
+                        engine.getBoard().rightColumnCount(BitBoard.RED), engine.getBoard().rightColumnCount(BitBoard.BLUE)});
+    }
+
+    // Teste si BoardRenderer écrit la même image que printBoard
+    @Test
+    void boardRenderer_matchesPrintBoard() {
+        Board board = new Board();
+        java.io.ByteArrayOutputStream expected = new java.io.ByteArrayOutputStream();
+        board.printBoard(new java.io.PrintStream(expected));
+        java.io.ByteArrayOutputStream actual = new java.io.ByteArrayOutputStream();
+        BoardRenderer renderer = new BoardRenderer(actual);
+        renderer.render(board.getBitBoard());
+        renderer.flush();
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    // Teste si les options d'un pion hors du plateau (SPECIAL) s'affichent comme avant le cache, sans exception
+    @Test
+    void getBoardWithMoveOptions_rendersPionOffBoard() {
+        Board board = new Board();
+        String text = board.getBoardWithMoveOptions(new Pion(Pion.Color.SPECIAL, 0, Pion.Orientation.HORIZONTAL));
+        String[] rows = text.split("\n");
+        assertEquals(13, rows.length);
+        assertEquals("*       *       *   R   *", rows[2]);
+        assertEquals("*   1   *   W   *   W   *", rows[6]);
+        assertEquals("*   2   *   B   *   B   *", rows[10]);
+        assertEquals(text, board.getBoardWithMoveOptions(new Pion(Pion.Color.SPECIAL, 0, Pion.Orientation.HORIZONTAL)));
+    }
+
+    // Teste si GameServer apparie deux clients en boucle locale et donne la main au joueur 1
+    @Test
+    void gameServer_matchesTwoClients() throws Exception {
+        try (GameServer server = new GameServer(0, 5000, 16).start();
+             java.net.Socket client1 = new java.net.Socket("127.0.0.1", server.getPort());
+             java.net.Socket client2 = new java.net.Socket("127.0.0.1", server.getPort())) {
+            java.io.BufferedReader in1 = new java.io.BufferedReader(new java.io.InputStreamReader(client1.getInputStream(), "UTF-8"));
+            java.io.BufferedReader in2 = new java.io.BufferedReader(new java.io.InputStreamReader(client2.getInputStream(), "UTF-8"));
+            in1.readLine();
+            in2.readLine();
+            client1.getOutputStream().write("B\n".getBytes("UTF-8"));
+            assertEquals("En attente d'un adversaire...", in1.readLine());
+            client2.getOutputStream().write("R\n".getBytes("UTF-8"));
+            assertEquals("Partie trouvée : vous êtes le joueur 1 (BLUE).", in1.readLine());
+            assertEquals("Partie trouvée : vous êtes le joueur 2 (RED).", in2.readLine());
+            assertEquals("Déplacements possibles pour BLUE:", in1.readLine());
+        }
+    }
+
+    // Teste si un client en file d'attente n'est pas coupé par le délai de réponse, contrairement à un client muet
+    @Test
+    void gameServer_keepsQueuedClientPastTimeout() throws Exception {
+        try (GameServer server = new GameServer(0, 300, 16).start();
+             java.net.Socket queued = new java.net.Socket("127.0.0.1", server.getPort());
+             java.net.Socket silent = new java.net.Socket("127.0.0.1", server.getPort())) {
+            java.io.BufferedReader in = new java.io.BufferedReader(new java.io.InputStreamReader(queued.getInputStream(), "UTF-8"));
+            java.io.BufferedReader mute = new java.io.BufferedReader(new java.io.InputStreamReader(silent.getInputStream(), "UTF-8"));
+            in.readLine();
+            mute.readLine();
+            queued.getOutputStream().write("R\n".getBytes("UTF-8"));
+            assertEquals("En attente d'un adversaire...", in.readLine());
+            assertEquals("Temps écoulé.", mute.readLine());
+            Thread.sleep(600);
+            try (java.net.Socket opponent = new java.net.Socket("127.0.0.1", server.getPort())) {
+                java.io.BufferedReader in2 = new java.io.BufferedReader(new java.io.InputStreamReader(opponent.getInputStream(), "UTF-8"));
+                in2.readLine();
+                opponent.getOutputStream().write("B\n".getBytes("UTF-8"));
+                assertEquals("Partie trouvée : vous êtes le joueur 1 (RED).", in.readLine());
+            }
+        }
+    }
+
+    // Teste si une partie écrite par GameRecordWriter est relue et rejouée à l'identique
+    @Test
+    void gameRecord_roundTrip() throws Exception {
+        GameEngine engine = new GameEngine();
+        engine.assignPions(BitBoard.BLUE);
+        int[] moves = new int[BitBoard.MAX_MOVES];
+        byte[] record = new byte[GameRecord.MAX_MOVES];
+        int count = 0;
+        while (!engine.isOver() && engine.getTurn() < 100) {
+            engine.generateMoves(moves);
+            engine.applyMove(moves[0]);
+            record[count++] = (byte) moves[0];
+        }
+        java.nio.file.Path path = java.nio.file.Files.createTempFile("parties", ".bin");
+        try {
+            try (GameRecordWriter writer = GameRecordWriter.create(path)) {
+                writer.writeGame(BitBoard.BLUE, engine.getOutcome(), record, count);
+            }
+            GameRecordReader reader = GameRecordReader.open(path);
+            assertTrue(reader.next());
+            assertEquals(count, reader.getMoveCount());
+            GameEngine replayed = new GameEngine();
+            reader.replay(replayed);
+            assertEquals(engine.getOutcome(), replayed.getOutcome());
+            assertEquals(engine.hash(), replayed.hash());
+            assertFalse(reader.next());
+        } finally {
+            java.nio.file.Files.deleteIfExists(path);
+        }
+    }
+
+    // Teste si l'analyse parallèle rejoue chaque partie enregistrée une seule fois
+    @Test
+    void replayAnalytics_countsEveryGame() throws Exception {
+        java.nio.file.Path path = java.nio.file.Files.createTempFile("parties", ".bin");
+        try {
+            Simulation simulation = new Simulation("random", "greedy", 200, 7);
+            try (GameRecordWriter writer = GameRecordWriter.create(path)) {
+                simulation.setRecorder(writer);
+                simulation.run(100, 2);
+            }
+            ReplayStats stats = new ReplayAnalytics(GameRecordReader.open(path)).run(3);
+            assertEquals(100, stats.getGames());
+            assertEquals(0, stats.getMismatches());
+        } finally {
+            java.nio.file.Files.deleteIfExists(path);
+        }
+    }
+
+    // Teste si les issues par couleur et l'histogramme des longueurs comptent chaque partie une fois, et si une graine
+    // fixe donne les mêmes totaux sur un fil et sur plusieurs
+    @Test
+    void simulation_countsEveryGameWhateverTheThreads() throws Exception {
+        int maxTurns = 60;
+        SimulationStats single = new Simulation("greedy", "random", maxTurns, 11).run(1001, 1);
+        SimulationStats parallel = new Simulation("greedy", "random", maxTurns, 11).run(1001, 4);
+        for (SimulationStats stats : new SimulationStats[] {single, parallel}) {
+            assertEquals(1001, stats.getGames());
+            long outcomes = 0;
+            for (int color = 0; color < 2; color++) {
+                for (int result = 0; result < 4; result++) outcomes += stats.getOutcomes(color, result);
+            }
+            assertEquals(stats.getGames(), outcomes);
+            long lengths = 0;
+            for (int turns = 0; turns <= maxTurns; turns++) lengths += stats.getLengthCount(turns);
+            assertEquals(stats.getGames(), lengths);
+        }
+        for (int agent = 0; agent < 2; agent++) {
+            assertEquals(single.getAgentWins(agent), parallel.getAgentWins(agent));
+        }
+        for (int color = 0; color < 2; color++) {
+            for (int result = 0; result < 4; result++) {
+                assertEquals(single.getOutcomes(color, result), parallel.getOutcomes(color, result));
+            }
+        }
+        for (int turns = 0; turns <= maxTurns; turns++) {
+            assertEquals(single.getLengthCount(turns), parallel.getLengthCount(turns));
+        }
+    }
+
+    // Teste si greedy bat random malgré la règle des 6 points : son pion neutre laisse l'adversaire atteindre 6 points
+    @Test
+    void greedyAgent_beatsRandom() throws Exception {
+        SimulationStats stats = new Simulation("greedy", "random", 1000, 42).run(2000, 2);
+        assertTrue(stats.getAgentWins(0) > 2 * stats.getAgentWins(1),
+                () -> stats.getAgentWins(0) + " victoires contre " + stats.getAgentWins(1));
+    }
+
+    // Teste si EvaluationCache évince l'entrée la moins récemment utilisée
+    @Test
+    void evaluationCache_evictsLeastRecentlyUsed() {
+        EvaluationCache cache = new EvaluationCache(2 * EvaluationCache.ENTRY_BYTES);
+        cache.put(1L, 10);
+        cache.put(2L, 20);
+        assertEquals(10, cache.get(1L));
+        cache.put(3L, 30);
+        assertEquals(EvaluationCache.MISS, cache.get(2L));
+        assertEquals(10, cache.get(1L));
+        assertEquals(30, cache.get(3L));
+        assertEquals(1, cache.getEvictions());
+    }
+
+    // Teste si LatencyTimer compte les mesures et borne les percentiles par tranche de puissance de deux
+    @Test
+    void latencyTimer_recordsPercentiles() {
+        LatencyTimer timer = new LatencyTimer("test");
+        for (int i = 0; i < 99; i++) {
+            timer.record(1_000);
+        }
+        timer.record(1_000_000, 50);
+        assertEquals(100, timer.getCount());
+        assertEquals(1.024, timer.getPercentileMicros(50), 1e-9);
+        assertEquals(1_000.0, timer.getPercentileMicros(100), 1e-9);
+        assertEquals(1_000.0, timer.getMaxMicros(), 1e-9);
+    }
+
+    // Teste si la variante classique de VariantEngine joue les mêmes parties que GameEngine
+    @Test
+    void variantEngine_classicMatchesGameEngine() {
+        java.util.Random random = new java.util.Random(16);
+        int[] moves = new int[BitBoard.MAX_MOVES];
+        int[] variantMoves = new int[VariantRules.classic().getMaxMoves()];
+        for (int game = 0; game < 100; game++) {
+            GameEngine engine = new GameEngine();
+            VariantEngine variant = new VariantEngine(VariantRules.classic());
+            while (!engine.isOver() && engine.getTurn() < 200) {
+                int count = engine.generateMoves(moves);
+                assertEquals(count, variant.generateMoves(variantMoves));
+                int move = moves[random.nextInt(count)];
+                engine.applyMove(move);
+                variant.makeMove(VariantRules.encode(BitBoard.position(move), BitBoard.isVertical(move)));
+                assertEquals(engine.getScore(0), variant.getScore(0));
+                assertEquals(engine.getScore(1), variant.getScore(1));
+            }
+            if (engine.isOver()) {
+                assertEquals(engine.getOutcome().getWinner(), variant.getWinner());
+            }
+        }
+    }
+
+    // Teste si une variante à trois joueurs se simule jusqu'au bout et si greedy y bat random
+    @Test
+    void variantSimulation_playsLargerVariant() throws Exception {
+        VariantSimulation simulation = new VariantSimulation(VariantRules.parse("6x6x3"),
+                new String[] {"greedy", "random", "random"}, 1000, 7);
+        VariantSimulation.Stats stats = simulation.run(300, 2);
+        assertEquals(300, stats.getGames());
+        assertEquals(0, stats.getUnfinished());
+        assertTrue(stats.getWins(0) > stats.getWins(1) + stats.getWins(2));
+    }
+
+    // Teste si les matchs successifs d'un tournoi reprennent les tables de transposition au lieu d'en allouer d'autres
+    @Test
+    void tournament_reusesTranspositionTables() throws Exception {
+        Tournament tournament = new Tournament(new String[] {"alphabeta:1", "alphabeta:1"}, 4, 100, 5);
+        tournament.runSwiss(3, 1);
+        assertEquals(12, tournament.getGamesPlayed());
+        assertEquals(2, tournament.getFreeTables());
+    }
+
+    // Teste si un tournoi repris depuis son point de reprise donne le même classement qu'un tournoi d'une traite
+    @Test
+    void tournament_resumesFromCheckpoint() throws Exception {
+        String[] agents = {"random", "greedy", "greedy:0"};
+        java.nio.file.Path full = java.nio.file.Files.createTempFile("tournoi", ".txt");
+        java.nio.file.Path resumed = java.nio.file.Files.createTempFile("tournoi", ".txt");
+        try {
+            Tournament reference = new Tournament(agents, 8, 200, 17);
+            reference.openCheckpoint(full);
+            reference.runRoundRobin(2);
+            reference.closeCheckpoint();
+            java.util.List<String> lines = java.nio.file.Files.readAllLines(full);
+            // Interruption simulée : deux matchs terminés puis une ligne à moitié écrite
+            java.nio.file.Files.write(resumed, (String.join("\n", lines.subList(0, 3)) + "\n0 1").getBytes());
+
+            Tournament tournament = new Tournament(agents, 8, 200, 17);
+            tournament.openCheckpoint(resumed);
+            tournament.runRoundRobin(1);
+            tournament.closeCheckpoint();
+            assertEquals(8, tournament.getGamesPlayed());
+            for (int agent = 0; agent < agents.length; agent++) {
+                assertEquals(reference.ratings().getRating(agent), tournament.ratings().getRating(agent), 1e-6);
+            }
+        } finally {
+            java.nio.file.Files.deleteIfExists(full);
+            java.nio.file.Files.deleteIfExists(resumed);
+        }
+    }
+
+    // Teste les nombres de positions de Perft depuis la disposition de départ, générateur vérifié par Board
+    @Test
+    void perft_countsKnownPositions() throws Exception {
+        long[] expected = {3, 5, 9, 16, 27, 45, 96, 179, 349, 619};
+        for (int depth = 1; depth <= expected.length; depth++) {
+            long total = 0;
+            for (long count : Perft.divide(new GameEngine(), depth, 2, true)) {
+                total += count;
+            }
+            assertEquals(expected[depth - 1], total);
+        }
+    }
+
+    // Teste la réduction de l'espace des positions par les clés canoniques de PositionSymmetry
+    @Test
+    void positionSymmetry_mergesSwappedColoursAndPlayers() {
+        PositionSymmetry.Reduction reduction = PositionSymmetry.enumerate();
+        assertEquals(255803, reduction.positions);
+        assertEquals(64488, reduction.classes);
+        // Même partie avec les couleurs échangées : les pions rouge et bleu échangent leurs placements
+        GameEngine red = new GameEngine();
+        red.applyMove(red.resolveOption(0));
+        GameEngine blue = new GameEngine();
+        blue.copyFrom(red);
+        blue.assignPions(BitBoard.BLUE);
+        blue.getBoard().setPlacement(BitBoard.BLUE, red.getBoard().getPlacement(BitBoard.RED));
+        blue.getBoard().setPlacement(BitBoard.RED, red.getBoard().getPlacement(BitBoard.BLUE));
+        assertEquals(PositionSymmetry.canonicalKey(red), PositionSymmetry.canonicalKey(blue));
+    }
+
+    // Teste si le journal écrit tous les événements, dans l'ordre de chaque partie, même avec un anneau saturé
+    @Test
+    void eventLog_writesEveryEventInOrder() throws Exception {
+        java.nio.file.Path path = java.nio.file.Files.createTempFile("journal", ".bin");
+        int producers = 4, events = 5000;
+        try {
+            try (EventLog journal = new EventLog(path, 8, 1)) {
+                Thread[] threads = new Thread[producers];
+                for (int t = 0; t < producers; t++) {
+                    long game = journal.nextGameId();
+                    threads[t] = new Thread(() -> {
+                        for (int i = 0; i < events; i++) {
+                            journal.publish(game, EventLog.PLAYER_MOVE, i, 0, 0);
+                        }
+                    });
+                    threads[t].start();
+                }
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+            }
+            java.nio.ByteBuffer buffer = java.nio.ByteBuffer.wrap(java.nio.file.Files.readAllBytes(path))
+                    .order(java.nio.ByteOrder.LITTLE_ENDIAN);
+            assertEquals(16 + producers * events * EventLog.RECORD_BYTES, buffer.capacity());
+            int[] next = new int[producers + 1];
+            for (int offset = 16; offset < buffer.capacity(); offset += EventLog.RECORD_BYTES) {
+                int game = (int) buffer.getLong(offset + 8);
+                long typeAndA = buffer.getLong(offset + 16);
+                assertEquals(EventLog.PLAYER_MOVE, (int) (typeAndA >>> 32));
+                assertEquals(next[game]++, (int) typeAndA);
+            }
+        } finally {
+            java.nio.file.Files.deleteIfExists(path);
+        }
+    }
+
+    // Teste si chaque événement publié pendant la fermeture du journal est soit écrit, soit refusé, jamais perdu
+    @Test
+    void eventLog_closeRaceLosesNoEvent() throws Exception {
+        java.nio.file.Path path = java.nio.file.Files.createTempFile("journal", ".bin");
+        try {
+            int producers = 4;
+            long[] accepted = new long[producers];
+            Thread[] threads = new Thread[producers];
+            EventLog journal = new EventLog(path, 64, 1);
+            for (int t = 0; t < producers; t++) {
+                int producer = t;
+                threads[t] = new Thread(() -> {
+                    try {
+                        while (true) {
+                            journal.publish(producer, EventLog.PLAYER_MOVE, 0, 0, 0);
+                            accepted[producer]++;
+                        }
+                    } catch (IllegalStateException closed) {
+                        // Journal fermé : la boucle s'arrête
+                    }
+                });
+                threads[t].start();
+            }
+            Thread.sleep(100);
+            journal.close();
+            long total = 0;
+            for (int t = 0; t < producers; t++) {
+                threads[t].join();
+                total += accepted[t];
+            }
+            assertEquals(total, journal.getPublished());
+            assertEquals(EventLog.HEADER_BYTES + total * EventLog.RECORD_BYTES, java.nio.file.Files.size(path));
+            assertTrue(journal.getSyncs() > 0);
+        } finally {
+            java.nio.file.Files.deleteIfExists(path);
+        }
+    }
+
+    // Teste si le validateur en lot rejoue une partie légale et rejette un choix hors des options
+    @Test
+    void scriptValidator_rejectsIllegalChoices() throws Exception {
+        GameEngine engine = new GameEngine();
+        int[] options = new int[BitBoard.MAX_MOVES];
+        StringBuilder script = new StringBuilder("# partie complète\nR");
+        while (!engine.isOver()) {
+            engine.generateOptions(options);
+            engine.applyMove(engine.resolveOption(options[0]));
+            script.append(" 1");
+        }
+        script.append("\nB 1 9\nR\n1\n");
+        ScriptValidator validator = new ScriptValidator(false);
+        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+        validator.validate(new java.io.ByteArrayInputStream(script.toString().getBytes()),
+                new java.io.PrintStream(out, true, "UTF-8"));
+        assertEquals(3, validator.getGames());
+        assertEquals(1, validator.getRejected());
+        assertEquals(1, validator.getOutcomeCount(engine.getOutcome()));
+        assertEquals(1, validator.getOutcomeCount(GameEngine.Outcome.IN_PROGRESS));
+        assertTrue(out.toString("UTF-8").contains("partie 2 : rejetée au tour 1, coup 2 : choix 9"));
+    }
+
+    // Teste si la recherche en arrière-plan s'arrête sur demande et garde le sous-arbre du coup joué
+    @Test
+    void mctsAgent_pondersAndReusesTree() throws Exception {
+        GameEngine engine = new GameEngine();
+        MctsAgent agent = new MctsAgent(1000, 0, 1, 1 << 16, 3);
+        agent.startPondering(engine);
+        while (agent.getPlayouts() < 5000) {
+            Thread.sleep(1);
+        }
+        agent.stopPondering();
+        int playouts = agent.getPlayouts();
+        Thread.sleep(20);
+        assertEquals(playouts, agent.getPlayouts());
+
+        int[] moves = new int[BitBoard.MAX_MOVES];
+        int[] result = new int[3];
+        engine.generateMoves(moves);
+        int visits = agent.estimate(moves[0], result);
+        assertTrue(visits > 0);
+        assertEquals(visits, result[0] + result[1] + result[2]);
+        engine.applyMove(moves[0]);
+        agent.advance(moves[0]);
+        // Les coups suivants ont déjà été explorés avant le prochain startPondering
+        int count = engine.generateMoves(moves);
+        int explored = 0;
+        for (int i = 0; i < count; i++) {
+            explored += agent.estimate(moves[i], result);
+        }
+        assertTrue(explored > 0);
+        agent.close();
+    }
+
+    // Teste si mcts, avec un nombre fixe de parties simulées, joue un coup qui gagne à la fin du tour, et si chaque partie
+    // simulée est comptée une fois dans les visites des coups de la racine, sur un fil comme sur plusieurs
+    @Test
+    void mctsAgent_findsWinsWithConsistentVisits() {
+        int budget = 2000;
+        for (int threads : new int[] {1, 4}) {
+            java.util.SplittableRandom random = new java.util.SplittableRandom(4);
+            GameEngine engine = new GameEngine();
+            int[] moves = new int[BitBoard.MAX_MOVES];
+            int[] result = new int[3];
+            int positions = 0;
+            try (MctsAgent agent = new MctsAgent(0, budget, threads, 1 << 16, 17)) {
+                while (positions < 20) {
+                    engine.reset();
+                    engine.assignPions(random.nextBoolean() ? BitBoard.RED : BitBoard.BLUE);
+                    while (!engine.isOver()) {
+                        int count = engine.generateMoves(moves);
+                        int player = engine.getCurrentPlayer();
+                        // Un coup qui atteint 12 points gagne à la fin du tour quand l'adversaire en a au moins 6
+                        boolean canWin = false;
+                        boolean canMiss = false;
+                        for (int i = 0; i < count && !engine.isNeutralTurn()
+                                && engine.getScore(player ^ 1) >= GameEngine.MINIMUM_OPPONENT_SCORE; i++) {
+                            engine.makeMove(moves[i]);
+                            boolean wins = engine.getScore(player) >= GameEngine.WINNING_SCORE;
+                            canWin |= wins;
+                            canMiss |= !wins;
+                            engine.unmakeMove();
+                        }
+                        if (canWin && canMiss) {
+                            positions++;
+                            engine.makeMove(agent.chooseMove(engine, moves.clone(), count));
+                            assertTrue(engine.getScore(player) >= GameEngine.WINNING_SCORE);
+                            engine.unmakeMove();
+                            assertEquals(budget, agent.getPlayouts());
+                            int visits = 0;
+                            for (int i = 0; i < count; i++) {
+                                int moveVisits = agent.estimate(moves[i], result);
+                                assertEquals(moveVisits, result[0] + result[1] + result[2]);
+                                visits += moveVisits;
+                            }
+                            assertEquals(budget, visits);
+                        }
+                        engine.applyMove(moves[random.nextInt(count)]);
+                    }
+                }
+            }
+        }
+    }
+
+    // Teste si un arbre plein pendant une longue recherche en arrière-plan reste borné par sa capacité
+    @Test
+    void mctsAgent_pondersPastFullTree() throws Exception {
+        GameEngine engine = new GameEngine();
+        try (MctsAgent agent = new MctsAgent(1000, 0, 2, 64, 5)) {
+            agent.startPondering(engine);
+            while (agent.getPlayouts() < 20000) {
+                Thread.sleep(1);
+            }
+            agent.stopPondering();
+            assertTrue(agent.getNodeCount() <= 64, () -> agent.getNodeCount() + " nœuds");
+            int[] moves = new int[BitBoard.MAX_MOVES];
+            int count = engine.generateMoves(moves);
+            assertTrue(agent.estimate(agent.chooseMove(engine, moves, count), new int[3]) > 0);
+        }
+    }
+
+    // Teste si fermer un agent mcts créé par Agent.create arrête ses fils de recherche
+    @Test
+    void agent_closeStopsMctsThreads() throws Exception {
+        GameEngine engine = new GameEngine();
+        int[] moves = new int[BitBoard.MAX_MOVES];
+        int count = engine.generateMoves(moves);
+        for (int i = 0; i < 10; i++) {
+            try (Agent agent = Agent.create("mcts:1:2", i)) {
+                agent.chooseMove(engine, moves, count);
+            }
+        }
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        long alive;
+        do {
+            Thread.sleep(10);
+            alive = Thread.getAllStackTraces().keySet().stream().filter(thread -> thread.getName().equals("mcts")).count();
+        } while (alive > 0 && System.nanoTime() < deadline);
+        assertEquals(0, alive);
+    }
+
+    // Teste si les statistiques des joueurs sont relues à l'identique et si le classement suit chaque partie
+    @Test
+    void playerStats_persistsResultsAndRanks() throws Exception {
+        java.nio.file.Path directory = java.nio.file.Files.createTempDirectory("statistiques");
+        try {
+            try (PlayerStats stats = new PlayerStats(directory)) {
+                stats.record("Alice", "Bob", 12, 7, GameEngine.Outcome.PLAYER1_WINS);
+                stats.record("Carole", "Bob", 12, 3, GameEngine.Outcome.PLAYER1_WINS);
+                stats.record("Alice", "Carole", 9, 9, GameEngine.Outcome.DRAW);
+                assertEquals(java.util.Arrays.asList("Alice", "Carole", "Bob"), stats.top(5));
+                assertEquals(3, stats.rank("Bob"));
+                assertEquals(-1, stats.rank("David"));
+            }
+            // Interruption simulée pendant l'écriture d'un résultat et d'un nom
+            java.nio.file.Files.write(directory.resolve(PlayerStats.RESULTS_FILE), new byte[5],
+                    java.nio.file.StandardOpenOption.APPEND);
+            java.nio.file.Files.write(directory.resolve(PlayerStats.PLAYERS_FILE), "Dav".getBytes(),
+                    java.nio.file.StandardOpenOption.APPEND);
+            try (PlayerStats stats = new PlayerStats(directory)) {
+                assertEquals(3, stats.getResultCount());
+                assertEquals(3, stats.getPlayerCount());
+                assertEquals(java.util.Arrays.asList("Alice", "Carole", "Bob"), stats.top(5));
+                stats.record("David", "Bob", 12, 0, GameEngine.Outcome.PLAYER1_WINS);
+                assertEquals(4, stats.rank("Bob"));
+            }
+            try (PlayerStats stats = new PlayerStats(directory)) {
+                assertEquals(4, stats.getResultCount());
+                assertEquals(4, stats.rank("Bob"));
+            }
+        } finally {
+            for (String file : new String[] {PlayerStats.PLAYERS_FILE, PlayerStats.RESULTS_FILE}) {
+                java.nio.file.Files.deleteIfExists(directory.resolve(file));
+            }
+            java.nio.file.Files.deleteIfExists(directory);
+        }
+    }
+
+    // Teste si Game redemande un nom vide ou déjà pris avant la partie et nomme deux ordinateurs différemment, pour
+    // que le résultat soit enregistré dans les statistiques
+    @Test
+    void game_validatesPlayerNamesAtEntry() throws Exception {
+        java.nio.file.Path directory = java.nio.file.Files.createTempDirectory("statistiques");
+        try (PlayerStats stats = new PlayerStats(directory)) {
+            StringBuilder input = new StringBuilder("\n   \nAlice\nAlice\nBob\nR\n");
+            for (int i = 0; i < 2000; i++) input.append("1\n");
+            java.io.ByteArrayOutputStream output = new java.io.ByteArrayOutputStream();
+            Game humains = new Game(new java.io.ByteArrayInputStream(input.toString().getBytes()),
+                    new java.io.PrintStream(output, true, "UTF-8"));
+            humains.setStatistiques(stats);
+            humains.start();
+            String text = output.toString("UTF-8");
+            assertEquals(3, text.split("Nom vide ou déjà pris", -1).length - 1);
+            assertFalse(text.contains("Résultat non enregistré"));
+            assertEquals(1, stats.getResultCount());
+            assertTrue(stats.rank("Alice") > 0 && stats.rank("Bob") > 0);
+
+            Game ordinateurs = new Game(new java.io.ByteArrayInputStream("B\n".getBytes()),
+                    new java.io.PrintStream(new java.io.ByteArrayOutputStream()));
+            ordinateurs.setOrdinateur(0, new RandomAgent(1));
+            ordinateurs.setOrdinateur(1, new RandomAgent(2));
+            ordinateurs.setStatistiques(stats);
+            ordinateurs.start();
+            assertEquals(2, stats.getResultCount());
+            assertTrue(stats.rank("Ordinateur 1") > 0 && stats.rank("Ordinateur 2") > 0);
+            assertThrows(IllegalArgumentException.class, () -> ordinateurs.setJoueurs("Alice", "Alice"));
+            assertThrows(IllegalArgumentException.class, () -> ordinateurs.setJoueurs("", null));
+        } finally {
+            for (String file : new String[] {PlayerStats.PLAYERS_FILE, PlayerStats.RESULTS_FILE}) {
+                java.nio.file.Files.deleteIfExists(directory.resolve(file));
+            }
+            java.nio.file.Files.deleteIfExists(directory);
+        }
+    }
+
+    // Teste si un spectateur reçoit le début d'une partie puis chaque coup joué sur le serveur
+    @Test
+    void spectatorHub_streamsDeltasToSpectators() throws Exception {
+        try (SpectatorHub hub = new SpectatorHub(0).start()) {
+            GameServer server = new GameServer(0, 5000, 16);
+            server.setSpectateurs(hub);
+            try (GameServer started = server.start();
+                 java.net.Socket spectator = new java.net.Socket("127.0.0.1", hub.getPort())) {
+                java.io.BufferedReader watched = new java.io.BufferedReader(new java.io.InputStreamReader(spectator.getInputStream(), "UTF-8"));
+                assertEquals("resynchronisation", watched.readLine());
+                try (java.net.Socket client1 = new java.net.Socket("127.0.0.1", started.getPort());
+                     java.net.Socket client2 = new java.net.Socket("127.0.0.1", started.getPort())) {
+                    java.io.BufferedReader in1 = new java.io.BufferedReader(new java.io.InputStreamReader(client1.getInputStream(), "UTF-8"));
+                    in1.readLine();
+                    client1.getOutputStream().write("B\n".getBytes("UTF-8"));
+                    assertEquals("En attente d'un adversaire...", in1.readLine());
+                    client2.getOutputStream().write("R\n".getBytes("UTF-8"));
+                    while (!in1.readLine().startsWith("Déplacements possibles")) { }
+                    assertEquals("partie 1 BLUE 1H 7H 4H 0 0", watched.readLine());
+                    client1.getOutputStream().write("1\n".getBytes("UTF-8"));
+                    assertTrue(watched.readLine().startsWith("coup 1 BLUE "));
+                }
+                assertTrue(watched.readLine().startsWith("fin 1 "));
+            }
+        }
+    }
+
+    // Teste si la boucle de jeu reste sous son budget d'allocations par mouvement ; le rapport JFR nomme les sites sinon
+    @Test
+    void allocationProfiler_staysWithinBudgets() {
+        AllocationProfiler profiler = new AllocationProfiler();
+        for (AllocationProfiler.Workload workload : AllocationProfiler.Workload.values()) {
+            double bytes = profiler.bytesPerMove(workload, AllocationProfiler.GAMES, AllocationProfiler.SEED);
+            org.junit.jupiter.api.Assumptions.assumeTrue(bytes >= 0, "La JVM ne compte pas les octets alloués par fil.");
+            assertTrue(bytes <= workload.getBudget(), () -> workload + " : " + bytes + " octets par mouvement\n"
+                    + profiler.report(workload, AllocationProfiler.GAMES, AllocationProfiler.SEED));
+        }
+    }
+}
@@ -0,0 +1,456 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Agent de recherche arborescente Monte-Carlo (UCT) parallèle.
+ * Tous les fils partagent le même arbre, stocké dans des tableaux préalloués : les visites et les gains sont des
+ * compteurs atomiques, et une visite est comptée dès la descente (perte virtuelle) pour écarter les autres fils
+ * du même chemin. Le développement d'un nœud est réservé par compare-and-set, sans verrou.
+ * Les parties simulées jouent au hasard sur un moteur propre à chaque fil, sans allocation par coup.
+ * L'agent peut aussi chercher en arrière-plan pendant qu'un humain réfléchit (startPondering, stopPondering) : l'arbre
+ * est alors gardé d'un coup à l'autre, advance descendant la racine dans le sous-arbre du coup joué.
+ */
+public class MctsAgent implements Agent {
+    // Constante d'exploration UCT
+    private static final double EXPLORATION = 1.4;
+    // Au-delà de ce nombre de tours depuis la racine, une partie simulée est comptée nulle
+    private static final int PLAYOUT_TURN_LIMIT = 200;
+    // États du premier enfant d'un nœud : pas encore développé, ou en cours de développement par un autre fil
+    private static final int UNEXPANDED = -1;
+    private static final int EXPANDING = -2;
+    private static final int MAX_DEPTH = 512;
+    // Part de l'arbre au-delà de laquelle un arbre gardé d'un coup à l'autre est recommencé, faute de place
+    private static final double REUSE_LIMIT = 0.75;
+
+    private final long budgetNanos;
+    private final int maxPlayouts;
+    private final int threads;
+    private final int capacity;
+    private final ExecutorService executor;
+
+    // Arbre partagé : un nœud par indice
+    private final int[] moveOf;
+    private final int[] moverOf;
+    private final int[] childCount;
+    private final AtomicIntegerArray firstChild;
+    private final AtomicIntegerArray visits;
+    // Gains en demi-points (2 pour une victoire, 1 pour un nul) du point de vue du joueur qui a joué le coup du nœud
+    private final AtomicLongArray wins;
+    // Parties nulles parmi les visites, pour distinguer les nuls des demi-victoires
+    private final AtomicIntegerArray draws;
+    private final AtomicInteger nodeCount = new AtomicInteger();
+    // Vrai dès qu'un développement n'a pas trouvé de place : les itérations suivantes ne développent plus rien
+    private volatile boolean treeFull;
+    private final AtomicInteger playouts = new AtomicInteger();
+
+    private final Worker[] workers;
+    private volatile long deadline;
+    private GameEngine root;
+    // Nœud racine de la recherche, -1 quand l'arbre doit être recommencé
+    private volatile int rootNode = -1;
+    private volatile boolean pondering;
+    private final GameEngine ponderedPosition = new GameEngine();
+    private final List<Future<?>> ponderingTasks = new ArrayList<>();
+
+    private long lastPlayouts;
+    private long lastNanos;
+    private int lastNodes;
+
+    /**
+     * Constructeur de la classe MctsAgent.
+     * @param budgetMillis Le temps de réflexion par coup en millisecondes, 0 pour ne limiter que le nombre de parties.
+     * @param maxPlayouts Le nombre de parties simulées par coup, 0 pour ne limiter que le temps.
+     * @param threads Le nombre de fils de recherche.
+     * @param capacity Le nombre maximal de nœuds de l'arbre.
+     * @param seed La graine des parties simulées.
+     */
+    public MctsAgent(long budgetMillis, int maxPlayouts, int threads, int capacity, long seed) {
+        if (budgetMillis <= 0 && maxPlayouts <= 0) {
+            throw new IllegalArgumentException("Il faut un budget de temps ou de parties simulées.");
+        }
+        this.budgetNanos = budgetMillis * 1_000_000L;
+        this.maxPlayouts = maxPlayouts;
+        this.threads = threads;
+        this.capacity = capacity;
+        this.moveOf = new int[capacity];
+        this.moverOf = new int[capacity];
+        this.childCount = new int[capacity];
+        this.firstChild = new AtomicIntegerArray(capacity);
+        this.visits = new AtomicIntegerArray(capacity);
+        this.wins = new AtomicLongArray(capacity);
+        this.draws = new AtomicIntegerArray(capacity);
+        this.workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(seed + i);
+        }
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "mcts");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public int chooseMove(GameEngine engine, int[] moves, int count) {
+        if (count == 1) return moves[0];
+        stopPondering();
+        long start = System.nanoTime();
+        deadline = budgetNanos > 0 ? start + budgetNanos : Long.MAX_VALUE;
+        playouts.set(0);
+        root = engine;
+        nodeCount.set(0);
+        treeFull = false;
+        int rootNode = allocate(1, -1);
+        this.rootNode = rootNode;
+        // La racine est développée avant le départ des fils : chaque partie simulée passe par un de ses coups
+        workers[0].expandRoot();
+
+        List<Future<?>> futures = new ArrayList<>(threads);
+        for (Worker worker : workers) {
+            futures.add(executor.submit(worker));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+
+        lastPlayouts = playouts.get();
+        lastNanos = System.nanoTime() - start;
+        lastNodes = nodeCount.get();
+        GameMetrics.MCTS_SEARCH.record(lastNanos, lastPlayouts);
+        return mostVisited(rootNode, moves[0]);
+    }
+
+    /**
+     * Lance la recherche en arrière-plan sur une position, sans limite de temps ni de parties, jusqu'à stopPondering.
+     * L'arbre des recherches précédentes est repris si advance a suivi tous les coups joués depuis.
+     * @param engine La position, partie en cours ; elle est copiée.
+     */
+    public void startPondering(GameEngine engine) {
+        stopPondering();
+        ponderedPosition.copyFrom(engine);
+        root = ponderedPosition;
+        if (rootNode < 0 || nodeCount.get() > capacity * REUSE_LIMIT) {
+            nodeCount.set(0);
+            rootNode = allocate(1, -1);
+        }
+        // L'arbre gardé a encore de la place, au moins le quart de sa capacité
+        treeFull = false;
+        workers[0].expandRoot();
+        playouts.set(0);
+        pondering = true;
+        deadline = Long.MAX_VALUE;
+        for (Worker worker : workers) {
+            ponderingTasks.add(executor.submit(worker));
+        }
+    }
+
+    /**
+     * Arrête la recherche en arrière-plan et attend la fin de l'itération en cours de chaque fil ; l'arbre est gardé.
+     */
+    public void stopPondering() {
+        if (!pondering) return;
+        deadline = Long.MIN_VALUE;
+        try {
+            for (Future<?> task : ponderingTasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            ponderingTasks.clear();
+            pondering = false;
+        }
+    }
+
+    /**
+     * Descend la racine de l'arbre dans le sous-arbre d'un coup joué, pour le reprendre au prochain startPondering.
+     * Si le coup n'a pas encore été exploré, l'arbre sera recommencé.
+     * @param move Le mouvement codé joué depuis la position de la racine.
+     */
+    public void advance(int move) {
+        stopPondering();
+        int node = rootNode;
+        rootNode = -1;
+        int first = node < 0 ? -1 : firstChild.get(node);
+        if (first < 0) return;
+        for (int child = first; child < first + childCount[node]; child++) {
+            if (moveOf[child] == move) {
+                rootNode = child;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Estime l'issue d'un coup de la racine d'après les parties simulées qui l'ont suivi.
+     * Peut être appelée pendant la recherche en arrière-plan ; les visites en cours comptent comme des défaites.
+     * @param move Le mouvement codé.
+     * @param result Le tableau recevant les victoires, nuls et défaites du joueur qui joue le coup.
+     * @return Le nombre de visites du coup, 0 s'il n'a pas encore été exploré.
+     */
+    public int estimate(int move, int[] result) {
+        int node = rootNode;
+        int first = node < 0 ? -1 : firstChild.get(node);
+        result[0] = result[1] = result[2] = 0;
+        if (first < 0) return 0;
+        for (int child = first; child < first + childCount[node]; child++) {
+            if (moveOf[child] == move) {
+                int childVisits = visits.get(child);
+                int childDraws = draws.get(child);
+                result[0] = (int) ((wins.get(child) - childDraws) / 2);
+                result[1] = childDraws;
+                result[2] = Math.max(0, childVisits - result[0] - childDraws);
+                return childVisits;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de parties simulées depuis le dernier startPondering ou chooseMove.
+     * @return Le nombre de parties simulées.
+     */
+    public int getPlayouts() {
+        return playouts.get();
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de nœuds de l'arbre.
+     * @return Le nombre de nœuds, au plus la capacité.
+     */
+    int getNodeCount() {
+        return nodeCount.get();
+    }
+
+    /**
+     * Choisit le coup de la racine le plus visité.
+     */
+    private int mostVisited(int rootNode, int fallback) {
+        int first = firstChild.get(rootNode);
+        if (first < 0) return fallback;
+        int best = fallback;
+        int bestVisits = -1;
+        for (int child = first; child < first + childCount[rootNode]; child++) {
+            if (visits.get(child) > bestVisits) {
+                bestVisits = visits.get(child);
+                best = moveOf[child];
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Réserve un bloc de nœuds consécutifs.
+     * @param count Le nombre de nœuds.
+     * @param mover Le joueur qui joue les coups menant à ces nœuds.
+     * @return L'indice du premier nœud, ou -1 si l'arbre est plein.
+     */
+    private int allocate(int count, int mover) {
+        // Le compteur n'avance que si le bloc tient : une recherche en arrière-plan sans fin ne peut pas le faire déborder
+        int first;
+        do {
+            first = nodeCount.get();
+            if (first + count > capacity) {
+                treeFull = true;
+                return -1;
+            }
+        } while (!nodeCount.compareAndSet(first, first + count));
+        for (int node = first; node < first + count; node++) {
+            firstChild.set(node, UNEXPANDED);
+            visits.set(node, 0);
+            wins.set(node, 0);
+            draws.set(node, 0);
+            childCount[node] = 0;
+            moverOf[node] = mover;
+        }
+        return first;
+    }
+
+    /**
+     * Fil de recherche : sélection, développement, partie simulée et rétropropagation, en boucle.
+     */
+    private final class Worker implements Runnable {
+        private final GameEngine engine = new GameEngine();
+        private final int[] moves = new int[BitBoard.MAX_MOVES];
+        private final int[] path = new int[MAX_DEPTH];
+        private long state;
+        // Tour au-delà duquel la partie simulée est comptée nulle, compté depuis le tour de la racine
+        private int turnLimit;
+
+        Worker(long seed) {
+            this.state = seed == 0 ? 0x9E3779B97F4A7C15L : seed;
+        }
+
+        @Override
+        public void run() {
+            while (System.nanoTime() < deadline) {
+                if (playouts.getAndIncrement() >= maxPlayouts && maxPlayouts > 0 && !pondering) {
+                    playouts.decrementAndGet();
+                    return;
+                }
+                iterate();
+            }
+        }
+
+        /**
+         * Développe la racine depuis le fil appelant, avant que les fils de recherche ne partent.
+         */
+        void expandRoot() {
+            engine.copyFrom(root);
+            expand(rootNode);
+        }
+
+        /**
+         * Effectue une itération complète depuis la racine.
+         */
+        private void iterate() {
+            engine.copyFrom(root);
+            turnLimit = root.getTurn() + PLAYOUT_TURN_LIMIT;
+            int node = rootNode;
+            int depth = 0;
+            path[depth++] = node;
+            visits.incrementAndGet(node);
+            while (!engine.isOver() && depth < MAX_DEPTH) {
+                int first = firstChild.get(node);
+                if (first == UNEXPANDED) {
+                    // Un nœud n'est développé qu'à sa deuxième visite ; la première se contente d'une partie simulée
+                    if (treeFull || node != path[0] && visits.get(node) <= 1) break;
+                    first = expand(node);
+                }
+                if (first < 0) break;
+                node = select(node, first);
+                visits.incrementAndGet(node);
+                path[depth++] = node;
+                engine.applyMove(moveOf[node]);
+            }
+            int winner = playout();
+            for (int i = 1; i < depth; i++) {
+                int mover = moverOf[path[i]];
+                wins.addAndGet(path[i], winner < 0 ? 1 : winner == mover ? 2 : 0);
+                if (winner < 0) draws.incrementAndGet(path[i]);
+            }
+        }
+
+        /**
+         * Développe un nœud : crée un enfant par mouvement possible de la position courante.
+         * @return L'indice du premier enfant, ou -1 si un autre fil développe déjà ce nœud ou si l'arbre est plein.
+         */
+        private int expand(int node) {
+            if (!firstChild.compareAndSet(node, UNEXPANDED, EXPANDING)) {
+                int first = firstChild.get(node);
+                return first == EXPANDING ? -1 : first;
+            }
+            int count = engine.generateMoves(moves);
+            int first = count == 0 ? -1 : allocate(count, engine.getCurrentPlayer());
+            if (first < 0) {
+                firstChild.set(node, UNEXPANDED);
+                return -1;
+            }
+            for (int i = 0; i < count; i++) {
+                moveOf[first + i] = moves[i];
+            }
+            childCount[node] = count;
+            firstChild.set(node, first);
+            return first;
+        }
+
+        /**
+         * Sélectionne l'enfant maximisant la borne UCT ; un enfant jamais visité est choisi en priorité.
+         */
+        private int select(int node, int first) {
+            double logParent = Math.log(Math.max(1, visits.get(node)));
+            int best = first;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int child = first; child < first + childCount[node]; child++) {
+                int childVisits = visits.get(child);
+                if (childVisits == 0) return child;
+                double value = wins.get(child) / (2.0 * childVisits)
+                        + EXPLORATION * Math.sqrt(logParent / childVisits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Termine la partie au hasard à partir de la position courante.
+         * @return L'indice du joueur gagnant, -1 pour un nul.
+         */
+        private int playout() {
+            while (!engine.isOver() && engine.getTurn() < turnLimit) {
+                int count = engine.generateMoves(moves);
+                engine.applyMove(moves[nextInt(count)]);
+            }
+            return engine.getOutcome().getWinner();
+        }
+
+        /**
+         * Générateur xorshift64*, sans allocation.
+         */
+        private int nextInt(int bound) {
+            state ^= state >>> 12;
+            state ^= state << 25;
+            state ^= state >>> 27;
+            return (int) (((state * 0x2545F4914F6CDD1DL) >>> 33) % bound);
+        }
+    }
+
+    /**
+     * Méthode pour obtenir le débit de la dernière décision.
+     * @return Le nombre de parties simulées par seconde.
+     */
+    public long getPlayoutsPerSecond() {
+        return lastNanos == 0 ? 0 : lastPlayouts * 1_000_000_000L / lastNanos;
+    }
+
+    @Override
+    public String report() {
+        return String.format("%d parties simulées, %d parties/s sur %d fils, %d nœuds",
+                lastPlayouts, getPlayoutsPerSecond(), threads, lastNodes);
+    }
+
+    /**
+     * Arrête la recherche en arrière-plan et les fils de recherche ; l'agent ne peut plus servir ensuite.
+     */
+    @Override
+    public void close() {
+        stopPondering();
+        executor.shutdown();
+    }
+
+    /**
+     * Mesure le débit depuis la position de départ pour 1, 2, 4... fils jusqu'au nombre de processeurs.
+     * @param args Le temps de mesure par nombre de fils, en millisecondes (1000 par défaut).
+     */
+    public static void main(String[] args) {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+        int processors = Runtime.getRuntime().availableProcessors();
+        GameEngine engine = new GameEngine();
+        int[] moves = new int[BitBoard.MAX_MOVES];
+        int count = engine.generateMoves(moves);
+        for (int threads = 1; ; threads = Math.min(threads * 2, processors)) {
+            try (MctsAgent agent = new MctsAgent(millis, 0, threads, 1 << 20, 42)) {
+                agent.chooseMove(engine, moves, count);
+                System.out.println(agent.report());
+            }
+            if (threads == processors) break;
+        }
+    }
+}
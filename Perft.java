@@ -0,0 +1,224 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compteur de positions à la manière du perft des moteurs d'échecs : nombre de feuilles de l'arbre des coups à une
+ * profondeur donnée depuis la disposition de départ de Board.initPions.
+ * La profondeur se compte en mouvements : le mouvement d'un joueur puis celui du pion neutre, qui n'existe pas quand
+ * le pion neutre ne peut pas bouger. Une partie terminée avant la profondeur demandée ne compte aucune feuille.
+ * Les nombres obtenus servent d'oracle de non-régression pour tout générateur de mouvements plus rapide : le mode
+ * vérification compare en plus, à chaque nœud, BitBoard.generateMoves à un générateur de référence qui reprend les
+ * règles d'origine de Board (tests en % 3 et - 3 sur un tableau de cases) sans passer par BitBoard.
+ * Les sous-arbres des deux premiers niveaux sont répartis entre plusieurs fils, chacun avec son propre moteur.
+ */
+public class Perft {
+    // Profondeur à laquelle l'arbre est découpé en tâches indépendantes
+    private static final int SPLIT_DEPTH = 2;
+    private static final char EMPTY = 'O';
+
+    private final boolean verify;
+    private final int[][] buffers;
+
+    /**
+     * Constructeur de la classe Perft.
+     * @param maxDepth La profondeur maximale parcourue par cette instance.
+     * @param verify Vrai pour comparer chaque génération de mouvements au générateur de référence.
+     */
+    public Perft(int maxDepth, boolean verify) {
+        this.verify = verify;
+        this.buffers = new int[maxDepth + 1][BitBoard.MAX_MOVES];
+    }
+
+    /**
+     * Point d'entrée du compteur.
+     * Arguments : profondeur [fils] [couleur du joueur 1, R ou B] [verifier].
+     * @param args Les arguments de la ligne de commande.
+     * @throws Exception Si un fil de calcul échoue.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.out.println("Usage : java Perft profondeur [fils] [R|B] [verifier]");
+            return;
+        }
+        int depth = Integer.parseInt(args[0]);
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int piecePlayer1 = args.length > 2 && args[2].equalsIgnoreCase("B") ? BitBoard.BLUE : BitBoard.RED;
+        boolean verify = args.length > 3 && args[3].equals("verifier");
+
+        GameEngine engine = new GameEngine();
+        engine.assignPions(piecePlayer1);
+        int[] roots = new int[BitBoard.MAX_MOVES];
+        int rootCount = engine.generateMoves(roots);
+        long start = System.nanoTime();
+        long[] counts = divide(engine, depth, threads, verify);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long total = 0;
+        for (int i = 0; i < rootCount; i++) {
+            System.out.printf("%s : %d%n", BitBoard.notation(roots[i]), counts[i]);
+            total += counts[i];
+        }
+        System.out.printf("Profondeur %d : %d positions en %.3f s (%.0f positions/s) sur %d fils%s%n",
+                depth, total, seconds, total / seconds, threads, verify ? ", générateur vérifié" : "");
+    }
+
+    /**
+     * Compte les feuilles sous chaque mouvement de la position, en parallèle.
+     * @param engine Le moteur, partie en cours ; il n'est pas modifié.
+     * @param depth La profondeur, au moins 1.
+     * @param threads Le nombre de fils.
+     * @param verify Vrai pour vérifier le générateur à chaque nœud.
+     * @return Le nombre de feuilles sous chaque mouvement, dans l'ordre de GameEngine.generateMoves.
+     * @throws InterruptedException Si l'attente est interrompue.
+     * @throws ExecutionException Si un fil de calcul échoue, notamment si la vérification trouve une différence.
+     */
+    public static long[] divide(GameEngine engine, int depth, int threads, boolean verify)
+            throws InterruptedException, ExecutionException {
+        int[] roots = new int[BitBoard.MAX_MOVES];
+        int rootCount = engine.generateMoves(roots);
+        long[] counts = new long[rootCount];
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            // Une tâche par chemin de SPLIT_DEPTH mouvements, pour occuper les fils malgré le peu de mouvements par nœud
+            List<int[]> paths = new ArrayList<>();
+            collectPaths(copyOf(engine), new int[0], Math.min(SPLIT_DEPTH, depth), paths);
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int[] path : paths) {
+                futures.add(executor.submit(() -> {
+                    GameEngine worker = copyOf(engine);
+                    Perft perft = new Perft(depth, verify);
+                    for (int move : path) {
+                        perft.check(worker);
+                        worker.makeMove(move);
+                    }
+                    return perft.count(worker, depth - path.length);
+                }));
+            }
+            for (int i = 0; i < paths.size(); i++) {
+                int root = paths.get(i)[0];
+                long leaves = futures.get(i).get();
+                for (int r = 0; r < rootCount; r++) {
+                    if (roots[r] == root) counts[r] += leaves;
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return counts;
+    }
+
+    private static GameEngine copyOf(GameEngine engine) {
+        GameEngine copy = new GameEngine();
+        copy.copyFrom(engine);
+        return copy;
+    }
+
+    /**
+     * Énumère les chemins de length mouvements, ou plus courts quand la partie se termine avant.
+     */
+    private static void collectPaths(GameEngine engine, int[] prefix, int length, List<int[]> paths) {
+        if (prefix.length == length || engine.isOver()) {
+            if (prefix.length > 0) paths.add(prefix);
+            return;
+        }
+        int[] moves = new int[BitBoard.MAX_MOVES];
+        int count = engine.generateMoves(moves);
+        for (int i = 0; i < count; i++) {
+            int[] path = Arrays.copyOf(prefix, prefix.length + 1);
+            path[prefix.length] = moves[i];
+            engine.makeMove(moves[i]);
+            collectPaths(engine, path, length, paths);
+            engine.unmakeMove();
+        }
+    }
+
+    /**
+     * Compte les feuilles à une profondeur donnée dans le fil courant.
+     * @param engine Le moteur, remis dans son état initial au retour.
+     * @param depth La profondeur restante.
+     * @return Le nombre de feuilles.
+     */
+    public long count(GameEngine engine, int depth) {
+        if (depth == 0) return 1;
+        if (engine.isOver()) return 0;
+        check(engine);
+        int[] moves = buffers[depth];
+        int count = engine.generateMoves(moves);
+        // Au dernier niveau, le nombre de mouvements est le nombre de feuilles
+        if (depth == 1 && !verify) return count;
+        long leaves = 0;
+        for (int i = 0; i < count; i++) {
+            engine.makeMove(moves[i]);
+            leaves += count(engine, depth - 1);
+            engine.unmakeMove();
+        }
+        return leaves;
+    }
+
+    /**
+     * En mode vérification, compare les mouvements de GameEngine à ceux obtenus par Board comme dans Game.
+     */
+    private void check(GameEngine engine) {
+        if (!verify || engine.isOver()) return;
+        int[] moves = buffers[0];
+        int count = engine.generateMoves(moves);
+        int[] expected = referenceMoves(engine);
+        int[] actual = Arrays.copyOf(moves, count);
+        Arrays.sort(actual);
+        if (!Arrays.equals(expected, actual)) {
+            throw new IllegalStateException("Mouvements différents pour " + BitBoard.color(engine.getPieceToMove())
+                    + " : attendus " + Arrays.toString(expected) + ", générés " + Arrays.toString(actual) + "\n"
+                    + BoardRenderer.text(engine.getBoard()));
+        }
+    }
+
+    /**
+     * Mouvements distincts du pion à déplacer selon les règles d'origine de Board, réécrites ici sans BitBoard pour
+     * servir d'oracle indépendant : cases en caractères, options de getAvailableMoves (case d'ancrage vide, voisine de
+     * droite ou du dessus vide ou occupée par le pion), puis orientation de calculateNewOrientation, triés.
+     */
+    static int[] referenceMoves(GameEngine engine) {
+        // Cases du plateau d'après les placements : case de droite pour un pion horizontal, du dessus pour un vertical
+        char[] spots = new char[9];
+        Arrays.fill(spots, EMPTY);
+        for (int piece = 0; piece < BitBoard.PIECE_COUNT; piece++) {
+            int placement = engine.getBoard().getPlacement(piece);
+            int position = BitBoard.position(placement);
+            char symbol = BitBoard.color(piece).getSymbol();
+            spots[position] = symbol;
+            spots[BitBoard.isVertical(placement) ? position - 3 : position + 1] = symbol;
+        }
+        char own = BitBoard.color(engine.getPieceToMove()).getSymbol();
+        List<Integer> options = new ArrayList<>();
+        for (int i = 0; i < spots.length; i++) {
+            if (i % 3 < 2 && spots[i] == EMPTY && (spots[i + 1] == EMPTY || spots[i + 1] == own)) {
+                options.add(i);
+            }
+        }
+        for (int i = 3; i < spots.length; i++) {
+            if (spots[i] == EMPTY && (spots[i - 3] == EMPTY || spots[i - 3] == own)) {
+                options.add(i);
+            }
+        }
+        return options.stream()
+                .mapToInt(choix -> {
+                    boolean horizontal = choix % 3 < 2 && free(spots, choix, own) && free(spots, choix + 1, own);
+                    boolean vertical = choix >= 3 && free(spots, choix - 3, own) && free(spots, choix, own);
+                    return BitBoard.encode(choix, !(horizontal && !vertical));
+                })
+                .distinct()
+                .sorted()
+                .toArray();
+    }
+
+    /**
+     * Case vide ou occupée par le pion, comme isEmpty ou isPionSpot dans Board.
+     */
+    private static boolean free(char[] spots, int position, char own) {
+        return spots[position] == EMPTY || spots[position] == own;
+    }
+}
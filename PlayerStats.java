@@ -0,0 +1,310 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Statistiques persistantes des joueurs et classement tenu à jour partie par partie.
+ * Un dossier contient deux fichiers en ajout seul : joueurs.txt, un nom par ligne dont le rang est le numéro du
+ * joueur, et resultats.bin, un enregistrement de RECORD_BYTES octets par partie terminée (instant en secondes,
+ * numéros des deux joueurs, scores, issue de checkWinCondition). À l'ouverture, les résultats sont relus d'une traite
+ * pour reconstruire les compteurs et les classements Elo de chaque joueur ; une fin de fichier incomplète, laissée
+ * par une interruption pendant l'écriture, est abandonnée.
+ * Le classement Elo est mis à jour après chaque partie (facteur K_FACTOR), dans l'ordre du fichier : contrairement à
+ * EloRatings, il dépend de l'ordre des parties, mais une partie ne change que deux classements et Leaderboard les
+ * replace en O(log n).
+ */
+public class PlayerStats implements AutoCloseable {
+    public static final String PLAYERS_FILE = "joueurs.txt";
+    public static final String RESULTS_FILE = "resultats.bin";
+    public static final int RECORD_BYTES = 16;
+    private static final double K_FACTOR = 32;
+    // Logarithme naturel du rapport des forces par point Elo : 10^(d/400) = exp(d × NEPER_PER_ELO)
+    private static final double NEPER_PER_ELO = Math.log(10) / 400;
+    private static final GameEngine.Outcome[] OUTCOMES = GameEngine.Outcome.values();
+
+    private final FileChannel names;
+    private final FileChannel results;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> players = new ArrayList<>();
+    private final Leaderboard leaderboard = new Leaderboard();
+    // Compteurs par joueur : classement, parties, victoires, nuls, points marqués
+    private double[] ratings = new double[16];
+    private int[] games = new int[16];
+    private int[] wins = new int[16];
+    private int[] draws = new int[16];
+    private long[] points = new long[16];
+    private long resultCount;
+
+    /**
+     * Ouvre ou crée les statistiques d'un dossier et relit tous les résultats enregistrés.
+     * @param directory Le dossier, créé s'il n'existe pas.
+     * @throws IOException Si les fichiers sont illisibles ou incohérents.
+     */
+    public PlayerStats(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        this.names = FileChannel.open(directory.resolve(PLAYERS_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.results = FileChannel.open(directory.resolve(RESULTS_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            loadNames(directory.resolve(PLAYERS_FILE));
+            loadResults();
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Relit les noms des joueurs ; un dernier nom sans saut de ligne n'a pas été écrit entièrement.
+     */
+    private void loadNames(Path path) throws IOException {
+        byte[] content = Files.readAllBytes(path);
+        int start = 0;
+        for (int i = 0; i < content.length; i++) {
+            if (content[i] == '\n') {
+                String name = new String(content, start, i - start, StandardCharsets.UTF_8);
+                ensureCapacity(players.size() + 1);
+                ids.put(name, players.size());
+                players.add(name);
+                ratings[players.size() - 1] = EloRatings.BASE_RATING;
+                start = i + 1;
+            }
+        }
+        names.truncate(start);
+        names.position(start);
+    }
+
+    /**
+     * Relit tous les résultats, met à jour les compteurs puis construit le classement.
+     */
+    private void loadResults() throws IOException {
+        long complete = results.size() / RECORD_BYTES * RECORD_BYTES;
+        results.truncate(complete);
+        if (complete > 0) {
+            ByteBuffer buffer = results.map(FileChannel.MapMode.READ_ONLY, 0, complete).order(ByteOrder.LITTLE_ENDIAN);
+            while (buffer.hasRemaining()) {
+                buffer.getInt();
+                int player1 = buffer.getInt();
+                int player2 = buffer.getInt();
+                int score1 = buffer.get();
+                int score2 = buffer.get();
+                int outcome = buffer.get();
+                buffer.get();
+                if (player1 < 0 || player1 >= players.size() || player2 < 0 || player2 >= players.size()
+                        || outcome <= 0 || outcome >= OUTCOMES.length) {
+                    throw new IOException("Résultat " + resultCount + " invalide dans " + RESULTS_FILE);
+                }
+                apply(player1, player2, score1, score2, OUTCOMES[outcome]);
+            }
+        }
+        results.position(complete);
+        for (int player = 0; player < players.size(); player++) {
+            leaderboard.add(player, ratings[player]);
+        }
+    }
+
+    /**
+     * Ajoute un résultat aux compteurs et aux classements Elo des deux joueurs, sans toucher au classement.
+     */
+    private void apply(int player1, int player2, int score1, int score2, GameEngine.Outcome outcome) {
+        double expected = 1 / (1 + Math.exp((ratings[player2] - ratings[player1]) * NEPER_PER_ELO));
+        double actual = outcome.getWinner() == 0 ? 1 : outcome.getWinner() == 1 ? 0 : 0.5;
+        ratings[player1] += K_FACTOR * (actual - expected);
+        ratings[player2] -= K_FACTOR * (actual - expected);
+        games[player1]++;
+        games[player2]++;
+        if (outcome.getWinner() < 0) {
+            draws[player1]++;
+            draws[player2]++;
+        } else {
+            wins[outcome.getWinner() == 0 ? player1 : player2]++;
+        }
+        points[player1] += score1;
+        points[player2] += score2;
+        resultCount++;
+    }
+
+    /**
+     * Enregistre une partie terminée et met à jour le classement des deux joueurs.
+     * @param player1 Le nom du joueur 1.
+     * @param player2 Le nom du joueur 2, différent du joueur 1.
+     * @param score1 Le score du joueur 1.
+     * @param score2 Le score du joueur 2.
+     * @param outcome L'issue de la partie.
+     * @throws IOException Si l'écriture échoue.
+     */
+    public synchronized void record(String player1, String player2, int score1, int score2, GameEngine.Outcome outcome)
+            throws IOException {
+        if (outcome == GameEngine.Outcome.IN_PROGRESS) {
+            throw new IllegalArgumentException("La partie n'est pas terminée.");
+        }
+        int id1 = playerId(player1);
+        int id2 = playerId(player2);
+        if (id1 == id2) {
+            throw new IllegalArgumentException("Un joueur ne peut pas jouer contre lui-même : " + player1);
+        }
+        record.clear();
+        record.putInt((int) (System.currentTimeMillis() / 1000)).putInt(id1).putInt(id2)
+                .put((byte) score1).put((byte) score2).put((byte) outcome.ordinal()).put((byte) 0).flip();
+        while (record.hasRemaining()) results.write(record);
+        apply(id1, id2, score1, score2, outcome);
+        leaderboard.update(id1, ratings[id1]);
+        leaderboard.update(id2, ratings[id2]);
+    }
+
+    /**
+     * Méthode pour savoir si un nom peut identifier un joueur : non vide et tenant sur une ligne de joueurs.txt.
+     * @param name Le nom du joueur.
+     * @return Vrai si le nom peut être enregistré.
+     */
+    public static boolean isValidName(String name) {
+        return !name.isEmpty() && name.indexOf('\n') < 0 && name.indexOf('\r') < 0;
+    }
+
+    /**
+     * Numéro d'un joueur, ajouté à joueurs.txt s'il est nouveau.
+     */
+    private int playerId(String name) throws IOException {
+        Integer id = ids.get(name);
+        if (id != null) return id;
+        if (!isValidName(name)) {
+            throw new IllegalArgumentException("Nom de joueur invalide : \"" + name + "\"");
+        }
+        ByteBuffer line = ByteBuffer.wrap((name + "\n").getBytes(StandardCharsets.UTF_8));
+        while (line.hasRemaining()) names.write(line);
+        int player = players.size();
+        ensureCapacity(player + 1);
+        ids.put(name, player);
+        players.add(name);
+        ratings[player] = EloRatings.BASE_RATING;
+        leaderboard.add(player, ratings[player]);
+        return player;
+    }
+
+    private void ensureCapacity(int count) {
+        if (count <= ratings.length) return;
+        int capacity = Math.max(count, ratings.length * 2);
+        ratings = Arrays.copyOf(ratings, capacity);
+        games = Arrays.copyOf(games, capacity);
+        wins = Arrays.copyOf(wins, capacity);
+        draws = Arrays.copyOf(draws, capacity);
+        points = Arrays.copyOf(points, capacity);
+    }
+
+    /**
+     * Méthode pour obtenir le rang d'un joueur.
+     * @param name Le nom du joueur.
+     * @return Le rang, 1 pour le meilleur joueur, ou -1 si le joueur est inconnu.
+     */
+    public synchronized int rank(String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : leaderboard.rank(id);
+    }
+
+    /**
+     * Méthode pour obtenir les meilleurs joueurs.
+     * @param count Le nombre de joueurs voulus.
+     * @return Les noms des joueurs, du premier au plus count-ième.
+     */
+    public synchronized List<String> top(int count) {
+        int n = Math.min(count, leaderboard.size());
+        List<String> top = new ArrayList<>(n);
+        for (int rank = 1; rank <= n; rank++) {
+            top.add(players.get(leaderboard.select(rank)));
+        }
+        return top;
+    }
+
+    /**
+     * Méthode pour obtenir le classement Elo d'un joueur.
+     * @param name Le nom du joueur.
+     * @return Le classement, BASE_RATING pour un joueur inconnu.
+     */
+    public synchronized double getRating(String name) {
+        Integer id = ids.get(name);
+        return id == null ? EloRatings.BASE_RATING : ratings[id];
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de parties enregistrées.
+     * @return Le nombre de parties.
+     */
+    public synchronized long getResultCount() {
+        return resultCount;
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de joueurs connus.
+     * @return Le nombre de joueurs.
+     */
+    public synchronized int getPlayerCount() {
+        return players.size();
+    }
+
+    /**
+     * Décrit les statistiques d'un joueur sur une ligne.
+     * @param name Le nom du joueur.
+     * @return La description, ou null si le joueur est inconnu.
+     */
+    public synchronized String describe(String name) {
+        Integer id = ids.get(name);
+        if (id == null) return null;
+        int losses = games[id] - wins[id] - draws[id];
+        return String.format("%5d  %-20s %7.1f  %d parties : %d victoires, %d nuls, %d défaites, %.1f points par partie",
+                leaderboard.rank(id), name, ratings[id], games[id], wins[id], draws[id], losses,
+                games[id] == 0 ? 0.0 : (double) points[id] / games[id]);
+    }
+
+    /**
+     * Ferme les fichiers ; les résultats déjà enregistrés sont forcés sur disque.
+     * @throws IOException Si la fermeture échoue.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try (FileChannel closingNames = names; FileChannel closingResults = results) {
+            if (closingNames.isOpen()) closingNames.force(false);
+            if (closingResults.isOpen()) closingResults.force(false);
+        }
+    }
+
+    /**
+     * Affiche le classement ou les statistiques d'un joueur.
+     * Arguments : dossier [nombre de joueurs, 10 par défaut | nom d'un joueur].
+     * @param args Les arguments de la ligne de commande.
+     * @throws IOException Si les fichiers sont illisibles.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage : java PlayerStats dossier [nombre | joueur]");
+            return;
+        }
+        long start = System.nanoTime();
+        try (PlayerStats stats = new PlayerStats(Paths.get(args[0]))) {
+            double millis = (System.nanoTime() - start) / 1e6;
+            System.out.printf("%d parties, %d joueurs relus en %.1f ms%n", stats.getResultCount(),
+                    stats.getPlayerCount(), millis);
+            String query = args.length > 1 ? args[1] : "10";
+            if (query.chars().allMatch(Character::isDigit)) {
+                for (String name : stats.top(Integer.parseInt(query))) {
+                    System.out.println(stats.describe(name));
+                }
+            } else {
+                String line = stats.describe(query);
+                System.out.println(line == null ? "Joueur inconnu : " + query : line);
+            }
+        }
+    }
+}
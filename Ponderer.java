@@ -0,0 +1,130 @@
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Analyse en arrière-plan pendant qu'un joueur humain choisit son mouvement.
+ * Dès que Game affiche les options numérotées, une recherche MctsAgent démarre sur la position et des estimations
+ * victoire / nul / défaite de chaque option sont affichées au fil de la recherche, à intervalles doublés pour ne pas
+ * noyer la console. La recherche est arrêtée proprement dès que le choix est saisi ; son arbre est gardé et suit
+ * chaque mouvement joué, humain, ordinateur ou pion neutre, pour repartir du sous-arbre au tour suivant.
+ */
+public class Ponderer implements AutoCloseable {
+    // Premier affichage des estimations, puis intervalle doublé à chaque affichage
+    private static final long FIRST_HINT_MILLIS = 500;
+    private static final long MAX_HINT_MILLIS = 8000;
+
+    private final MctsAgent search;
+    private final PrintStream out;
+    private final ScheduledExecutorService printer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "analyse");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final GameEngine position = new GameEngine();
+    private final int[] estimate = new int[3];
+    private final StringBuilder line = new StringBuilder();
+    private List<Integer> options;
+    // Les affichages programmés ne s'exécutent que si l'analyse qui les a programmés est toujours en cours
+    private boolean active;
+    private long analysis;
+
+    /**
+     * Constructeur de la classe Ponderer.
+     * @param threads Le nombre de fils de recherche.
+     * @param capacity Le nombre maximal de nœuds de l'arbre, gardé d'un tour à l'autre.
+     * @param out Le flux où afficher les estimations.
+     */
+    public Ponderer(int threads, int capacity, PrintStream out) {
+        // Le budget ne sert qu'à chooseMove : l'analyse dure jusqu'à stop
+        this.search = new MctsAgent(1000, 0, threads, capacity, System.nanoTime());
+        this.out = out;
+    }
+
+    /**
+     * Démarre l'analyse des options affichées pour le pion à déplacer.
+     * @param engine Le moteur, dans la position où le joueur choisit ; il est copié.
+     * @param options Les positions des options numérotées, dans l'ordre de Board.getAvailableMoves.
+     */
+    public synchronized void start(GameEngine engine, List<Integer> options) {
+        stop();
+        position.copyFrom(engine);
+        this.options = options;
+        active = true;
+        search.startPondering(position);
+        schedule(++analysis, FIRST_HINT_MILLIS);
+    }
+
+    /**
+     * Arrête l'analyse en cours ; les estimations ne sont plus affichées.
+     */
+    public synchronized void stop() {
+        if (!active) return;
+        active = false;
+        search.stopPondering();
+    }
+
+    /**
+     * Suit un mouvement joué, pour reprendre la partie de l'arbre qui le concerne.
+     * @param move Le mouvement codé.
+     */
+    public synchronized void advance(int move) {
+        stop();
+        search.advance(move);
+    }
+
+    /**
+     * Arrête l'analyse, ses fils de recherche et l'affichage des estimations ; l'analyse ne peut plus servir ensuite.
+     */
+    @Override
+    public synchronized void close() {
+        stop();
+        search.close();
+        printer.shutdownNow();
+    }
+
+    private void schedule(long id, long delayMillis) {
+        printer.schedule(() -> print(id, delayMillis), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Affiche les estimations de chaque option si l'analyse id est toujours en cours, puis programme l'affichage suivant.
+     */
+    private synchronized void print(long id, long delayMillis) {
+        if (!active || id != analysis) return;
+        out.println(hints());
+        schedule(id, Math.min(delayMillis * 2, MAX_HINT_MILLIS));
+    }
+
+    /**
+     * Décrit les estimations de chaque option : pourcentages de victoires, nuls et défaites du joueur qui a la main.
+     * @return La ligne d'estimations.
+     */
+    synchronized String hints() {
+        line.setLength(0);
+        line.append("Analyse (").append(search.getPlayouts()).append(" parties simulées) :");
+        for (int i = 0; i < options.size(); i++) {
+            int visits = search.estimate(position.resolveOption(options.get(i)), estimate);
+            line.append("  ").append(i + 1).append(" → ");
+            if (visits == 0) {
+                line.append("?");
+            } else {
+                line.append(String.format("V %d %% N %d %% D %d %%", Math.round(100.0 * estimate[0] / visits),
+                        Math.round(100.0 * estimate[1] / visits), Math.round(100.0 * estimate[2] / visits)));
+            }
+        }
+        return line.toString();
+    }
+
+    /**
+     * Estime l'issue d'une option d'après l'analyse courante.
+     * @param option L'indice de l'option dans la liste passée à start, à partir de 0.
+     * @param result Le tableau recevant les victoires, nuls et défaites du joueur qui a la main.
+     * @return Le nombre de parties simulées après cette option.
+     */
+    public synchronized int estimate(int option, int[] result) {
+        return search.estimate(position.resolveOption(options.get(option)), result);
+    }
+}
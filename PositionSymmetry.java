@@ -0,0 +1,152 @@
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Clés canoniques des positions : deux positions équivalentes au jeu près reçoivent la même clé.
+ * Les symétries exactes du jeu sont l'échange des couleurs rouge et bleu et l'échange des deux joueurs avec leurs
+ * scores : une position est donc décrite du point de vue du joueur qui a la main, comme dans Tablebase
+ * (son pion, le pion adverse, le pion neutre, son score, le score adverse, la phase du tour). Ces symétries ne
+ * déplacent aucune case : un mouvement de la position canonique est le même mouvement dans la position d'origine.
+ * La réflexion haut-bas garde la colonne de droite, mais n'est pas une symétrie du jeu : une case jouable dans les
+ * deux sens donne toujours un pion vertical, ancré sur sa case du bas (Board.calculateNewOrientation), et cette
+ * préférence ne se réfléchit pas. La méthode main le mesure et n'utilise la réflexion que pour le comparatif.
+ */
+public final class PositionSymmetry {
+    // Rangée réfléchie de chaque case : 0 à 2, 3 à 5, 6 à 0...
+    private static final int[] REFLECTED = {6, 7, 8, 3, 4, 5, 0, 1, 2};
+
+    private PositionSymmetry() {
+    }
+
+    /**
+     * Calcule la clé canonique de la position courante : placements du pion du joueur qui a la main, du pion adverse et
+     * du pion neutre (5 bits chacun), phase du tour, puis score du joueur qui a la main et score adverse (6 bits chacun).
+     * Deux positions de même clé ont la même valeur et les mêmes mouvements pour le joueur qui a la main.
+     * @param engine Le moteur de jeu.
+     * @return La clé sur 28 bits.
+     */
+    public static int canonicalKey(GameEngine engine) {
+        BitBoard board = engine.getBoard();
+        int mover = engine.getCurrentPlayer();
+        return board.getPlacement(engine.getPlayerPiece(mover))
+                | board.getPlacement(engine.getPlayerPiece(mover ^ 1)) << 5
+                | board.getPlacement(BitBoard.WHITE) << 10
+                | (engine.isNeutralTurn() ? 1 : 0) << 15
+                | (engine.getScore(mover) & 0x3F) << 16
+                | (engine.getScore(mover ^ 1) & 0x3F) << 22;
+    }
+
+    /**
+     * Réfléchit un placement codé de haut en bas. Un pion vertical garde sa case du bas comme ancrage : la case du
+     * haut réfléchie devient la nouvelle case du bas.
+     * @param placement Le placement codé.
+     * @return Le placement réfléchi.
+     */
+    static int reflect(int placement) {
+        int position = BitBoard.position(placement);
+        if (BitBoard.isVertical(placement)) {
+            return BitBoard.encode(REFLECTED[position - 3], true);
+        }
+        return BitBoard.encode(REFLECTED[position], false);
+    }
+
+    /**
+     * Réfléchit la clé canonique d'une position.
+     */
+    private static int reflectKey(int key) {
+        return reflect(key & 0x1F) | reflect((key >>> 5) & 0x1F) << 5 | reflect((key >>> 10) & 0x1F) << 10
+                | key & ~0x7FFF;
+    }
+
+    /**
+     * Énumère les positions atteignables depuis le départ, pour les deux choix de couleur du joueur 1, et affiche
+     * le rapport entre le nombre de positions et le nombre de classes canoniques.
+     * @param args Non utilisés.
+     */
+    public static void main(String[] args) {
+        Reduction reduction = enumerate();
+        System.out.printf("Positions atteignables : %d%n", reduction.positions);
+        System.out.printf("Classes canoniques (couleurs et joueurs échangés) : %d, réduction %.2f×%n",
+                reduction.classes, (double) reduction.positions / reduction.classes);
+        System.out.printf("Avec la réflexion haut-bas en plus : %d classes (%.2f×), mais les mouvements ne se "
+                        + "réfléchissent pas dans %d classes sur %d : réflexion écartée%n",
+                reduction.reflectedClasses, (double) reduction.positions / reduction.reflectedClasses,
+                reduction.asymmetricClasses, reduction.classes);
+    }
+
+    /**
+     * Résultat de l'énumération de main.
+     */
+    static final class Reduction {
+        long positions;
+        long classes;
+        long reflectedClasses;
+        long asymmetricClasses;
+    }
+
+    /**
+     * Parcourt en largeur les positions atteignables, identifiées par GameEngine.compactKey, et compte leurs classes.
+     * @return Les compteurs de l'énumération.
+     */
+    static Reduction enumerate() {
+        Reduction reduction = new Reduction();
+        Set<Long> seen = new HashSet<>();
+        Set<Integer> classes = new HashSet<>();
+        ArrayDeque<GameEngine> queue = new ArrayDeque<>();
+        for (int piecePlayer1 : new int[] {BitBoard.RED, BitBoard.BLUE}) {
+            GameEngine start = new GameEngine();
+            start.assignPions(piecePlayer1);
+            seen.add(start.compactKey());
+            queue.add(start);
+        }
+        int[] moves = new int[BitBoard.MAX_MOVES];
+        int[] reflectedMoves = new int[BitBoard.MAX_MOVES];
+        GameEngine mirror = new GameEngine();
+        while (!queue.isEmpty()) {
+            GameEngine engine = queue.poll();
+            reduction.positions++;
+            int key = canonicalKey(engine);
+            if (classes.add(key)) {
+                reduction.classes++;
+                if (!engine.isOver() && !movesReflect(engine, mirror, moves, reflectedMoves)) {
+                    reduction.asymmetricClasses++;
+                }
+            }
+            if (engine.isOver()) continue;
+            int count = engine.generateMoves(moves);
+            for (int i = 0; i < count; i++) {
+                GameEngine next = new GameEngine();
+                next.copyFrom(engine);
+                next.applyMove(moves[i]);
+                if (seen.add(next.compactKey())) {
+                    queue.add(next);
+                }
+            }
+        }
+        for (int key : classes) {
+            int reflected = reflectKey(key);
+            if (reflected >= key || !classes.contains(reflected)) reduction.reflectedClasses++;
+        }
+        return reduction;
+    }
+
+    /**
+     * Vérifie si les mouvements de la position réfléchie sont les réflexions des mouvements de la position.
+     */
+    private static boolean movesReflect(GameEngine engine, GameEngine mirror, int[] moves, int[] reflectedMoves) {
+        mirror.copyFrom(engine);
+        BitBoard board = mirror.getBoard();
+        for (int piece = 0; piece < BitBoard.PIECE_COUNT; piece++) {
+            board.setPlacement(piece, reflect(engine.getBoard().getPlacement(piece)));
+        }
+        int count = engine.generateMoves(moves);
+        if (mirror.generateMoves(reflectedMoves) != count) return false;
+        long expected = 0, actual = 0;
+        for (int i = 0; i < count; i++) {
+            expected |= 1L << reflect(moves[i]);
+            actual |= 1L << reflectedMoves[i];
+        }
+        return expected == actual;
+    }
+}
@@ -0,0 +1,26 @@
+import java.util.SplittableRandom;
+
+/**
+ * Agent jouant un mouvement au hasard parmi les mouvements possibles.
+ */
+public class RandomAgent implements Agent {
+    private SplittableRandom random;
+
+    /**
+     * Constructeur de la classe RandomAgent.
+     * @param seed La graine du générateur aléatoire.
+     */
+    public RandomAgent(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public int chooseMove(GameEngine engine, int[] moves, int count) {
+        return moves[random.nextInt(count)];
+    }
+
+    @Override
+    public void reseed(long seed) {
+        random = new SplittableRandom(seed);
+    }
+}
@@ -0,0 +1,93 @@
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Analyse en parallèle d'un fichier de parties enregistrées.
+ * Le fichier projeté en mémoire est découpé en régions commençant chacune au début d'une partie ; chaque fil rejoue
+ * les parties de ses régions sur son propre moteur et remplit ses propres statistiques, fusionnées à la fin.
+ * Les parties sont lues au fil de l'eau dans la projection, sans jamais être chargées en objets.
+ */
+public class ReplayAnalytics {
+    // Régions par fil : assez pour équilibrer la charge quand certaines régions contiennent des parties plus longues
+    private static final int REGIONS_PER_THREAD = 8;
+
+    private final GameRecordReader reader;
+
+    /**
+     * Constructeur de la classe ReplayAnalytics.
+     * @param reader Le lecteur du fichier à analyser.
+     */
+    public ReplayAnalytics(GameRecordReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Point d'entrée de l'analyse.
+     * Arguments : fichier [fils].
+     * @param args Les arguments de la ligne de commande.
+     * @throws Exception Si le fichier est illisible ou si un fil d'analyse échoue.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.out.println("Usage : java ReplayAnalytics fichier [fils]");
+            return;
+        }
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        ReplayAnalytics analytics = new ReplayAnalytics(GameRecordReader.open(Paths.get(args[0])));
+        long start = System.nanoTime();
+        ReplayStats stats = analytics.run(threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%s sur %d fils%n", args[0], threads);
+        stats.print(System.out, seconds);
+    }
+
+    /**
+     * Rejoue toutes les parties du lecteur en parallèle.
+     * @param threads Le nombre de fils.
+     * @return Les statistiques fusionnées.
+     * @throws InterruptedException Si l'attente est interrompue.
+     * @throws ExecutionException Si un fil d'analyse échoue.
+     */
+    public ReplayStats run(int threads) throws InterruptedException, ExecutionException {
+        GameRecordReader[] regions = reader.split(threads * REGIONS_PER_THREAD);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<ReplayStats>> futures = new ArrayList<>();
+            for (int worker = 0; worker < threads; worker++) {
+                int first = worker;
+                futures.add(executor.submit(() -> analyse(regions, first, threads)));
+            }
+            ReplayStats total = new ReplayStats();
+            for (Future<ReplayStats> future : futures) {
+                total.merge(future.get());
+            }
+            return total;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Rejoue les régions d'indices first, first + step, first + 2 * step... dans le fil courant.
+     * @param regions Les régions du fichier.
+     * @param first L'indice de la première région.
+     * @param step L'écart entre deux régions traitées par ce fil.
+     * @return Les statistiques de ces régions.
+     */
+    static ReplayStats analyse(GameRecordReader[] regions, int first, int step) {
+        ReplayStats stats = new ReplayStats();
+        GameEngine engine = new GameEngine();
+        for (int region = first; region < regions.length; region += step) {
+            GameRecordReader games = regions[region];
+            while (games.next()) {
+                stats.record(games, engine);
+            }
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,184 @@
+/**
+ * Statistiques agrégées de parties enregistrées, obtenues en les rejouant.
+ * Chaque fil de ReplayAnalytics remplit sa propre instance ; les instances sont fusionnées à la fin.
+ */
+public class ReplayStats {
+    // Nombre de tours suivis pour l'évolution des scores, comme affichés par Game.updateScores
+    public static final int TRACKED_TURNS = 40;
+    private static final int BOARD_COUNT = Tablebase.PLACEMENT_COUNT * Tablebase.PLACEMENT_COUNT * Tablebase.PLACEMENT_COUNT;
+    private static final int MOVE_CODES = 32;
+    private static final GameEngine.Outcome[] OUTCOMES = GameEngine.Outcome.values();
+
+    // Parties par issue, selon la branche de checkWinCondition ; IN_PROGRESS compte les parties arrêtées par la limite de tours
+    private final long[] outcomes = new long[OUTCOMES.length];
+    // Somme des scores de chaque joueur après chaque tour, et nombre de parties ayant atteint ce tour
+    private final long[][] scoreSums = new long[TRACKED_TURNS][2];
+    private final long[] turnCounts = new long[TRACKED_TURNS];
+    // Fréquence de chaque mouvement par position : plateau (rangs des trois placements), pion à déplacer, mouvement codé
+    private final int[] moveCounts = new int[BOARD_COUNT * BitBoard.PIECE_COUNT * MOVE_CODES];
+    private long games;
+    private long totalTurns;
+    private long totalMoves;
+    // Parties dont l'issue rejouée diffère de l'issue enregistrée
+    private long mismatches;
+
+    /**
+     * Rejoue la partie courante d'un lecteur et l'ajoute aux statistiques.
+     * @param reader Le lecteur, placé sur une partie.
+     * @param engine Un moteur de travail, remis à zéro par cette méthode.
+     */
+    public void record(GameRecordReader reader, GameEngine engine) {
+        engine.reset();
+        engine.assignPions(reader.getPiecePlayer1());
+        BitBoard board = engine.getBoard();
+        int count = reader.getMoveCount();
+        for (int i = 0; i < count; i++) {
+            int move = reader.getMove(i);
+            int piece = engine.getPieceToMove();
+            moveCounts[moveIndex(board, piece, move)]++;
+            boolean playerMove = !engine.isNeutralTurn();
+            engine.applyMove(move);
+            int turn = engine.getTurn() - 1;
+            if (playerMove && turn < TRACKED_TURNS) {
+                scoreSums[turn][0] += engine.getScore(0);
+                scoreSums[turn][1] += engine.getScore(1);
+                turnCounts[turn]++;
+            }
+        }
+        GameEngine.Outcome outcome = engine.getOutcome();
+        if (outcome != reader.getOutcome()) {
+            mismatches++;
+        }
+        outcomes[outcome.ordinal()]++;
+        totalTurns += engine.getTurn();
+        totalMoves += count;
+        games++;
+    }
+
+    private static int moveIndex(BitBoard board, int piece, int move) {
+        int index = Tablebase.placementIndex(board.getPlacement(BitBoard.RED));
+        index = index * Tablebase.PLACEMENT_COUNT + Tablebase.placementIndex(board.getPlacement(BitBoard.BLUE));
+        index = index * Tablebase.PLACEMENT_COUNT + Tablebase.placementIndex(board.getPlacement(BitBoard.WHITE));
+        return (index * BitBoard.PIECE_COUNT + piece) * MOVE_CODES + move;
+    }
+
+    /**
+     * Ajoute les statistiques d'une autre instance à celle-ci.
+     * @param other Les statistiques à ajouter.
+     */
+    public void merge(ReplayStats other) {
+        for (int i = 0; i < outcomes.length; i++) {
+            outcomes[i] += other.outcomes[i];
+        }
+        for (int turn = 0; turn < TRACKED_TURNS; turn++) {
+            scoreSums[turn][0] += other.scoreSums[turn][0];
+            scoreSums[turn][1] += other.scoreSums[turn][1];
+            turnCounts[turn] += other.turnCounts[turn];
+        }
+        for (int i = 0; i < moveCounts.length; i++) {
+            moveCounts[i] += other.moveCounts[i];
+        }
+        games += other.games;
+        totalTurns += other.totalTurns;
+        totalMoves += other.totalMoves;
+        mismatches += other.mismatches;
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de parties rejouées.
+     * @return Le nombre de parties.
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de parties d'une issue donnée.
+     * @param outcome L'issue, IN_PROGRESS pour les parties arrêtées par la limite de tours.
+     * @return Le nombre de parties.
+     */
+    public long getOutcomes(GameEngine.Outcome outcome) {
+        return outcomes[outcome.ordinal()];
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de parties dont l'issue rejouée diffère de l'issue enregistrée.
+     * @return Le nombre de parties incohérentes.
+     */
+    public long getMismatches() {
+        return mismatches;
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de fois qu'un mouvement a été joué dans une position.
+     * @param board Le plateau avant le mouvement.
+     * @param piece Le pion déplacé.
+     * @param move Le mouvement codé.
+     * @return Le nombre de fois.
+     */
+    public int getMoveFrequency(BitBoard board, int piece, int move) {
+        return moveCounts[moveIndex(board, piece, move)];
+    }
+
+    /**
+     * Affiche un rapport lisible des statistiques.
+     * @param out Le flux de sortie.
+     * @param seconds La durée du traitement en secondes.
+     */
+    public void print(java.io.PrintStream out, double seconds) {
+        out.printf("Parties : %d en %.2f s (%.0f parties/s), %.1f tours et %.1f mouvements en moyenne%n",
+                games, seconds, games / seconds, average(totalTurns, games), average(totalMoves, games));
+        out.println("Fins de partie :");
+        for (GameEngine.Outcome outcome : OUTCOMES) {
+            String label = outcome == GameEngine.Outcome.IN_PROGRESS ? "Limite de tours atteinte." : outcome.getMessage();
+            out.printf("  %6.2f %%  %s%n", games == 0 ? 0.0 : 100.0 * outcomes[outcome.ordinal()] / games, label);
+        }
+        if (mismatches > 0) {
+            out.printf("Attention : %d parties dont l'issue rejouée diffère de l'issue enregistrée%n", mismatches);
+        }
+        out.println("Scores moyens après chaque tour (tour : joueur 1 - joueur 2, parties) :");
+        for (int turn = 0; turn < TRACKED_TURNS && turnCounts[turn] > 0; turn++) {
+            out.printf("  %3d : %5.2f - %5.2f  (%d)%n", turn + 1,
+                    average(scoreSums[turn][0], turnCounts[turn]), average(scoreSums[turn][1], turnCounts[turn]), turnCounts[turn]);
+        }
+        printTopMoves(out, 10);
+    }
+
+    /**
+     * Affiche les couples position-mouvement les plus fréquents.
+     */
+    private void printTopMoves(java.io.PrintStream out, int limit) {
+        int distinct = 0;
+        for (int count : moveCounts) {
+            if (count > 0) distinct++;
+        }
+        out.printf("Mouvements les plus joués (%d couples position-mouvement distincts) :%n", distinct);
+        int[] top = new int[limit];
+        java.util.Arrays.fill(top, -1);
+        for (int i = 0; i < moveCounts.length; i++) {
+            if (moveCounts[i] == 0) continue;
+            for (int rank = 0; rank < limit; rank++) {
+                if (top[rank] < 0 || moveCounts[i] > moveCounts[top[rank]]) {
+                    System.arraycopy(top, rank, top, rank + 1, limit - rank - 1);
+                    top[rank] = i;
+                    break;
+                }
+            }
+        }
+        for (int index : top) {
+            if (index < 0) break;
+            int move = index % MOVE_CODES;
+            int piece = index / MOVE_CODES % BitBoard.PIECE_COUNT;
+            int boardIndex = index / MOVE_CODES / BitBoard.PIECE_COUNT;
+            int white = Tablebase.PLACEMENTS[boardIndex % Tablebase.PLACEMENT_COUNT];
+            int blue = Tablebase.PLACEMENTS[boardIndex / Tablebase.PLACEMENT_COUNT % Tablebase.PLACEMENT_COUNT];
+            int red = Tablebase.PLACEMENTS[boardIndex / Tablebase.PLACEMENT_COUNT / Tablebase.PLACEMENT_COUNT];
+            out.printf("  R %s B %s W %s, %s en %s : %d%n", BitBoard.notation(red), BitBoard.notation(blue),
+                    BitBoard.notation(white), BitBoard.color(piece), BitBoard.notation(move), moveCounts[index]);
+        }
+    }
+
+    private static double average(long total, long count) {
+        return count == 0 ? 0.0 : (double) total / count;
+    }
+}
@@ -0,0 +1,252 @@
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Validation en lot de scripts de parties, tels qu'on les donne à Game sur l'entrée standard : la couleur du
+ * joueur 1 (R ou B), puis les numéros des options choisies à chaque déplacement, pion neutre compris.
+ * Les jetons sont séparés par des blancs quelconques et chaque R ou B commence une nouvelle partie : un fichier
+ * peut donc contenir une partie par ligne comme une suite de scripts d'une ligne par jeton. Une ligne commençant
+ * par # est un commentaire.
+ * Chaque choix est vérifié contre les options numérotées de GameEngine.generateOptions, qui sont celles de
+ * Board.getAvailableMoves dans le même ordre, sans affichage du plateau ni Scanner : le flux est lu octet par octet.
+ * Une partie est rejetée au premier choix invalide, avec son tour et le rang du coup dans le script ; sinon elle est
+ * terminée (scores et issue de checkWinCondition) ou incomplète si le script s'arrête avant la fin.
+ */
+public class ScriptValidator {
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final GameEngine.Outcome[] OUTCOMES = GameEngine.Outcome.values();
+    // Codes des jetons lus par nextToken, en plus des nombres positifs
+    private static final int END = -1;
+    private static final int RED = -2;
+    private static final int BLUE = -3;
+    private static final int INVALID = -4;
+
+    private final GameEngine engine = new GameEngine();
+    private final int[] options = new int[BitBoard.MAX_MOVES];
+    private final byte[] buffer = new byte[BUFFER_BYTES];
+    private final StringBuilder line = new StringBuilder();
+    private final boolean errorsOnly;
+    private InputStream in;
+    private int position;
+    private int limit;
+    private int lastByte = '\n';
+
+    // Parties par issue (IN_PROGRESS compte les parties incomplètes) et parties rejetées
+    private final long[] outcomes = new long[OUTCOMES.length];
+    private long games;
+    private long rejected;
+    private long moves;
+
+    /**
+     * Constructeur de la classe ScriptValidator.
+     * @param errorsOnly Vrai pour n'afficher que les parties rejetées.
+     */
+    public ScriptValidator(boolean errorsOnly) {
+        this.errorsOnly = errorsOnly;
+    }
+
+    /**
+     * Point d'entrée du validateur.
+     * Arguments : [fichier, ou - pour l'entrée standard] [erreurs].
+     * @param args Les arguments de la ligne de commande.
+     * @throws IOException Si le fichier est illisible.
+     */
+    public static void main(String[] args) throws IOException {
+        boolean standardInput = args.length == 0 || args[0].equals("-");
+        boolean errorsOnly = args.length > 1 && args[1].equals("erreurs");
+        PrintStream out = new PrintStream(new BufferedOutputStream(System.out, BUFFER_BYTES), false, "UTF-8");
+        ScriptValidator validator = new ScriptValidator(errorsOnly);
+        long start = System.nanoTime();
+        try (InputStream in = standardInput ? System.in : Files.newInputStream(Paths.get(args[0]))) {
+            validator.validate(in, out);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        validator.print(out, seconds);
+        out.flush();
+    }
+
+    /**
+     * Valide toutes les parties d'un flux et affiche une ligne par partie.
+     * @param in Le flux des scripts, lu jusqu'au bout mais pas fermé.
+     * @param out Le flux de sortie.
+     * @throws IOException Si le flux est illisible.
+     */
+    public void validate(InputStream in, PrintStream out) throws IOException {
+        this.in = in;
+        position = limit = 0;
+        lastByte = '\n';
+        int token = nextToken();
+        while (token != END) {
+            if (token != RED && token != BLUE) {
+                games++;
+                rejected++;
+                line.setLength(0);
+                line.append("partie ").append(games).append(" : rejetée, script sans couleur R ou B au début");
+                out.println(line);
+                token = skipGame();
+                continue;
+            }
+            token = playGame(token == RED ? BitBoard.RED : BitBoard.BLUE, out);
+        }
+    }
+
+    /**
+     * Rejoue une partie jusqu'au prochain R ou B, ou jusqu'à la fin du flux.
+     * @return Le jeton qui suit la partie.
+     */
+    private int playGame(int piecePlayer1, PrintStream out) throws IOException {
+        games++;
+        engine.reset();
+        engine.assignPions(piecePlayer1);
+        int move = 0;
+        int token = nextToken();
+        while (token != END && token != RED && token != BLUE) {
+            move++;
+            int optionCount = engine.generateOptions(options);
+            if (token == INVALID || token == 0 || token > optionCount) {
+                rejected++;
+                line.setLength(0);
+                line.append("partie ").append(games).append(" : rejetée au tour ").append(currentTurn())
+                        .append(", coup ").append(move).append(" : ");
+                if (engine.isOver()) {
+                    line.append("coup après la fin de partie");
+                } else if (token == INVALID) {
+                    line.append("choix non numérique");
+                } else {
+                    line.append("choix ").append(token).append(" sur ").append(optionCount).append(" options pour ")
+                            .append(BitBoard.color(engine.getPieceToMove()));
+                }
+                out.println(line);
+                return skipGame();
+            }
+            engine.applyMove(engine.resolveOption(options[token - 1]));
+            moves++;
+            token = nextToken();
+        }
+        GameEngine.Outcome outcome = engine.getOutcome();
+        outcomes[outcome.ordinal()]++;
+        if (!errorsOnly) {
+            line.setLength(0);
+            line.append("partie ").append(games).append(" : ").append(engine.getScore(0)).append(" - ")
+                    .append(engine.getScore(1)).append(", ")
+                    .append(engine.isOver() ? outcome.getMessage() : "incomplète au tour " + currentTurn() + ".");
+            out.println(line);
+        }
+        return token;
+    }
+
+    /**
+     * Numéro du tour en cours, compté à partir de 1 ; le pion neutre joue dans le tour du joueur qui vient de jouer.
+     */
+    private int currentTurn() {
+        return engine.isNeutralTurn() ? engine.getTurn() : engine.getTurn() + 1;
+    }
+
+    /**
+     * Saute les jetons d'une partie rejetée.
+     * @return Le prochain R ou B, ou END.
+     */
+    private int skipGame() throws IOException {
+        int token = nextToken();
+        while (token != END && token != RED && token != BLUE) {
+            token = nextToken();
+        }
+        return token;
+    }
+
+    /**
+     * Lit le prochain jeton : un nombre positif, RED, BLUE, INVALID ou END. Les commentaires sont sautés.
+     */
+    private int nextToken() throws IOException {
+        int c = read();
+        while (true) {
+            if (c == '#' && lastByte == '\n') {
+                while (c != '\n' && c != -1) c = read();
+            }
+            if (c == -1) return END;
+            if (c > ' ') break;
+            lastByte = c;
+            c = read();
+        }
+        lastByte = c;
+        int token;
+        if (c >= '0' && c <= '9') {
+            long value = 0;
+            while (c >= '0' && c <= '9') {
+                value = Math.min(value * 10 + c - '0', Integer.MAX_VALUE);
+                c = read();
+            }
+            token = (int) value;
+        } else if (c == 'R' || c == 'r') {
+            token = RED;
+            c = read();
+        } else if (c == 'B' || c == 'b') {
+            token = BLUE;
+            c = read();
+        } else {
+            token = INVALID;
+            c = read();
+        }
+        // Un jeton collé à d'autres caractères est invalide, comme "3a" pour Scanner.nextInt
+        if (c > ' ') token = INVALID;
+        while (c > ' ') c = read();
+        lastByte = c == -1 ? '\n' : c;
+        return token;
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de parties lues.
+     * @return Le nombre de parties.
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de parties rejetées.
+     * @return Le nombre de parties rejetées.
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de parties validées avec une issue donnée.
+     * @param outcome L'issue, IN_PROGRESS pour les parties incomplètes.
+     * @return Le nombre de parties.
+     */
+    public long getOutcomeCount(GameEngine.Outcome outcome) {
+        return outcomes[outcome.ordinal()];
+    }
+
+    /**
+     * Affiche le bilan de la validation.
+     * @param out Le flux de sortie.
+     * @param seconds La durée de la validation.
+     */
+    public void print(PrintStream out, double seconds) {
+        out.printf("%d parties, %d rejetées, %d incomplètes, %d coups en %.3f s (%.0f parties/s)%n",
+                games, rejected, outcomes[GameEngine.Outcome.IN_PROGRESS.ordinal()], moves, seconds, games / seconds);
+        for (GameEngine.Outcome outcome : OUTCOMES) {
+            if (outcome != GameEngine.Outcome.IN_PROGRESS && outcomes[outcome.ordinal()] > 0) {
+                out.printf("  %-8d %s%n", outcomes[outcome.ordinal()], outcome.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Simulateur de parties automatiques en parallèle.
+ * Chaque fil possède son propre moteur et ses propres agents ; seules les statistiques sont fusionnées à la fin.
+ * Les agents alternent le rôle du joueur 1 et le joueur 1 alterne entre le rouge et le bleu.
+ * Les agents repartent d'une graine tirée de l'indice de chaque partie : avec des agents qui ne dépendent que de leur
+ * graine (random, greedy), les totaux sont les mêmes quel que soit le nombre de fils.
+ */
+public class Simulation {
+    private final String[] agents;
+    private final int maxTurns;
+    private final long seed;
+    // Enregistrement facultatif des parties jouées
+    private GameRecordWriter recorder;
+
+    /**
+     * Constructeur de la classe Simulation.
+     * @param agent1 La description du premier agent (voir Agent.create).
+     * @param agent2 La description du second agent.
+     * @param maxTurns Le nombre maximal de tours de joueur avant d'arrêter une partie.
+     * @param seed La graine de la simulation.
+     */
+    public Simulation(String agent1, String agent2, int maxTurns, long seed) {
+        this.agents = new String[] {agent1, agent2};
+        this.maxTurns = maxTurns;
+        this.seed = seed;
+    }
+
+    /**
+     * Méthode pour enregistrer les parties jouées.
+     * @param recorder L'enregistreur, partagé par tous les fils, ou null pour ne rien enregistrer.
+     */
+    public void setRecorder(GameRecordWriter recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Point d'entrée du simulateur.
+     * Arguments : [parties] [agent1] [agent2] [fils] [graine] [limite de tours] [fichier d'enregistrement].
+     * Les mesures de GameMetrics sont publiées par JMX et affichées à la fin.
+     * @param args Les arguments de la ligne de commande.
+     * @throws Exception Si un fil de simulation échoue.
+     */
+    public static void main(String[] args) throws Exception {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        String agent1 = args.length > 1 ? args[1] : "random";
+        String agent2 = args.length > 2 ? args[2] : "greedy";
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 42;
+        int maxTurns = args.length > 5 ? Integer.parseInt(args[5]) : 1000;
+
+        GameMetrics.register();
+        // -Dmesures=secondes affiche les mesures à intervalle régulier pendant la simulation
+        long dumpPeriod = Long.getLong("mesures", 0);
+        if (dumpPeriod > 0) {
+            GameMetrics.startPeriodicDump(System.out, dumpPeriod);
+        }
+        Simulation simulation = new Simulation(agent1, agent2, maxTurns, seed);
+        GameRecordWriter recorder = args.length > 6 ? GameRecordWriter.create(Paths.get(args[6])) : null;
+        simulation.setRecorder(recorder);
+        long start = System.nanoTime();
+        SimulationStats stats = simulation.run(games, threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if (recorder != null) {
+            recorder.close();
+        }
+        System.out.printf("%s contre %s sur %d fils%n", agent1, agent2, threads);
+        stats.print(System.out, simulation.agents, seconds);
+        System.out.println(GameMetrics.getInstance().snapshot());
+    }
+
+    /**
+     * Joue une série de parties réparties entre plusieurs fils.
+     * @param games Le nombre de parties.
+     * @param threads Le nombre de fils.
+     * @return Les statistiques fusionnées.
+     * @throws InterruptedException Si l'attente est interrompue.
+     * @throws ExecutionException Si un fil de simulation échoue.
+     */
+    public SimulationStats run(long games, int threads) throws InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<SimulationStats>> futures = new ArrayList<>();
+            long chunk = (games + threads - 1) / threads;
+            for (int worker = 0; worker < threads; worker++) {
+                long first = worker * chunk;
+                long last = Math.min(games, first + chunk);
+                if (first >= last) break;
+                futures.add(executor.submit(() -> play(first, last)));
+            }
+            SimulationStats total = new SimulationStats(maxTurns);
+            for (Future<SimulationStats> future : futures) {
+                total.merge(future.get());
+            }
+            return total;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Joue les parties d'indices first (inclus) à last (exclu) dans le fil courant.
+     * @param first L'indice de la première partie.
+     * @param last L'indice suivant la dernière partie.
+     * @return Les statistiques de ces parties.
+     */
+    SimulationStats play(long first, long last) {
+        Agent[] workerAgents = {
+                Agent.create(agents[0], seed * 31 + first),
+                Agent.create(agents[1], seed * 37 + first)
+        };
+        GameEngine engine = new GameEngine();
+        int[] moves = new int[BitBoard.MAX_MOVES];
+        SimulationStats stats = new SimulationStats(maxTurns);
+        // Deux mouvements au plus par tour : celui du joueur et celui du pion neutre
+        if (recorder != null && 2 * maxTurns > GameRecord.MAX_MOVES) {
+            throw new IllegalArgumentException("Limite de tours trop grande pour l'enregistrement : " + maxTurns);
+        }
+        byte[] record = recorder == null ? null : new byte[2 * maxTurns];
+        try {
+            for (long game = first; game < last; game++) {
+                int firstAgentPlayer = (int) (game & 1);
+                int piecePlayer1 = ((game >> 1) & 1) == 0 ? BitBoard.RED : BitBoard.BLUE;
+                engine.reset();
+                engine.assignPions(piecePlayer1);
+                workerAgents[0].reseed(seed * 31 + game);
+                workerAgents[1].reseed(seed * 37 + game);
+                int recorded = playGame(engine, workerAgents, firstAgentPlayer, moves, maxTurns, record);
+                stats.record(engine, firstAgentPlayer);
+                if (record != null) {
+                    try {
+                        recorder.writeGame(piecePlayer1, engine.getOutcome(), record, recorded);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            }
+        } finally {
+            for (Agent agent : workerAgents) {
+                agent.close();
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Joue une partie jusqu'à sa fin ou jusqu'à la limite de tours.
+     * @param engine Le moteur, remis à zéro et couleurs assignées.
+     * @param agents Les deux agents.
+     * @param firstAgentPlayer L'indice du joueur tenu par le premier agent.
+     * @param moves Un tampon d'au moins BitBoard.MAX_MOVES cases.
+     * @param maxTurns Le nombre maximal de tours de joueur.
+     * @param record Le tampon recevant les mouvements joués, un par octet, ou null pour ne pas les garder.
+     * @return Le nombre de mouvements joués.
+     */
+    static int playGame(GameEngine engine, Agent[] agents, int firstAgentPlayer, int[] moves, int maxTurns, byte[] record) {
+        int played = 0;
+        while (!engine.isOver() && engine.getTurn() < maxTurns) {
+            int count = engine.generateMoves(moves);
+            Agent agent = agents[engine.getCurrentPlayer() == firstAgentPlayer ? 0 : 1];
+            long start = System.nanoTime();
+            int move = agent.chooseMove(engine, moves, count);
+            GameMetrics.AGENT_CHOICE.stop(start);
+            engine.applyMove(move);
+            if (record != null) {
+                record[played] = (byte) move;
+            }
+            played++;
+        }
+        return played;
+    }
+}
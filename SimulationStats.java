@@ -0,0 +1,145 @@
+/**
+ * Statistiques agrégées d'une série de parties automatiques.
+ * Chaque fil de simulation remplit sa propre instance ; les instances sont fusionnées à la fin.
+ */
+public class SimulationStats {
+    // Issues comptées par partie
+    public static final int PLAYER1_WIN = 0;
+    public static final int PLAYER2_WIN = 1;
+    public static final int DRAW_NO_MOVE = 2;
+    public static final int TURN_LIMIT = 3;
+
+    // Issues par couleur choisie par le joueur 1 dans Game.assignPions (0 : rouge, 1 : bleu)
+    private final long[][] outcomesByColor = new long[2][4];
+    // Victoires de chaque agent (0 : premier agent, 1 : second agent)
+    private final long[] agentWins = new long[2];
+    // Victoires par la règle des 6 points (l'adversaire a atteint 12 trop tôt)
+    private long underSixWins;
+    // Répartition des longueurs de partie, en tours de joueur
+    private final long[] lengths;
+    private long games;
+    private long totalTurns;
+
+    /**
+     * Constructeur de la classe SimulationStats.
+     * @param maxTurns La limite de tours d'une partie, qui borne l'histogramme des longueurs.
+     */
+    public SimulationStats(int maxTurns) {
+        this.lengths = new long[maxTurns + 1];
+    }
+
+    /**
+     * Enregistre le résultat d'une partie.
+     * @param engine Le moteur à la fin de la partie (terminée ou arrêtée par la limite de tours).
+     * @param firstAgentPlayer L'indice du joueur tenu par le premier agent.
+     */
+    public void record(GameEngine engine, int firstAgentPlayer) {
+        int color = engine.getPlayerPiece(0) == BitBoard.RED ? 0 : 1;
+        GameEngine.Outcome outcome = engine.getOutcome();
+        int result;
+        if (outcome == GameEngine.Outcome.IN_PROGRESS) {
+            result = TURN_LIMIT;
+        } else if (outcome.getWinner() < 0) {
+            result = DRAW_NO_MOVE;
+        } else {
+            result = outcome.getWinner() == 0 ? PLAYER1_WIN : PLAYER2_WIN;
+            agentWins[outcome.getWinner() == firstAgentPlayer ? 0 : 1]++;
+            if (outcome == GameEngine.Outcome.PLAYER1_WINS_UNDER_SIX || outcome == GameEngine.Outcome.PLAYER2_WINS_UNDER_SIX) {
+                underSixWins++;
+            }
+        }
+        outcomesByColor[color][result]++;
+        lengths[Math.min(engine.getTurn(), lengths.length - 1)]++;
+        totalTurns += engine.getTurn();
+        games++;
+    }
+
+    /**
+     * Ajoute les statistiques d'une autre instance à celle-ci.
+     * @param other Les statistiques à ajouter.
+     */
+    public void merge(SimulationStats other) {
+        for (int color = 0; color < 2; color++) {
+            for (int result = 0; result < 4; result++) {
+                outcomesByColor[color][result] += other.outcomesByColor[color][result];
+            }
+            agentWins[color] += other.agentWins[color];
+        }
+        for (int i = 0; i < lengths.length && i < other.lengths.length; i++) {
+            lengths[i] += other.lengths[i];
+        }
+        underSixWins += other.underSixWins;
+        games += other.games;
+        totalTurns += other.totalTurns;
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de parties enregistrées.
+     * @return Le nombre de parties.
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de victoires d'un agent.
+     * @param agent L'indice de l'agent (0 ou 1).
+     * @return Le nombre de victoires.
+     */
+    public long getAgentWins(int agent) {
+        return agentWins[agent];
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de parties d'une issue donnée selon la couleur du joueur 1.
+     * @param color 0 si le joueur 1 a choisi le rouge, 1 pour le bleu.
+     * @param result L'issue (PLAYER1_WIN, PLAYER2_WIN, DRAW_NO_MOVE ou TURN_LIMIT).
+     * @return Le nombre de parties.
+     */
+    public long getOutcomes(int color, int result) {
+        return outcomesByColor[color][result];
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de parties d'une longueur donnée.
+     * @param turns La longueur en tours de joueur ; la dernière case compte aussi les parties plus longues.
+     * @return Le nombre de parties.
+     */
+    public long getLengthCount(int turns) {
+        return lengths[turns];
+    }
+
+    /**
+     * Affiche un rapport lisible des statistiques.
+     * @param out Le flux de sortie.
+     * @param agents Les descriptions des deux agents.
+     * @param seconds La durée de la simulation en secondes.
+     */
+    public void print(java.io.PrintStream out, String[] agents, double seconds) {
+        out.printf("Parties : %d en %.2f s (%.0f parties/s), %.1f tours en moyenne%n",
+                games, seconds, games / seconds, games == 0 ? 0.0 : (double) totalTurns / games);
+        for (int agent = 0; agent < 2; agent++) {
+            out.printf("Victoires de %s : %d (%.1f %%)%n", agents[agent], agentWins[agent], percent(agentWins[agent], games));
+        }
+        out.printf("Victoires par la règle des 6 points : %d%n", underSixWins);
+        String[] colors = {"rouge", "bleu"};
+        for (int color = 0; color < 2; color++) {
+            long total = 0;
+            for (long count : outcomesByColor[color]) total += count;
+            long[] row = outcomesByColor[color];
+            out.printf("Joueur 1 %s : joueur 1 %.1f %%, joueur 2 %.1f %%, nul (aucun déplacement) %.1f %%, limite de tours %.1f %%%n",
+                    colors[color], percent(row[PLAYER1_WIN], total), percent(row[PLAYER2_WIN], total),
+                    percent(row[DRAW_NO_MOVE], total), percent(row[TURN_LIMIT], total));
+        }
+        out.println("Longueur des parties (tours : parties) :");
+        for (int i = 0; i < lengths.length; i += 10) {
+            long bucket = 0;
+            for (int j = i; j < i + 10 && j < lengths.length; j++) bucket += lengths[j];
+            if (bucket > 0) out.printf("  %4d-%-4d : %d%n", i, Math.min(i + 9, lengths.length - 1), bucket);
+        }
+    }
+
+    private static double percent(long count, long total) {
+        return total == 0 ? 0.0 : 100.0 * count / total;
+    }
+}
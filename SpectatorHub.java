@@ -0,0 +1,535 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Diffusion des parties en cours à des spectateurs connectés en TCP.
+ * Le fil de jeu ne fait que déposer chaque changement dans une boîte d'entrée sans verrou et réveiller le fil de
+ * diffusion : publier ne bloque jamais, et si la boîte est pleine le changement est abandonné puis tous les spectateurs
+ * sont resynchronisés. Le fil de diffusion tient l'état de chaque partie, code chaque changement une seule fois et en
+ * partage les octets entre les spectateurs, chacun ayant sa file bornée. Un spectateur trop lent pour sa file perd
+ * les changements en attente et reçoit à la place un instantané des parties qu'il regarde.
+ *
+ * Protocole ligne à ligne, en texte ; un placement s'écrit comme BitBoard.notation (position puis H ou V) :
+ * - partie id couleurJoueur1 rouge bleu neutre score1 score2 : état complet d'une partie, à son début ou en instantané ;
+ * - coup id couleur placement score1 score2 : le pion de cette couleur a bougé, avec les scores qui en résultent ;
+ * - fin id message : la partie est terminée ;
+ * - resynchronisation : les lignes partie qui suivent remplacent tout ce que le spectateur savait.
+ * Un spectateur regarde toutes les parties ; il peut envoyer un numéro de partie pour ne regarder qu'elle, ou tout.
+ */
+public class SpectatorHub implements Runnable, AutoCloseable {
+    // Changements en attente dans la boîte d'entrée, et octets en file par spectateur, au-delà desquels on resynchronise
+    private static final int INBOX_CAPACITY = 1 << 16;
+    private static final int MAX_PENDING_BYTES = 64 * 1024;
+    // Changements traités par passage du fil de diffusion, avant d'écrire aux spectateurs et de regarder les sockets
+    private static final int BATCH_UPDATES = 64;
+    private static final int MAX_LINE = 32;
+    private static final long ALL_GAMES = -1;
+    // Types des changements
+    private static final int START = 0;
+    private static final int MOVE = 1;
+    private static final int END = 2;
+
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(1024);
+    private final ConcurrentLinkedQueue<Update> inbox = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inboxSize = new AtomicInteger();
+    // Changements refusés par la boîte d'entrée pleine depuis le dernier passage du fil de diffusion
+    private final AtomicInteger overflow = new AtomicInteger();
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+    // État de chaque partie publiée, tenu par le fil de jeu pour reconstruire le fil de diffusion après un débordement
+    private final Map<Long, Long> published = new ConcurrentHashMap<>();
+    // État de chaque partie tel que diffusé, tenu par le fil de diffusion
+    private final Map<Long, Long> games = new HashMap<>();
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    // Spectateurs dont la file a reçu des lignes pendant ce passage, écrits en une fois à la fin du passage
+    private final List<Subscriber> dirty = new ArrayList<>();
+    private final ByteBuffer[] gather = new ByteBuffer[64];
+    private final StringBuilder text = new StringBuilder();
+    private final StringBuilder batch = new StringBuilder();
+    private volatile boolean running = true;
+    private Thread thread;
+
+    private volatile int subscriberCount;
+    private volatile long updatesBroadcast;
+    private volatile long updatesDropped;
+    private volatile long resyncs;
+
+    /**
+     * Changement publié par le fil de jeu.
+     */
+    private static final class Update {
+        final long game;
+        final int type;
+        final long state;
+        final int piece;
+        final String message;
+
+        Update(long game, int type, long state, int piece, String message) {
+            this.game = game;
+            this.type = type;
+            this.state = state;
+            this.piece = piece;
+            this.message = message;
+        }
+    }
+
+    /**
+     * Constructeur de la classe SpectatorHub ; les spectateurs peuvent se connecter dès la construction.
+     * @param port Le port d'écoute, 0 pour un port libre.
+     * @throws IOException Si le port ne peut pas être ouvert.
+     */
+    public SpectatorHub(int port) throws IOException {
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), 1024);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Code l'état d'une partie sur un entier : placements des pions rouge, bleu et neutre (5 bits chacun), scores
+     * (6 bits chacun) et pion du joueur 1.
+     * @param engine Le moteur de la partie.
+     * @return L'état codé.
+     */
+    static long state(GameEngine engine) {
+        BitBoard board = engine.getBoard();
+        return board.getPlacement(BitBoard.RED)
+                | board.getPlacement(BitBoard.BLUE) << 5
+                | board.getPlacement(BitBoard.WHITE) << 10
+                | (long) (engine.getScore(0) & 0x3F) << 15
+                | (long) (engine.getScore(1) & 0x3F) << 21
+                | (long) engine.getPlayerPiece(0) << 27;
+    }
+
+    /**
+     * Publie le début d'une partie. Appelée par le fil de jeu ; ne bloque jamais.
+     * @param game Le numéro de la partie.
+     * @param engine Le moteur, couleurs attribuées.
+     */
+    public void publishStart(long game, GameEngine engine) {
+        long state = state(engine);
+        published.put(game, state);
+        offer(new Update(game, START, state, -1, null));
+    }
+
+    /**
+     * Publie le mouvement d'un pion et les scores qui en résultent. Appelée par le fil de jeu ; ne bloque jamais.
+     * @param game Le numéro de la partie.
+     * @param engine Le moteur, mouvement appliqué.
+     * @param piece Le pion qui vient de bouger.
+     */
+    public void publishMove(long game, GameEngine engine, int piece) {
+        long state = state(engine);
+        published.put(game, state);
+        offer(new Update(game, MOVE, state, piece, null));
+    }
+
+    /**
+     * Publie la fin d'une partie. Appelée par le fil de jeu ; ne bloque jamais.
+     * @param game Le numéro de la partie.
+     * @param message Le message de fin, tel qu'envoyé aux joueurs.
+     */
+    public void publishEnd(long game, String message) {
+        published.remove(game);
+        offer(new Update(game, END, 0, -1, message));
+    }
+
+    private void offer(Update update) {
+        if (inboxSize.incrementAndGet() > INBOX_CAPACITY) {
+            inboxSize.decrementAndGet();
+            overflow.incrementAndGet();
+        } else {
+            inbox.offer(update);
+        }
+        // Un seul réveil tant que le fil de diffusion n'a pas vidé la boîte
+        if (!wakeupPending.getAndSet(true)) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * Démarre la diffusion sur un fil dédié.
+     * @return Le diffuseur, pour chaîner les appels.
+     */
+    public SpectatorHub start() {
+        thread = new Thread(this, "spectateurs");
+        thread.setDaemon(true);
+        thread.start();
+        return this;
+    }
+
+    /**
+     * Boucle du fil de diffusion : acceptations, commandes des spectateurs, écritures, puis changements publiés.
+     */
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                // Sans attendre tant qu'il reste des changements d'un passage précédent
+                if (inboxSize.get() > 0) {
+                    selector.selectNow();
+                } else {
+                    selector.select();
+                }
+                wakeupPending.set(false);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Subscriber subscriber = (Subscriber) key.attachment();
+                    if (key.isReadable()) read(subscriber);
+                    if (key.isValid() && key.isWritable()) flush(subscriber);
+                }
+                broadcast();
+            }
+        } catch (IOException e) {
+            throw new java.io.UncheckedIOException(e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                closeQuietly(key);
+            }
+            closeQuietly(serverChannel);
+            closeQuietly(selector);
+        }
+    }
+
+    /**
+     * Arrête la diffusion et ferme toutes les connexions.
+     */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Méthode pour obtenir le port d'écoute.
+     * @return Le port effectivement ouvert.
+     */
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de spectateurs connectés.
+     * @return Le nombre de spectateurs.
+     */
+    public int getSubscriberCount() {
+        return subscriberCount;
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de changements diffusés.
+     * @return Le nombre de changements traités par le fil de diffusion.
+     */
+    public long getUpdatesBroadcast() {
+        return updatesBroadcast;
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de changements abandonnés parce que la boîte d'entrée était pleine.
+     * @return Le nombre de changements abandonnés.
+     */
+    public long getUpdatesDropped() {
+        return updatesDropped;
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de resynchronisations envoyées.
+     * @return Le nombre d'instantanés envoyés après un débordement ou un changement de partie regardée.
+     */
+    public long getResyncs() {
+        return resyncs;
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            Subscriber subscriber = new Subscriber(channel);
+            subscriber.key = channel.register(selector, SelectionKey.OP_READ, subscriber);
+            subscribers.add(subscriber);
+            subscriberCount = subscribers.size();
+            replaceOutput(subscriber);
+        }
+    }
+
+    /**
+     * Lit les commandes d'un spectateur : un numéro de partie, ou tout.
+     */
+    private void read(Subscriber subscriber) {
+        readBuffer.clear();
+        int read;
+        try {
+            read = subscriber.channel.read(readBuffer);
+        } catch (IOException e) {
+            read = -1;
+        }
+        if (read < 0) {
+            close(subscriber);
+            return;
+        }
+        readBuffer.flip();
+        while (readBuffer.hasRemaining()) {
+            byte b = readBuffer.get();
+            if (b == '\n') {
+                String command = new String(subscriber.line, 0, subscriber.lineLength, StandardCharsets.US_ASCII).trim();
+                subscriber.lineLength = 0;
+                try {
+                    subscriber.watched = command.equals("tout") ? ALL_GAMES : Long.parseLong(command);
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                resync(subscriber);
+            } else if (b != '\r' && subscriber.lineLength < MAX_LINE) {
+                subscriber.line[subscriber.lineLength++] = b;
+            }
+        }
+    }
+
+    /**
+     * Traite un lot de changements publiés. Chaque changement est codé une fois ; les lignes du lot sont réunies dans
+     * un seul tableau partagé par tous les spectateurs de toutes les parties, tandis qu'un spectateur d'une seule partie
+     * ne reçoit que les lignes de celle-ci. À la fin du lot, chaque spectateur concerné est écrit en une fois.
+     */
+    private void broadcast() {
+        int refused = overflow.getAndSet(0);
+        if (refused > 0) {
+            updatesDropped += refused;
+            // Des changements ont été perdus : ceux qui restent sont plus anciens que l'état publié par le fil de jeu,
+            // qui fait foi. Un changement publié après la copie est repris ensuite, sans dommage puisqu'il est absolu.
+            while (inbox.poll() != null) {
+                inboxSize.decrementAndGet();
+                updatesDropped++;
+            }
+            games.clear();
+            games.putAll(published);
+            for (Subscriber subscriber : subscribers) {
+                resync(subscriber);
+            }
+        }
+        batch.setLength(0);
+        Update update;
+        for (int i = 0; i < BATCH_UPDATES && (update = inbox.poll()) != null; i++) {
+            inboxSize.decrementAndGet();
+            updatesBroadcast++;
+            if (update.type == END) {
+                games.remove(update.game);
+            } else {
+                games.put(update.game, update.state);
+            }
+            text.setLength(0);
+            encode(update);
+            batch.append(text);
+            byte[] bytes = null;
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.watched != update.game) continue;
+                if (bytes == null) bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+                enqueue(subscriber, bytes);
+            }
+        }
+        if (batch.length() > 0) {
+            byte[] bytes = batch.toString().getBytes(StandardCharsets.UTF_8);
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.watched == ALL_GAMES) enqueue(subscriber, bytes);
+            }
+        }
+        for (Subscriber subscriber : dirty) {
+            subscriber.dirty = false;
+            if (subscriber.key.isValid()) flush(subscriber);
+        }
+        dirty.clear();
+    }
+
+    /**
+     * Met des lignes en file pour un spectateur, ou le resynchronise si sa file dépasse sa limite.
+     */
+    private void enqueue(Subscriber subscriber, byte[] bytes) {
+        if (subscriber.pendingBytes + bytes.length > subscriber.limit) {
+            resync(subscriber);
+            return;
+        }
+        subscriber.output.addLast(ByteBuffer.wrap(bytes));
+        subscriber.pendingBytes += bytes.length;
+        markDirty(subscriber);
+    }
+
+    /**
+     * Note qu'un spectateur a des lignes à recevoir ; s'il attend déjà que sa socket se libère, le sélecteur s'en charge.
+     */
+    private void markDirty(Subscriber subscriber) {
+        if (!subscriber.dirty && (subscriber.key.interestOps() & SelectionKey.OP_WRITE) == 0) {
+            subscriber.dirty = true;
+            dirty.add(subscriber);
+        }
+    }
+
+    /**
+     * Resynchronise un spectateur : ses lignes en attente sont remplacées par un instantané des parties qu'il regarde.
+     */
+    private void resync(Subscriber subscriber) {
+        resyncs++;
+        replaceOutput(subscriber);
+    }
+
+    /**
+     * Remplace les lignes en attente d'un spectateur par un instantané des parties qu'il regarde.
+     * Une ligne déjà partiellement envoyée est terminée d'abord, pour ne pas couper le flux au milieu d'une ligne.
+     * L'instantané ne compte pas dans la limite de la file, sans quoi un instantané plus gros que MAX_PENDING_BYTES
+     * provoquerait une resynchronisation à chaque lot.
+     */
+    private void replaceOutput(Subscriber subscriber) {
+        ByteBuffer head = subscriber.output.peekFirst();
+        subscriber.output.clear();
+        subscriber.pendingBytes = 0;
+        if (head != null && head.position() > 0) {
+            subscriber.output.addLast(head);
+            subscriber.pendingBytes = head.limit();
+        }
+        byte[] snapshot = snapshot(subscriber.watched);
+        subscriber.output.addLast(ByteBuffer.wrap(snapshot));
+        subscriber.pendingBytes += snapshot.length;
+        subscriber.limit = subscriber.pendingBytes + MAX_PENDING_BYTES;
+        markDirty(subscriber);
+    }
+
+    /**
+     * Code la ligne resynchronisation suivie de l'état complet des parties regardées.
+     */
+    private byte[] snapshot(long watched) {
+        text.setLength(0);
+        text.append("resynchronisation\n");
+        for (Map.Entry<Long, Long> game : games.entrySet()) {
+            if (watched == ALL_GAMES || watched == game.getKey()) {
+                appendGame(game.getKey(), game.getValue());
+            }
+        }
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Ajoute à text la ligne d'un changement.
+     */
+    private void encode(Update update) {
+        switch (update.type) {
+            case START:
+                appendGame(update.game, update.state);
+                break;
+            case MOVE:
+                text.append("coup ").append(update.game).append(' ').append(BitBoard.color(update.piece)).append(' ')
+                        .append(BitBoard.notation((int) (update.state >>> (5 * update.piece)) & 0x1F)).append(' ')
+                        .append((update.state >>> 15) & 0x3F).append(' ').append((update.state >>> 21) & 0x3F)
+                        .append('\n');
+                break;
+            default:
+                text.append("fin ").append(update.game).append(' ').append(update.message).append('\n');
+        }
+    }
+
+    private void appendGame(long game, long state) {
+        text.append("partie ").append(game).append(' ').append(BitBoard.color((int) (state >>> 27) & 0x3));
+        for (int piece = 0; piece < BitBoard.PIECE_COUNT; piece++) {
+            text.append(' ').append(BitBoard.notation((int) (state >>> (5 * piece)) & 0x1F));
+        }
+        text.append(' ').append((state >>> 15) & 0x3F).append(' ').append((state >>> 21) & 0x3F).append('\n');
+    }
+
+    /**
+     * Écrit autant de lignes en file que la socket en accepte, plusieurs tampons par appel système.
+     */
+    private void flush(Subscriber subscriber) {
+        try {
+            while (!subscriber.output.isEmpty()) {
+                int count = 0;
+                for (ByteBuffer buffer : subscriber.output) {
+                    if (count == gather.length) break;
+                    gather[count++] = buffer;
+                }
+                subscriber.channel.write(gather, 0, count);
+                boolean full = gather[count - 1].hasRemaining();
+                Arrays.fill(gather, 0, count, null);
+                while (!subscriber.output.isEmpty() && !subscriber.output.peekFirst().hasRemaining()) {
+                    subscriber.pendingBytes -= subscriber.output.pollFirst().limit();
+                }
+                if (full) break;
+            }
+        } catch (IOException e) {
+            close(subscriber);
+            return;
+        }
+        if (subscriber.key.isValid()) {
+            subscriber.key.interestOps(subscriber.output.isEmpty()
+                    ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        subscriberCount = subscribers.size();
+        closeQuietly(subscriber.key);
+    }
+
+    private static void closeQuietly(SelectionKey key) {
+        key.cancel();
+        closeQuietly(key.channel());
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // Rien à faire : la connexion est perdue de toute façon
+        }
+    }
+
+    /**
+     * Connexion d'un spectateur : partie regardée, commande en cours de lecture, changements en attente d'envoi.
+     */
+    private static final class Subscriber {
+        final SocketChannel channel;
+        SelectionKey key;
+        final byte[] line = new byte[MAX_LINE];
+        int lineLength;
+        long watched = ALL_GAMES;
+        // Les octets de chaque changement sont partagés par tous les spectateurs ; seule une vue est mise en file
+        final ArrayDeque<ByteBuffer> output = new ArrayDeque<>(8);
+        int pendingBytes;
+        int limit = MAX_PENDING_BYTES;
+        boolean dirty;
+
+        Subscriber(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+}
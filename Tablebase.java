@@ -0,0 +1,218 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Table de finales couvrant toutes les positions du jeu, lue par projection mémoire.
+ * Une position est vue du joueur qui a la main : placement de son pion, placement du pion adverse,
+ * placement du pion neutre, les deux scores et la phase du tour (mouvement du joueur ou du pion neutre).
+ * Chaque entrée occupe deux octets : la valeur (gain, perte, nul) dans les deux bits de poids fort
+ * et la distance à la fin de partie, en demi-coups, dans les quatorze autres.
+ */
+public class Tablebase {
+    // Valeurs possibles d'une entrée, du point de vue du joueur qui a la main
+    public static final int UNKNOWN = 0;
+    public static final int WIN = 1;
+    public static final int LOSS = 2;
+    public static final int DRAW = 3;
+
+    // En-tête du fichier : signature, version et nombre d'entrées
+    static final int MAGIC = 0x33535054; // "3SPT"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 12;
+
+    // Les scores sont bornés : 11 points au plus avant un coup, et au plus 2 points gagnés par coup
+    public static final int SCORE_LIMIT = GameEngine.WINNING_SCORE + 2;
+
+    // Placements valides d'un pion : 6 horizontaux et 6 verticaux
+    static final int[] PLACEMENTS = {
+            0, 1, 3, 4, 6, 7,
+            3 | BitBoard.VERTICAL, 4 | BitBoard.VERTICAL, 5 | BitBoard.VERTICAL,
+            6 | BitBoard.VERTICAL, 7 | BitBoard.VERTICAL, 8 | BitBoard.VERTICAL
+    };
+    static final int PLACEMENT_COUNT = PLACEMENTS.length;
+    private static final int[] PLACEMENT_INDEX = new int[32];
+
+    static {
+        java.util.Arrays.fill(PLACEMENT_INDEX, -1);
+        for (int i = 0; i < PLACEMENT_COUNT; i++) {
+            PLACEMENT_INDEX[PLACEMENTS[i]] = i;
+        }
+    }
+
+    // Nombre total d'entrées de la table
+    public static final int SIZE = 2 * SCORE_LIMIT * SCORE_LIMIT * PLACEMENT_COUNT * PLACEMENT_COUNT * PLACEMENT_COUNT;
+
+    private final ByteBuffer entries;
+
+    /**
+     * Constructeur de la classe Tablebase à partir des entrées déjà chargées.
+     * @param entries Le tampon contenant les entrées, positionné au début de la première entrée.
+     */
+    Tablebase(ByteBuffer entries) {
+        this.entries = entries.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Projette un fichier de table en mémoire.
+     * @param path Le chemin du fichier écrit par TablebaseSolver.
+     * @return La table chargée.
+     * @throws IOException Si le fichier est illisible ou n'est pas une table valide.
+     */
+    public static Tablebase load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                    || buffer.getInt(8) != SIZE || buffer.remaining() != HEADER_SIZE + 2L * SIZE) {
+                throw new IOException("Fichier de table invalide : " + path);
+            }
+            buffer.position(HEADER_SIZE);
+            return new Tablebase(buffer);
+        }
+    }
+
+    /**
+     * Calcule l'indice d'une position.
+     * @param neutralTurn Vrai si le prochain mouvement est celui du pion neutre.
+     * @param moverScore Le score du joueur qui a la main.
+     * @param opponentScore Le score de son adversaire.
+     * @param moverPlacement Le placement codé du pion du joueur qui a la main.
+     * @param opponentPlacement Le placement codé du pion adverse.
+     * @param whitePlacement Le placement codé du pion neutre.
+     * @return L'indice de la position dans la table.
+     */
+    public static int index(boolean neutralTurn, int moverScore, int opponentScore,
+                            int moverPlacement, int opponentPlacement, int whitePlacement) {
+        int index = neutralTurn ? 1 : 0;
+        index = index * SCORE_LIMIT + moverScore;
+        index = index * SCORE_LIMIT + opponentScore;
+        index = index * PLACEMENT_COUNT + PLACEMENT_INDEX[moverPlacement];
+        index = index * PLACEMENT_COUNT + PLACEMENT_INDEX[opponentPlacement];
+        return index * PLACEMENT_COUNT + PLACEMENT_INDEX[whitePlacement];
+    }
+
+    /**
+     * Calcule le rang d'un placement valide parmi PLACEMENTS.
+     * @param placement Le placement codé.
+     * @return Le rang, de 0 à PLACEMENT_COUNT - 1, ou -1 si le placement n'est pas valide.
+     */
+    static int placementIndex(int placement) {
+        return PLACEMENT_INDEX[placement];
+    }
+
+    /**
+     * Calcule l'indice de la position courante d'une partie en cours.
+     * @param engine Le moteur de jeu.
+     * @return L'indice de la position dans la table.
+     */
+    public static int index(GameEngine engine) {
+        BitBoard board = engine.getBoard();
+        int mover = engine.getCurrentPlayer();
+        return index(engine.isNeutralTurn(), engine.getScore(mover), engine.getScore(mover ^ 1),
+                board.getPlacement(engine.getPlayerPiece(mover)),
+                board.getPlacement(engine.getPlayerPiece(mover ^ 1)),
+                board.getPlacement(BitBoard.WHITE));
+    }
+
+    /**
+     * Obtient la valeur d'une entrée.
+     * @param entry L'entrée brute.
+     * @return WIN, LOSS, DRAW ou UNKNOWN.
+     */
+    public static int value(int entry) {
+        return (entry >>> 14) & 3;
+    }
+
+    /**
+     * Obtient la distance à la fin de partie d'une entrée, en demi-coups (mouvements de joueur et de pion neutre).
+     * @param entry L'entrée brute.
+     * @return La distance à la fin de partie.
+     */
+    public static int distance(int entry) {
+        return entry & 0x3FFF;
+    }
+
+    /**
+     * Construit une entrée à partir d'une valeur et d'une distance.
+     * @param value La valeur.
+     * @param distance La distance à la fin de partie.
+     * @return L'entrée brute.
+     */
+    static int entry(int value, int distance) {
+        return (value << 14) | Math.min(distance, 0x3FFF);
+    }
+
+    /**
+     * Lit l'entrée brute d'une position.
+     * @param index L'indice de la position.
+     * @return L'entrée brute.
+     */
+    public int probe(int index) {
+        return entries.getShort(index * 2) & 0xFFFF;
+    }
+
+    /**
+     * Lit l'entrée de la position courante d'une partie, du point de vue du joueur qui a la main.
+     * @param engine Le moteur de jeu, partie en cours.
+     * @return L'entrée brute.
+     */
+    public int probe(GameEngine engine) {
+        return probe(index(engine));
+    }
+
+    /**
+     * Cherche le meilleur mouvement : le gain le plus court, sinon le nul, sinon la perte la plus longue.
+     * @param engine Le moteur de jeu, partie en cours.
+     * @param scratch Un moteur de travail qui sera écrasé.
+     * @param moves Un tampon d'au moins BitBoard.MAX_MOVES cases.
+     * @return Le mouvement codé, ou -1 si aucun mouvement n'est possible.
+     */
+    public int bestMove(GameEngine engine, GameEngine scratch, int[] moves) {
+        int count = engine.generateMoves(moves);
+        int bestMove = -1;
+        int bestScore = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            scratch.copyFrom(engine);
+            scratch.applyMove(moves[i]);
+            int score = scoreFor(scratch, engine.getCurrentPlayer());
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = moves[i];
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * Note une position pour un joueur donné : plus la note est élevée, meilleure est la position.
+     * @param engine Le moteur de jeu.
+     * @param player Le joueur pour lequel noter la position.
+     * @return La note de la position.
+     */
+    private int scoreFor(GameEngine engine, int player) {
+        int value;
+        int distance = 0;
+        if (engine.isOver()) {
+            int winner = engine.getOutcome().getWinner();
+            value = winner < 0 ? DRAW : winner == player ? WIN : LOSS;
+        } else {
+            int entry = probe(engine);
+            value = value(entry);
+            distance = distance(entry);
+            if (engine.getCurrentPlayer() != player && (value == WIN || value == LOSS)) {
+                value = value == WIN ? LOSS : WIN;
+            }
+        }
+        switch (value) {
+            case WIN:
+                return 0x20000 - distance;
+            case LOSS:
+                return distance - 0x20000;
+            default:
+                return 0;
+        }
+    }
+}
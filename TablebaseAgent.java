@@ -0,0 +1,21 @@
+/**
+ * Agent jouant parfaitement à l'aide de la table de finales.
+ * La table projetée en mémoire peut être partagée entre plusieurs agents.
+ */
+public class TablebaseAgent implements Agent {
+    private final Tablebase tablebase;
+    private final GameEngine scratch = new GameEngine();
+
+    /**
+     * Constructeur de la classe TablebaseAgent.
+     * @param tablebase La table de finales.
+     */
+    public TablebaseAgent(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    @Override
+    public int chooseMove(GameEngine engine, int[] moves, int count) {
+        return tablebase.bestMove(engine, scratch, moves);
+    }
+}
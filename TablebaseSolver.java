@@ -0,0 +1,331 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Solveur hors ligne de la table de finales par analyse rétrograde.
+ * Énumère toutes les positions valides, calcule leurs successeurs une seule fois, puis résout les positions
+ * passe par passe : une position résolue à la passe k est à k demi-coups de la fin de partie.
+ * Les positions jamais résolues (cycles de coups sans point) sont nulles.
+ */
+public class TablebaseSolver {
+    // Codes des successeurs terminaux, du point de vue du joueur qui vient de jouer
+    private static final int TERMINAL_WIN = -1;
+    private static final int TERMINAL_LOSS = -2;
+    private static final int TERMINAL_DRAW = -3;
+
+    private final short[] table = new short[Tablebase.SIZE];
+    private final boolean[] valid = new boolean[Tablebase.SIZE];
+    // Successeurs au format compact : pour la position i, successors[offsets[i]] .. successors[offsets[i + 1] - 1]
+    private final int[] offsets = new int[Tablebase.SIZE + 1];
+    private int[] successors = new int[1 << 20];
+
+    private final BitBoard board = new BitBoard();
+    private final int[] moves = new int[BitBoard.MAX_MOVES];
+
+    private int validCount;
+    private int reachableCount;
+    private int passes;
+
+    /**
+     * Point d'entrée du solveur.
+     * @param args Le chemin du fichier de table à écrire (tablebase.bin par défaut).
+     * @throws IOException Si le fichier ne peut pas être écrit.
+     */
+    public static void main(String[] args) throws IOException {
+        Path path = Paths.get(args.length > 0 ? args[0] : "tablebase.bin");
+        TablebaseSolver solver = new TablebaseSolver();
+
+        long start = System.nanoTime();
+        solver.enumerate();
+        long enumerated = System.nanoTime();
+        solver.solve();
+        long solved = System.nanoTime();
+        solver.write(path);
+
+        Runtime runtime = Runtime.getRuntime();
+        double enumerateSeconds = (enumerated - start) / 1e9;
+        System.out.printf("Positions valides : %d (%d atteignables depuis le départ) sur %d entrées%n",
+                solver.validCount, solver.reachableCount, Tablebase.SIZE);
+        System.out.printf("Énumération : %.3f s, %.0f positions/s, %d successeurs%n",
+                enumerateSeconds, solver.validCount / enumerateSeconds, solver.offsets[Tablebase.SIZE]);
+        System.out.printf("Résolution : %d passes en %.3f s%n", solver.passes, (solved - enumerated) / 1e9);
+        System.out.printf("Table : %d octets sur disque ; mémoire du solveur : %d octets de tableaux, %d octets de tas utilisés%n",
+                Files.size(path), solver.footprint(), runtime.totalMemory() - runtime.freeMemory());
+        solver.printSummary();
+    }
+
+    /**
+     * Énumère toutes les positions valides (pions sans chevauchement) et enregistre leurs successeurs.
+     */
+    void enumerate() {
+        int count = 0;
+        for (int index = 0; index < Tablebase.SIZE; index++) {
+            offsets[index] = count;
+            if (!decode(index)) continue;
+            valid[index] = true;
+            validCount++;
+            boolean neutralTurn = index >= Tablebase.SIZE / 2;
+            int moverScore = moverScore(index);
+            int opponentScore = opponentScore(index);
+            int piece = neutralTurn ? BitBoard.WHITE : BitBoard.RED;
+            int moveCount = board.generateMoves(piece, moves);
+            if (successors.length < count + BitBoard.MAX_MOVES + 1) {
+                successors = java.util.Arrays.copyOf(successors, successors.length * 2);
+            }
+            if (moveCount == 0 && neutralTurn) {
+                // Le tour du pion neutre est passé s'il ne peut pas bouger
+                successors[count++] = endTurn(moverScore, opponentScore);
+            }
+            for (int i = 0; i < moveCount; i++) {
+                int redPlacement = board.getPlacement(BitBoard.RED);
+                int whitePlacement = board.getPlacement(BitBoard.WHITE);
+                board.applyMove(piece, moves[i]);
+                if (neutralTurn) {
+                    successors[count++] = endTurn(moverScore, opponentScore);
+                } else {
+                    int newScore = moverScore + board.rightColumnCount(BitBoard.RED);
+                    if (board.hasMoves(BitBoard.WHITE)) {
+                        successors[count++] = index(true, newScore, opponentScore) << 1;
+                    } else {
+                        successors[count++] = endTurn(newScore, opponentScore);
+                    }
+                }
+                board.setPlacement(BitBoard.RED, redPlacement);
+                board.setPlacement(BitBoard.WHITE, whitePlacement);
+            }
+        }
+        offsets[Tablebase.SIZE] = count;
+        reachableCount = countReachable();
+    }
+
+    /**
+     * Termine le tour du joueur qui a la main sur le plateau de travail.
+     * @param moverScore Le score du joueur qui a la main, après son coup.
+     * @param opponentScore Le score de son adversaire.
+     * @return Le code du successeur : issue terminale, ou position de l'adversaire avec le bit de changement de point de vue.
+     */
+    private int endTurn(int moverScore, int opponentScore) {
+        GameEngine.Outcome outcome = GameEngine.checkWinCondition(moverScore, opponentScore);
+        if (outcome != GameEngine.Outcome.IN_PROGRESS) {
+            return outcome.getWinner() == 0 ? TERMINAL_WIN : TERMINAL_LOSS;
+        }
+        if (!board.hasMoves(BitBoard.BLUE)) {
+            return TERMINAL_DRAW;
+        }
+        return (Tablebase.index(false, opponentScore, moverScore, board.getPlacement(BitBoard.BLUE),
+                board.getPlacement(BitBoard.RED), board.getPlacement(BitBoard.WHITE)) << 1) | 1;
+    }
+
+    /**
+     * Calcule l'indice d'une position sans changement de point de vue à partir du plateau de travail.
+     */
+    private int index(boolean neutralTurn, int moverScore, int opponentScore) {
+        return Tablebase.index(neutralTurn, moverScore, opponentScore, board.getPlacement(BitBoard.RED),
+                board.getPlacement(BitBoard.BLUE), board.getPlacement(BitBoard.WHITE));
+    }
+
+    /**
+     * Place les pions d'une position sur le plateau de travail (rouge pour le joueur qui a la main, bleu pour l'adversaire).
+     * @param index L'indice de la position.
+     * @return Faux si les pions se chevauchent ou si les scores sont impossibles.
+     */
+    private boolean decode(int index) {
+        int white = Tablebase.PLACEMENTS[index % Tablebase.PLACEMENT_COUNT];
+        int rest = index / Tablebase.PLACEMENT_COUNT;
+        int opponent = Tablebase.PLACEMENTS[rest % Tablebase.PLACEMENT_COUNT];
+        rest /= Tablebase.PLACEMENT_COUNT;
+        int mover = Tablebase.PLACEMENTS[rest % Tablebase.PLACEMENT_COUNT];
+        int moverFootprint = BitBoard.footprint(mover);
+        int opponentFootprint = BitBoard.footprint(opponent);
+        int whiteFootprint = BitBoard.footprint(white);
+        if ((moverFootprint & opponentFootprint) != 0 || (moverFootprint & whiteFootprint) != 0
+                || (opponentFootprint & whiteFootprint) != 0) {
+            return false;
+        }
+        // Avant le coup d'un joueur, aucun score n'a atteint 12 ; ensuite seul le joueur qui a la main a pu l'atteindre
+        boolean neutralTurn = index >= Tablebase.SIZE / 2;
+        if (opponentScore(index) >= GameEngine.WINNING_SCORE
+                || (!neutralTurn && moverScore(index) >= GameEngine.WINNING_SCORE)) {
+            return false;
+        }
+        board.setPlacement(BitBoard.RED, mover);
+        board.setPlacement(BitBoard.BLUE, opponent);
+        board.setPlacement(BitBoard.WHITE, white);
+        return true;
+    }
+
+    private static int moverScore(int index) {
+        return index / (Tablebase.PLACEMENT_COUNT * Tablebase.PLACEMENT_COUNT * Tablebase.PLACEMENT_COUNT
+                * Tablebase.SCORE_LIMIT) % Tablebase.SCORE_LIMIT;
+    }
+
+    private static int opponentScore(int index) {
+        return index / (Tablebase.PLACEMENT_COUNT * Tablebase.PLACEMENT_COUNT * Tablebase.PLACEMENT_COUNT)
+                % Tablebase.SCORE_LIMIT;
+    }
+
+    /**
+     * Compte les positions atteignables depuis la disposition de départ, pour les deux choix de couleur.
+     * @return Le nombre de positions atteignables.
+     */
+    private int countReachable() {
+        boolean[] seen = new boolean[Tablebase.SIZE];
+        int[] queue = new int[validCount];
+        int head = 0, tail = 0;
+        BitBoard start = new BitBoard();
+        int[] roots = {
+                Tablebase.index(false, 0, 0, start.getPlacement(BitBoard.RED), start.getPlacement(BitBoard.BLUE), start.getPlacement(BitBoard.WHITE)),
+                Tablebase.index(false, 0, 0, start.getPlacement(BitBoard.BLUE), start.getPlacement(BitBoard.RED), start.getPlacement(BitBoard.WHITE))
+        };
+        for (int root : roots) {
+            seen[root] = true;
+            queue[tail++] = root;
+        }
+        while (head < tail) {
+            int index = queue[head++];
+            for (int i = offsets[index]; i < offsets[index + 1]; i++) {
+                if (successors[i] < 0) continue;
+                int child = successors[i] >>> 1;
+                if (!seen[child]) {
+                    seen[child] = true;
+                    queue[tail++] = child;
+                }
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Résout les positions passe par passe jusqu'à ce qu'aucune nouvelle position ne soit résolue.
+     * Les résultats d'une passe ne sont visibles qu'à la passe suivante afin que la distance soit exacte.
+     */
+    void solve() {
+        int[] pending = new int[validCount];
+        int[] pendingEntries = new int[validCount];
+        // Passe 0 : un joueur qui ne peut pas bouger fait match nul
+        for (int index = 0; index < Tablebase.SIZE / 2; index++) {
+            if (valid[index] && offsets[index] == offsets[index + 1]) {
+                table[index] = (short) Tablebase.entry(Tablebase.DRAW, 0);
+            }
+        }
+        int resolved;
+        do {
+            passes++;
+            resolved = 0;
+            for (int index = 0; index < Tablebase.SIZE; index++) {
+                if (!valid[index] || table[index] != 0) continue;
+                int entry = evaluate(index, passes);
+                if (entry != 0) {
+                    pending[resolved] = index;
+                    pendingEntries[resolved++] = entry;
+                }
+            }
+            for (int i = 0; i < resolved; i++) {
+                table[pending[i]] = (short) pendingEntries[i];
+            }
+        } while (resolved > 0);
+        // Les positions restantes tournent en rond sans fin de partie forcée : elles sont nulles
+        for (int index = 0; index < Tablebase.SIZE; index++) {
+            if (valid[index] && table[index] == 0) {
+                table[index] = (short) Tablebase.entry(Tablebase.DRAW, 0);
+            }
+        }
+    }
+
+    /**
+     * Évalue une position à partir des valeurs déjà connues de ses successeurs.
+     * @param index L'indice de la position.
+     * @param pass Le numéro de la passe, qui est aussi la distance à la fin de partie.
+     * @return L'entrée de la position, ou 0 si elle ne peut pas encore être résolue.
+     */
+    private int evaluate(int index, int pass) {
+        boolean allResolved = true;
+        boolean draw = false;
+        for (int i = offsets[index]; i < offsets[index + 1]; i++) {
+            int value = successorValue(successors[i]);
+            if (value == Tablebase.WIN) {
+                return Tablebase.entry(Tablebase.WIN, pass);
+            } else if (value == Tablebase.DRAW) {
+                draw = true;
+            } else if (value == Tablebase.UNKNOWN) {
+                allResolved = false;
+            }
+        }
+        if (!allResolved) return 0;
+        return Tablebase.entry(draw ? Tablebase.DRAW : Tablebase.LOSS, pass);
+    }
+
+    /**
+     * Obtient la valeur d'un successeur du point de vue du joueur qui a la main dans la position parente.
+     * @param successor Le code du successeur.
+     * @return WIN, LOSS, DRAW ou UNKNOWN.
+     */
+    private int successorValue(int successor) {
+        switch (successor) {
+            case TERMINAL_WIN:
+                return Tablebase.WIN;
+            case TERMINAL_LOSS:
+                return Tablebase.LOSS;
+            case TERMINAL_DRAW:
+                return Tablebase.DRAW;
+            default:
+                int value = Tablebase.value(table[successor >>> 1]);
+                if ((successor & 1) != 0 && (value == Tablebase.WIN || value == Tablebase.LOSS)) {
+                    value = value == Tablebase.WIN ? Tablebase.LOSS : Tablebase.WIN;
+                }
+                return value;
+        }
+    }
+
+    /**
+     * Écrit la table : en-tête puis deux octets par position, en petit-boutiste.
+     * @param path Le chemin du fichier.
+     * @throws IOException Si le fichier ne peut pas être écrit.
+     */
+    void write(Path path) throws IOException {
+        try (OutputStream stream = Files.newOutputStream(path);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16))) {
+            out.writeInt(Integer.reverseBytes(Tablebase.MAGIC));
+            out.writeInt(Integer.reverseBytes(Tablebase.VERSION));
+            out.writeInt(Integer.reverseBytes(Tablebase.SIZE));
+            for (short entry : table) {
+                out.writeShort(Short.reverseBytes(entry));
+            }
+        }
+    }
+
+    /**
+     * Calcule la mémoire occupée par les tableaux du solveur.
+     * @return Le nombre d'octets.
+     */
+    long footprint() {
+        return 2L * table.length + valid.length + 4L * offsets.length + 4L * successors.length;
+    }
+
+    /**
+     * Affiche la répartition des valeurs et la valeur des deux positions de départ.
+     */
+    private void printSummary() {
+        int[] counts = new int[4];
+        for (int index = 0; index < Tablebase.SIZE; index++) {
+            if (valid[index]) counts[Tablebase.value(table[index])]++;
+        }
+        System.out.printf("Gains : %d, pertes : %d, nuls : %d%n",
+                counts[Tablebase.WIN], counts[Tablebase.LOSS], counts[Tablebase.DRAW]);
+        BitBoard start = new BitBoard();
+        String[] names = {"rouge", "bleu"};
+        int[][] pieces = {{BitBoard.RED, BitBoard.BLUE}, {BitBoard.BLUE, BitBoard.RED}};
+        for (int i = 0; i < 2; i++) {
+            int entry = table[Tablebase.index(false, 0, 0, start.getPlacement(pieces[i][0]),
+                    start.getPlacement(pieces[i][1]), start.getPlacement(BitBoard.WHITE))] & 0xFFFF;
+            String[] values = {"inconnu", "gain", "perte", "nul"};
+            System.out.printf("Départ avec le pion %s : %s en %d demi-coups%n",
+                    names[i], values[Tablebase.value(entry)], Tablebase.distance(entry));
+        }
+    }
+}
@@ -0,0 +1,454 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tournoi entre plusieurs configurations d'agents, en toutes rondes (chaque paire se rencontre une fois) ou en système
+ * suisse (chaque ronde apparie les agents de points voisins qui ne se sont pas encore rencontrés).
+ * Un match est une série de parties entre deux agents ; les matchs d'une même ronde se jouent en parallèle, chacun
+ * dans un seul fil avec ses propres agents, créés avec une graine tirée de celle du tournoi et du match et fermés à la
+ * fin du match. Les tables de transposition d'alphabeta, hors du tas, sont vidées et reprises d'un match à l'autre.
+ * Comme dans Simulation, les agents alternent le rôle du joueur 1 et le joueur 1 alterne entre le rouge et le bleu
+ * de Game.assignPions : les résultats ne dépendent donc ni du nombre de fils ni de l'ordre d'exécution.
+ * Seuls les agents sans limite de temps (random, greedy, tablebase) jouent exactement les mêmes parties d'une exécution
+ * à l'autre ; alphabeta et mcts s'arrêtent au bout d'une durée et dépendent donc de la charge de la machine.
+ * Chaque match terminé est ajouté au point de reprise ; un tournoi relancé avec le même fichier ne rejoue que les
+ * matchs manquants, et les appariements suisses, calculés à partir des rondes précédentes, sont les mêmes.
+ */
+public class Tournament {
+    private static final String HEADER_PREFIX = "# tournoi ";
+
+    private final String[] agents;
+    private final int gamesPerMatch;
+    private final int maxTurns;
+    private final long seed;
+    // Matchs terminés, indexés par ronde et paire
+    private final Map<String, Match> results = new HashMap<>();
+    private Path checkpoint;
+    private BufferedWriter checkpointWriter;
+    private PrintStream progress;
+    // Parties jouées par cette exécution, hors matchs repris
+    private long gamesPlayed;
+    // Tables de transposition libres, rendues par les matchs terminés
+    private final ConcurrentLinkedQueue<TranspositionTable> tables = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Résultat d'un match, du point de vue du premier agent de la paire.
+     */
+    public static final class Match {
+        final int round;
+        final int a;
+        final int b;
+        long winsA;
+        long winsB;
+        long draws;
+        long turnLimits;
+
+        Match(int round, int a, int b) {
+            this.round = round;
+            this.a = a;
+            this.b = b;
+        }
+
+        /**
+         * Méthode pour obtenir le nombre de parties du match.
+         * @return Le nombre de parties.
+         */
+        public long getGames() {
+            return winsA + winsB + draws + turnLimits;
+        }
+
+        /**
+         * Méthode pour obtenir les points d'un agent du match (victoire 1, nul 0,5).
+         * @param agent L'indice de l'agent, a ou b.
+         * @return Les points.
+         */
+        public double getPoints(int agent) {
+            return (agent == a ? winsA : winsB) + (draws + turnLimits) / 2.0;
+        }
+
+        String toLine() {
+            return round + " " + a + " " + b + " " + winsA + " " + winsB + " " + draws + " " + turnLimits;
+        }
+
+        static Match parse(String line) {
+            String[] fields = line.trim().split(" ");
+            if (fields.length != 7) {
+                throw new IllegalArgumentException("Ligne invalide : " + line);
+            }
+            Match match = new Match(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]), Integer.parseInt(fields[2]));
+            match.winsA = Long.parseLong(fields[3]);
+            match.winsB = Long.parseLong(fields[4]);
+            match.draws = Long.parseLong(fields[5]);
+            match.turnLimits = Long.parseLong(fields[6]);
+            return match;
+        }
+    }
+
+    /**
+     * Constructeur de la classe Tournament.
+     * @param agents Les descriptions des agents (voir Agent.create), au moins deux.
+     * @param gamesPerMatch Le nombre de parties de chaque match ; un multiple de 4 équilibre rôles et couleurs.
+     * @param maxTurns Le nombre maximal de tours de joueur avant d'arrêter une partie, comptée alors comme nulle.
+     * @param seed La graine du tournoi.
+     */
+    public Tournament(String[] agents, int gamesPerMatch, int maxTurns, long seed) {
+        if (agents.length < 2) {
+            throw new IllegalArgumentException("Il faut au moins deux agents.");
+        }
+        this.agents = agents.clone();
+        this.gamesPerMatch = gamesPerMatch;
+        this.maxTurns = maxTurns;
+        this.seed = seed;
+    }
+
+    /**
+     * Point d'entrée du tournoi.
+     * Arguments : tous|suisse[:rondes] parties fils graine point-de-reprise agent1 agent2 [agent...].
+     * @param args Les arguments de la ligne de commande.
+     * @throws Exception Si le point de reprise est illisible ou si un match échoue.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 7) {
+            System.out.println("Usage : java Tournament tous|suisse[:rondes] parties fils graine point-de-reprise agent1 agent2 [agent...]");
+            return;
+        }
+        String[] format = args[0].split(":");
+        int gamesPerMatch = Integer.parseInt(args[1]);
+        int threads = Integer.parseInt(args[2]);
+        long seed = Long.parseLong(args[3]);
+        Tournament tournament = new Tournament(Arrays.copyOfRange(args, 5, args.length), gamesPerMatch, 1000, seed);
+        tournament.setProgress(System.out);
+        tournament.openCheckpoint(Paths.get(args[4]));
+        long start = System.nanoTime();
+        try {
+            if (format[0].equals("suisse")) {
+                tournament.runSwiss(format.length > 1 ? Integer.parseInt(format[1]) : defaultSwissRounds(args.length - 5), threads);
+            } else if (format[0].equals("tous")) {
+                tournament.runRoundRobin(threads);
+            } else {
+                throw new IllegalArgumentException("Format inconnu : " + args[0]);
+            }
+        } finally {
+            tournament.closeCheckpoint();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        tournament.print(System.out, seconds);
+    }
+
+    /**
+     * Nombre de rondes suisses par défaut : assez pour départager un vainqueur, soit le logarithme en base 2
+     * du nombre d'agents arrondi au-dessus.
+     */
+    static int defaultSwissRounds(int agents) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(agents - 1));
+    }
+
+    /**
+     * Méthode pour afficher l'avancement, une ligne par match terminé.
+     * @param progress Le flux d'avancement, ou null pour ne rien afficher.
+     */
+    public void setProgress(PrintStream progress) {
+        this.progress = progress;
+    }
+
+    /**
+     * Ouvre le point de reprise : les matchs déjà enregistrés sont repris et les suivants y sont ajoutés.
+     * Une dernière ligne incomplète, laissée par une interruption pendant l'écriture, est abandonnée.
+     * @param path Le fichier du point de reprise, créé s'il n'existe pas.
+     * @throws IOException Si le fichier est illisible ou ne peut pas être réécrit.
+     */
+    public void openCheckpoint(Path path) throws IOException {
+        String header = header();
+        List<String> lines = new ArrayList<>();
+        lines.add(header);
+        if (Files.exists(path)) {
+            String content = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+            // Seules les lignes terminées par un saut de ligne ont été écrites entièrement
+            String[] complete = content.substring(0, content.lastIndexOf('\n') + 1).split("\n");
+            if (complete.length > 0 && !complete[0].isEmpty() && !complete[0].equals(header)) {
+                throw new IllegalArgumentException("Le point de reprise " + path + " appartient à un autre tournoi : " + complete[0]);
+            }
+            for (int i = 1; i < complete.length; i++) {
+                Match match = Match.parse(complete[i]);
+                results.put(key(match.round, match.a, match.b), match);
+                lines.add(complete[i]);
+            }
+        }
+        // Réécriture atomique sans la ligne incomplète, pour que les ajouts suivants commencent sur une ligne neuve
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(temporary, lines, StandardCharsets.UTF_8);
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        checkpoint = path;
+        checkpointWriter = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Ferme le point de reprise.
+     * @throws IOException Si la fermeture échoue.
+     */
+    public void closeCheckpoint() throws IOException {
+        if (checkpointWriter != null) {
+            checkpointWriter.close();
+            checkpointWriter = null;
+        }
+    }
+
+    private String header() {
+        return HEADER_PREFIX + "parties=" + gamesPerMatch + " limite=" + maxTurns + " graine=" + seed
+                + " agents=" + String.join(",", agents);
+    }
+
+    /**
+     * Joue un tournoi toutes rondes : une seule ronde où chaque paire d'agents se rencontre.
+     * @param threads Le nombre de fils.
+     * @throws InterruptedException Si l'attente est interrompue.
+     * @throws ExecutionException Si un match échoue.
+     */
+    public void runRoundRobin(int threads) throws InterruptedException, ExecutionException {
+        List<int[]> pairs = new ArrayList<>();
+        for (int a = 0; a < agents.length; a++) {
+            for (int b = a + 1; b < agents.length; b++) {
+                pairs.add(new int[] {a, b});
+            }
+        }
+        playRound(0, pairs, threads);
+    }
+
+    /**
+     * Joue un tournoi en système suisse.
+     * @param rounds Le nombre de rondes.
+     * @param threads Le nombre de fils.
+     * @throws InterruptedException Si l'attente est interrompue.
+     * @throws ExecutionException Si un match échoue.
+     */
+    public void runSwiss(int rounds, int threads) throws InterruptedException, ExecutionException {
+        for (int round = 0; round < rounds; round++) {
+            playRound(round, swissPairings(round), threads);
+        }
+    }
+
+    /**
+     * Apparie les agents pour une ronde suisse : dans l'ordre du classement aux points des rondes précédentes,
+     * chaque agent libre rencontre le suivant qu'il n'a pas encore affronté, ou à défaut le suivant tout court.
+     * Avec un nombre impair d'agents, l'agent exempté est le moins bien classé parmi ceux qui l'ont été le moins souvent.
+     */
+    List<int[]> swissPairings(int round) {
+        double[] standings = new double[agents.length];
+        int[] matchesPlayed = new int[agents.length];
+        boolean[][] met = new boolean[agents.length][agents.length];
+        for (Match match : results.values()) {
+            if (match.round >= round) continue;
+            standings[match.a] += match.getPoints(match.a);
+            standings[match.b] += match.getPoints(match.b);
+            matchesPlayed[match.a]++;
+            matchesPlayed[match.b]++;
+            met[match.a][match.b] = met[match.b][match.a] = true;
+        }
+        Integer[] order = new Integer[agents.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparingDouble((Integer agent) -> -standings[agent]).thenComparingInt(agent -> agent));
+
+        boolean[] paired = new boolean[agents.length];
+        if (agents.length % 2 != 0) {
+            // Un agent a été exempté à chaque ronde où il n'a pas joué
+            int bye = order[order.length - 1];
+            for (int i = order.length - 1; i >= 0; i--) {
+                if (matchesPlayed[order[i]] > matchesPlayed[bye]) bye = order[i];
+            }
+            paired[bye] = true;
+        }
+        List<int[]> pairs = new ArrayList<>();
+        for (int i = 0; i < order.length; i++) {
+            int a = order[i];
+            if (paired[a]) continue;
+            int opponent = -1;
+            for (int j = i + 1; j < order.length; j++) {
+                int b = order[j];
+                if (paired[b]) continue;
+                if (opponent < 0) opponent = b;
+                if (!met[a][b]) {
+                    opponent = b;
+                    break;
+                }
+            }
+            paired[a] = paired[opponent] = true;
+            pairs.add(new int[] {Math.min(a, opponent), Math.max(a, opponent)});
+        }
+        return pairs;
+    }
+
+    /**
+     * Joue en parallèle les matchs d'une ronde qui ne sont pas déjà dans le point de reprise.
+     */
+    private void playRound(int round, List<int[]> pairs, int threads) throws InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Match>> futures = new ArrayList<>();
+            for (int[] pair : pairs) {
+                if (results.containsKey(key(round, pair[0], pair[1]))) continue;
+                futures.add(executor.submit(() -> playMatch(round, pair[0], pair[1])));
+            }
+            for (Future<Match> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Joue un match dans le fil courant puis l'enregistre.
+     * @param round L'indice de la ronde.
+     * @param a L'indice du premier agent.
+     * @param b L'indice du second agent.
+     * @return Le résultat du match.
+     */
+    Match playMatch(int round, int a, int b) {
+        long matchSeed = seed * 1_000_003 + ((long) round * agents.length + a) * agents.length + b;
+        List<TranspositionTable> borrowed = new ArrayList<>(2);
+        Agent[] matchAgents = {createAgent(a, matchSeed * 31, borrowed), createAgent(b, matchSeed * 37, borrowed)};
+        GameEngine engine = new GameEngine();
+        int[] moves = new int[BitBoard.MAX_MOVES];
+        Match match = new Match(round, a, b);
+        try {
+            for (int game = 0; game < gamesPerMatch; game++) {
+                int firstAgentPlayer = game & 1;
+                engine.reset();
+                engine.assignPions(((game >> 1) & 1) == 0 ? BitBoard.RED : BitBoard.BLUE);
+                Simulation.playGame(engine, matchAgents, firstAgentPlayer, moves, maxTurns, null);
+                GameEngine.Outcome outcome = engine.getOutcome();
+                if (outcome == GameEngine.Outcome.IN_PROGRESS) {
+                    match.turnLimits++;
+                } else if (outcome.getWinner() < 0) {
+                    match.draws++;
+                } else if (outcome.getWinner() == firstAgentPlayer) {
+                    match.winsA++;
+                } else {
+                    match.winsB++;
+                }
+            }
+        } finally {
+            for (Agent agent : matchAgents) {
+                agent.close();
+            }
+            tables.addAll(borrowed);
+        }
+        record(match);
+        return match;
+    }
+
+    /**
+     * Crée un agent du match ; un agent alphabeta reçoit une table libre, vidée, ou une nouvelle table s'il n'y en a pas.
+     * @param borrowed Les tables prises par le match, à rendre à la fin du match.
+     */
+    private Agent createAgent(int agent, long agentSeed, List<TranspositionTable> borrowed) {
+        TranspositionTable table = null;
+        if (agents[agent].startsWith("alphabeta")) {
+            table = tables.poll();
+            if (table == null) {
+                table = new TranspositionTable(Agent.TABLE_MEGABYTES);
+            } else {
+                table.clear();
+            }
+            borrowed.add(table);
+        }
+        return Agent.create(agents[agent], agentSeed, table);
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de tables de transposition libres, toutes celles allouées entre deux rondes.
+     * @return Le nombre de tables.
+     */
+    int getFreeTables() {
+        return tables.size();
+    }
+
+    private synchronized void record(Match match) {
+        results.put(key(match.round, match.a, match.b), match);
+        gamesPlayed += match.getGames();
+        if (checkpointWriter != null) {
+            try {
+                checkpointWriter.write(match.toLine());
+                checkpointWriter.write('\n');
+                checkpointWriter.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Écriture du point de reprise " + checkpoint + " impossible", e);
+            }
+        }
+        if (progress != null) {
+            progress.printf("Ronde %d : %s - %s  %d-%d-%d%n", match.round + 1, agents[match.a], agents[match.b],
+                    match.winsA, match.winsB, match.draws + match.turnLimits);
+        }
+    }
+
+    private static String key(int round, int a, int b) {
+        return round + ":" + a + ":" + b;
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de parties jouées par cette exécution, hors matchs repris du point de reprise.
+     * @return Le nombre de parties.
+     */
+    public synchronized long getGamesPlayed() {
+        return gamesPlayed;
+    }
+
+    /**
+     * Calcule le classement Elo de tous les matchs terminés, repris ou joués.
+     * @return Les classements.
+     */
+    public synchronized EloRatings ratings() {
+        EloRatings ratings = new EloRatings(agents.length);
+        for (Match match : results.values()) {
+            ratings.addResult(match.a, match.b, match.winsA, match.winsB, match.draws + match.turnLimits);
+        }
+        return ratings;
+    }
+
+    /**
+     * Affiche le classement et le débit de cette exécution.
+     * @param out Le flux de sortie.
+     * @param seconds La durée de cette exécution en secondes.
+     */
+    public synchronized void print(PrintStream out, double seconds) {
+        EloRatings ratings = ratings();
+        double[] points = new double[agents.length];
+        long[] games = new long[agents.length];
+        for (Match match : results.values()) {
+            points[match.a] += match.getPoints(match.a);
+            points[match.b] += match.getPoints(match.b);
+            games[match.a] += match.getGames();
+            games[match.b] += match.getGames();
+        }
+        Integer[] order = new Integer[agents.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparingDouble((Integer agent) -> -ratings.getRating(agent)));
+        out.printf("Parties jouées : %d en %.2f s (%.0f parties/s), %d matchs au total%n",
+                gamesPlayed, seconds, gamesPlayed / seconds, results.size());
+        out.println("Rang  Elo (IC 95 %)       Points        Agent");
+        for (int rank = 0; rank < order.length; rank++) {
+            int agent = order[rank];
+            out.printf("%4d  %6.0f ± %-8.0f  %6.1f/%-6d  %s%n", rank + 1, ratings.getRating(agent), ratings.getError(agent),
+                    points[agent], games[agent], agents[agent]);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Table de transposition de taille fixe, hors du tas Java, partageable entre fils de recherche sans verrou.
+ * Chaque case de 16 octets contient la donnée et la clé combinée par ou exclusif avec la donnée : une lecture
+ * qui mélange deux écritures concurrentes ne se vérifie pas et compte comme un échec, sans jamais renvoyer
+ * une donnée d'une autre position. Chaque seau contient deux cases : la première garde l'entrée la plus
+ * profonde (remplacement par profondeur), la seconde reçoit toujours l'entrée la plus récente.
+ */
+public class TranspositionTable {
+    // Types de borne d'une note
+    public static final int EXACT = 0;
+    public static final int LOWER_BOUND = 1;
+    public static final int UPPER_BOUND = 2;
+    // Valeur renvoyée par probe quand la position n'est pas dans la table (aucune donnée valide n'a le type 3)
+    public static final long MISS = -1L;
+
+    private static final int SLOT_BYTES = 16;
+    private static final int BUCKET_BYTES = 2 * SLOT_BYTES;
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer memory;
+    private final long bucketMask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+
+    /**
+     * Constructeur de la classe TranspositionTable.
+     * @param megabytes La taille de la table en mégaoctets, arrondie à la puissance de deux inférieure.
+     */
+    public TranspositionTable(int megabytes) {
+        long bytes = Long.highestOneBit(Math.max(1, megabytes) * 1024L * 1024L);
+        if (bytes > Integer.MAX_VALUE) {
+            bytes = Integer.highestOneBit(Integer.MAX_VALUE);
+        }
+        this.memory = ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+        this.bucketMask = bytes / BUCKET_BYTES - 1;
+    }
+
+    /**
+     * Regroupe une note, une profondeur, un type de borne et un meilleur coup dans une donnée de 64 bits.
+     * @param score La note.
+     * @param depth La profondeur de recherche (0 à 255).
+     * @param bound Le type de borne (EXACT, LOWER_BOUND ou UPPER_BOUND).
+     * @param move Le meilleur mouvement codé, ou 0xFF s'il n'y en a pas.
+     * @return La donnée.
+     */
+    public static long pack(int score, int depth, int bound, int move) {
+        return (long) score << 32 | (long) (depth & 0xFF) << 10 | (long) bound << 8 | (move & 0xFF);
+    }
+
+    /**
+     * Obtient la note d'une donnée.
+     * @param data La donnée.
+     * @return La note.
+     */
+    public static int score(long data) {
+        return (int) (data >> 32);
+    }
+
+    /**
+     * Obtient la profondeur de recherche d'une donnée.
+     * @param data La donnée.
+     * @return La profondeur.
+     */
+    public static int depth(long data) {
+        return (int) ((data >>> 10) & 0xFF);
+    }
+
+    /**
+     * Obtient le type de borne d'une donnée.
+     * @param data La donnée.
+     * @return EXACT, LOWER_BOUND ou UPPER_BOUND.
+     */
+    public static int bound(long data) {
+        return (int) ((data >>> 8) & 3);
+    }
+
+    /**
+     * Obtient le meilleur mouvement d'une donnée.
+     * @param data La donnée.
+     * @return Le mouvement codé, ou 0xFF s'il n'y en a pas.
+     */
+    public static int move(long data) {
+        return (int) (data & 0xFF);
+    }
+
+    /**
+     * Cherche une position dans la table.
+     * @param key Le hachage de Zobrist de la position.
+     * @return La donnée enregistrée, ou MISS.
+     */
+    public long probe(long key) {
+        int bucket = bucket(key);
+        boolean occupied = false;
+        for (int slot = bucket; slot < bucket + BUCKET_BYTES; slot += SLOT_BYTES) {
+            long data = (long) LONGS.getOpaque(memory, slot);
+            long check = (long) LONGS.getOpaque(memory, slot + 8);
+            if ((check ^ data) == key) {
+                hits.increment();
+                return data;
+            }
+            occupied |= check != 0 || data != 0;
+        }
+        if (occupied) {
+            collisions.increment();
+        }
+        misses.increment();
+        return MISS;
+    }
+
+    /**
+     * Enregistre une position. La première case du seau n'est remplacée que par une recherche au moins aussi
+     * profonde ou par la même position ; sinon l'entrée va dans la seconde case.
+     * @param key Le hachage de Zobrist de la position.
+     * @param data La donnée construite par pack.
+     */
+    public void store(long key, long data) {
+        int bucket = bucket(key);
+        long deepData = (long) LONGS.getOpaque(memory, bucket);
+        long deepCheck = (long) LONGS.getOpaque(memory, bucket + 8);
+        int slot = bucket + SLOT_BYTES;
+        if ((deepCheck ^ deepData) == key || depth(data) >= depth(deepData) || (deepData == 0 && deepCheck == 0)) {
+            slot = bucket;
+        }
+        LONGS.setOpaque(memory, slot, data);
+        LONGS.setOpaque(memory, slot + 8, key ^ data);
+        stores.increment();
+    }
+
+    /**
+     * Vide la table et remet les compteurs à zéro. Ne doit pas être appelée pendant une recherche.
+     */
+    public void clear() {
+        for (int i = 0; i < memory.capacity(); i += 8) {
+            LONGS.setOpaque(memory, i, 0L);
+        }
+        hits.reset();
+        misses.reset();
+        collisions.reset();
+        stores.reset();
+    }
+
+    private int bucket(long key) {
+        return (int) ((key ^ (key >>> 32)) & bucketMask) * BUCKET_BYTES;
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de positions trouvées.
+     * @return Le nombre de succès.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de positions absentes.
+     * @return Le nombre d'échecs.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Méthode pour obtenir le nombre d'échecs sur un seau occupé par d'autres positions.
+     * @return Le nombre de collisions.
+     */
+    public long getCollisions() {
+        return collisions.sum();
+    }
+
+    /**
+     * Décrit l'utilisation de la table.
+     * @return Les compteurs de succès, d'échecs et de collisions.
+     */
+    public String statistics() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return String.format("table : %d succès (%.1f %%), %d échecs, %d collisions, %d écritures",
+                hitCount, total == 0 ? 0.0 : 100.0 * hitCount / total, misses.sum(), collisions.sum(), stores.sum());
+    }
+}
@@ -0,0 +1,288 @@
+/**
+ * Moteur de jeu d'une variante décrite par VariantRules, sur le modèle de GameEngine.
+ * Chaque joueur déplace son pion, marque un point par case de son pion dans la colonne de score, puis déplace le
+ * pion neutre s'il le peut ; la main passe ensuite au joueur suivant, et la partie est nulle s'il ne peut pas bouger.
+ * Quand un joueur atteint le score gagnant, il gagne si tous ses adversaires ont le score minimal ; sinon il perd et
+ * la victoire revient à l'adversaire le mieux classé, ce qui redonne la règle des 6 points à deux joueurs.
+ * Le plateau tient dans un masque de 64 bits par pion et les mouvements se génèrent avec les tables de VariantRules.
+ */
+public class VariantEngine {
+    // Issue d'une partie : en cours, nulle, ou indice du joueur gagnant
+    public static final int IN_PROGRESS = -2;
+    public static final int DRAW = -1;
+
+    private final VariantRules rules;
+    private final long[] masks;
+    private final int[] placements;
+    private final int[] scores;
+    private long occupied;
+    private int currentPlayer;
+    private boolean neutralTurn;
+    private int turn;
+    private int winner;
+    // Journal d'annulation de makeMove : deux entiers longs par mouvement
+    private long[] undoLog = new long[128];
+    private int undoSize;
+
+    /**
+     * Constructeur de la classe VariantEngine, plateau à sa disposition de départ.
+     * @param rules Les règles de la variante.
+     */
+    public VariantEngine(VariantRules rules) {
+        this.rules = rules;
+        this.masks = new long[rules.getPieceCount()];
+        this.placements = new int[rules.getPieceCount()];
+        this.scores = new int[rules.getPlayers()];
+        reset();
+    }
+
+    /**
+     * Remet la partie à son état de départ.
+     */
+    public void reset() {
+        occupied = 0;
+        for (int piece = 0; piece < placements.length; piece++) {
+            placements[piece] = rules.initialPlacement(piece);
+            masks[piece] = rules.footprint(placements[piece]);
+            occupied |= masks[piece];
+        }
+        java.util.Arrays.fill(scores, 0);
+        currentPlayer = 0;
+        neutralTurn = false;
+        turn = 0;
+        winner = IN_PROGRESS;
+        undoSize = 0;
+    }
+
+    /**
+     * Copie l'état d'un autre moteur de la même variante.
+     * @param other Le moteur à copier.
+     */
+    public void copyFrom(VariantEngine other) {
+        System.arraycopy(other.masks, 0, masks, 0, masks.length);
+        System.arraycopy(other.placements, 0, placements, 0, placements.length);
+        System.arraycopy(other.scores, 0, scores, 0, scores.length);
+        occupied = other.occupied;
+        currentPlayer = other.currentPlayer;
+        neutralTurn = other.neutralTurn;
+        turn = other.turn;
+        winner = other.winner;
+        undoSize = 0;
+    }
+
+    /**
+     * Méthode pour obtenir les règles de la variante.
+     * @return Les règles.
+     */
+    public VariantRules getRules() {
+        return rules;
+    }
+
+    /**
+     * Méthode pour obtenir le joueur qui a la main.
+     * @return L'indice du joueur.
+     */
+    public int getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    /**
+     * Méthode pour savoir si le prochain mouvement est celui du pion neutre.
+     * @return Vrai pendant le tour du pion neutre.
+     */
+    public boolean isNeutralTurn() {
+        return neutralTurn;
+    }
+
+    /**
+     * Méthode pour obtenir le pion à déplacer.
+     * @return Le pion du joueur courant, ou le pion neutre pendant son tour.
+     */
+    public int getPieceToMove() {
+        return neutralTurn ? rules.getNeutralPiece() : currentPlayer;
+    }
+
+    /**
+     * Méthode pour obtenir le placement d'un pion.
+     * @param piece L'indice du pion.
+     * @return Le placement codé.
+     */
+    public int getPlacement(int piece) {
+        return placements[piece];
+    }
+
+    /**
+     * Méthode pour obtenir le score d'un joueur.
+     * @param player L'indice du joueur.
+     * @return Le score.
+     */
+    public int getScore(int player) {
+        return scores[player];
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de tours de joueur déjà joués.
+     * @return Le nombre de tours.
+     */
+    public int getTurn() {
+        return turn;
+    }
+
+    /**
+     * Méthode pour obtenir l'issue de la partie.
+     * @return IN_PROGRESS, DRAW ou l'indice du joueur gagnant.
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * Méthode pour savoir si la partie est terminée.
+     * @return Vrai si la partie est terminée.
+     */
+    public boolean isOver() {
+        return winner != IN_PROGRESS;
+    }
+
+    /**
+     * Compte les cases d'un pion dans la colonne de score.
+     * @param piece L'indice du pion.
+     * @return Le nombre de cases.
+     */
+    public int scoringCount(int piece) {
+        return Long.bitCount(masks[piece] & rules.getScoringMask());
+    }
+
+    /**
+     * Remplit le tampon avec les mouvements du pion à déplacer : la case d'ancrage doit être vide et la seconde case
+     * vide ou déjà occupée par le pion. Comme dans le jeu classique, un joueur choisit une case et l'orientation
+     * en découle : verticale si elle est possible, horizontale sinon (Board.calculateNewOrientation).
+     * @param buffer Le tampon, d'au moins VariantRules.getMaxMoves() cases.
+     * @return Le nombre de mouvements, 0 si la partie est terminée.
+     */
+    public int generateMoves(int[] buffer) {
+        return isOver() ? 0 : generateMoves(getPieceToMove(), buffer);
+    }
+
+    private int generateMoves(int piece, int[] buffer) {
+        long blocked = occupied & ~masks[piece];
+        int count = 0;
+        // Seules les cases vides peuvent servir d'ancrage : on parcourt leurs bits plutôt que toutes les cases
+        for (long anchors = ~occupied & cellMask(); anchors != 0; anchors &= anchors - 1) {
+            int cell = Long.numberOfTrailingZeros(anchors);
+            int above = rules.verticalSecond(cell);
+            if (above != VariantRules.NONE && (blocked & 1L << above) == 0) {
+                buffer[count++] = VariantRules.encode(cell, true);
+                continue;
+            }
+            int right = rules.horizontalSecond(cell);
+            if (right != VariantRules.NONE && (blocked & 1L << right) == 0) {
+                buffer[count++] = VariantRules.encode(cell, false);
+            }
+        }
+        return count;
+    }
+
+    private boolean hasMoves(int piece) {
+        long blocked = occupied & ~masks[piece];
+        for (long anchors = ~occupied & cellMask(); anchors != 0; anchors &= anchors - 1) {
+            int cell = Long.numberOfTrailingZeros(anchors);
+            int right = rules.horizontalSecond(cell);
+            if (right != VariantRules.NONE && (blocked & 1L << right) == 0) return true;
+            int above = rules.verticalSecond(cell);
+            if (above != VariantRules.NONE && (blocked & 1L << above) == 0) return true;
+        }
+        return false;
+    }
+
+    private long cellMask() {
+        return rules.getCellCount() == 64 ? -1L : (1L << rules.getCellCount()) - 1;
+    }
+
+    /**
+     * Applique un mouvement valide du pion à déplacer puis fait avancer la partie.
+     * @param move Le placement codé, tel que produit par generateMoves.
+     */
+    public void applyMove(int move) {
+        if (isOver()) {
+            throw new IllegalStateException("La partie est terminée.");
+        }
+        int piece = getPieceToMove();
+        place(piece, move);
+        if (neutralTurn) {
+            endTurn();
+        } else {
+            scores[currentPlayer] += scoringCount(piece);
+            turn++;
+            neutralTurn = true;
+            if (!hasMoves(rules.getNeutralPiece())) {
+                endTurn();
+            }
+        }
+    }
+
+    /**
+     * Applique un mouvement comme applyMove en gardant de quoi l'annuler avec unmakeMove.
+     * @param move Le placement codé.
+     */
+    public void makeMove(int move) {
+        if (undoSize + 2 > undoLog.length) {
+            undoLog = java.util.Arrays.copyOf(undoLog, undoLog.length * 2);
+        }
+        int piece = getPieceToMove();
+        undoLog[undoSize++] = (long) placements[piece] << 32 | piece;
+        undoLog[undoSize++] = (long) scores[currentPlayer] << 40 | (long) (turn & 0xFFFFFF) << 16
+                | (winner & 0xFF) << 8 | currentPlayer << 1 | (neutralTurn ? 1 : 0);
+        applyMove(move);
+    }
+
+    /**
+     * Annule le dernier mouvement joué avec makeMove.
+     */
+    public void unmakeMove() {
+        long state = undoLog[--undoSize];
+        long moved = undoLog[--undoSize];
+        neutralTurn = (state & 1) != 0;
+        currentPlayer = (int) ((state >>> 1) & 0x7F);
+        winner = (byte) (state >>> 8);
+        turn = (int) ((state >>> 16) & 0xFFFFFF);
+        scores[currentPlayer] = (int) (state >>> 40);
+        place((int) moved, (int) (moved >>> 32));
+    }
+
+    private void place(int piece, int placement) {
+        occupied &= ~masks[piece];
+        masks[piece] = rules.footprint(placement);
+        occupied |= masks[piece];
+        placements[piece] = placement;
+    }
+
+    /**
+     * Termine le tour du joueur courant : condition de victoire, puis passage de la main.
+     */
+    private void endTurn() {
+        neutralTurn = false;
+        if (scores[currentPlayer] >= rules.getWinningScore()) {
+            winner = winnerAfterTarget(currentPlayer);
+            return;
+        }
+        currentPlayer = (currentPlayer + 1) % rules.getPlayers();
+        if (!hasMoves(currentPlayer)) {
+            winner = DRAW;
+        }
+    }
+
+    /**
+     * Désigne le gagnant quand un joueur atteint le score gagnant.
+     */
+    private int winnerAfterTarget(int player) {
+        int best = -1;
+        boolean allAboveMinimum = true;
+        for (int other = 0; other < scores.length; other++) {
+            if (other == player) continue;
+            if (scores[other] < rules.getMinimumOpponentScore()) allAboveMinimum = false;
+            if (best < 0 || scores[other] > scores[best]) best = other;
+        }
+        return allAboveMinimum ? player : best;
+    }
+}
@@ -0,0 +1,266 @@
+/**
+ * Règles d'une variante du jeu sur un plateau de N lignes et M colonnes, avec P joueurs et un pion neutre.
+ * Les déplacements sont lus dans des tables de voisinage précalculées par case, au lieu des calculs
+ * modulo 3 de Board : case de droite pour un placement horizontal, case du dessus pour un placement vertical,
+ * et empreinte de chaque placement sous forme de masque.
+ * Une case est numérotée ligne * colonnes + colonne, la ligne 0 en haut, comme dans Board ; un placement est codé
+ * case * 2 + 1 si le pion est vertical, la case étant celle du bas pour un pion vertical.
+ * Le jeu classique correspond à classic() : 3×3, deux joueurs, colonne de droite, 12 points et règle des 6 points.
+ */
+public final class VariantRules {
+    // Les plateaux sont représentés par des masques de 64 bits
+    public static final int MAX_CELLS = 64;
+    // Case voisine absente dans les tables
+    public static final int NONE = -1;
+
+    private final int rows;
+    private final int columns;
+    private final int players;
+    private final int scoringColumn;
+    private final int winningScore;
+    private final int minimumOpponentScore;
+
+    // Tables de voisinage et d'empreinte, indexées par case ou par placement
+    private final int[] horizontalSecond;
+    private final int[] verticalSecond;
+    private final long[] footprint;
+    private final long scoringMask;
+    private final int[] initialPlacements;
+
+    /**
+     * Constructeur de la classe VariantRules.
+     * @param rows Le nombre de lignes.
+     * @param columns Le nombre de colonnes.
+     * @param players Le nombre de joueurs, chacun avec son pion ; un pion neutre s'y ajoute.
+     * @param scoringColumn La colonne dont les cases rapportent un point chacune.
+     * @param winningScore Le score qui termine la partie.
+     * @param minimumOpponentScore Le score que tous les adversaires doivent avoir atteint pour que la victoire compte.
+     */
+    public VariantRules(int rows, int columns, int players, int scoringColumn, int winningScore, int minimumOpponentScore) {
+        if (rows < 2 || columns < 2 || rows * columns > MAX_CELLS) {
+            throw new IllegalArgumentException("Plateau invalide : " + rows + "×" + columns);
+        }
+        if (players < 2 || players + 1 > rows) {
+            throw new IllegalArgumentException("Il faut au moins deux joueurs et une ligne par pion : " + players);
+        }
+        if (scoringColumn < 0 || scoringColumn >= columns) {
+            throw new IllegalArgumentException("Colonne de score invalide : " + scoringColumn);
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.players = players;
+        this.scoringColumn = scoringColumn;
+        this.winningScore = winningScore;
+        this.minimumOpponentScore = minimumOpponentScore;
+
+        int cells = rows * columns;
+        horizontalSecond = new int[cells];
+        verticalSecond = new int[cells];
+        footprint = new long[2 * cells];
+        long scoring = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            int row = cell / columns;
+            int column = cell % columns;
+            horizontalSecond[cell] = column < columns - 1 ? cell + 1 : NONE;
+            verticalSecond[cell] = row > 0 ? cell - columns : NONE;
+            if (horizontalSecond[cell] != NONE) {
+                footprint[cell * 2] = 1L << cell | 1L << horizontalSecond[cell];
+            }
+            if (verticalSecond[cell] != NONE) {
+                footprint[cell * 2 + 1] = 1L << cell | 1L << verticalSecond[cell];
+            }
+            if (column == scoringColumn) {
+                scoring |= 1L << cell;
+            }
+        }
+        scoringMask = scoring;
+
+        // Pions horizontaux contre le bord droit, un par ligne régulièrement espacée : le joueur 1, le pion neutre,
+        // puis les autres joueurs, ce qui redonne la disposition de départ de Board sur 3×3
+        initialPlacements = new int[players + 1];
+        int pieces = players + 1;
+        for (int order = 0; order < pieces; order++) {
+            int piece = order == 0 ? 0 : order == 1 ? players : order - 1;
+            int row = order * rows / pieces;
+            initialPlacements[piece] = (row * columns + columns - 2) * 2;
+        }
+    }
+
+    /**
+     * Crée les règles du jeu classique.
+     * @return Les règles : 3×3, deux joueurs, colonne de droite, 12 points, 6 points minimum pour l'adversaire.
+     */
+    public static VariantRules classic() {
+        return new VariantRules(3, 3, 2, 2, GameEngine.WINNING_SCORE, GameEngine.MINIMUM_OPPONENT_SCORE);
+    }
+
+    /**
+     * Crée les règles d'une variante à partir de sa description en ligne de commande.
+     * @param spec La description lignesxcolonnes[xjoueurs], par exemple 4x4x3 ; la colonne de score est celle de droite.
+     * @return Les règles.
+     */
+    public static VariantRules parse(String spec) {
+        String[] parts = spec.toLowerCase().split("x");
+        int rows = Integer.parseInt(parts[0]);
+        int columns = Integer.parseInt(parts[1]);
+        int players = parts.length > 2 ? Integer.parseInt(parts[2]) : 2;
+        return new VariantRules(rows, columns, players, columns - 1, GameEngine.WINNING_SCORE, GameEngine.MINIMUM_OPPONENT_SCORE);
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de lignes.
+     * @return Le nombre de lignes.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de colonnes.
+     * @return Le nombre de colonnes.
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de cases.
+     * @return Le nombre de cases.
+     */
+    public int getCellCount() {
+        return rows * columns;
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de joueurs.
+     * @return Le nombre de joueurs.
+     */
+    public int getPlayers() {
+        return players;
+    }
+
+    /**
+     * Méthode pour obtenir le nombre de pions, pion neutre compris.
+     * @return Le nombre de pions.
+     */
+    public int getPieceCount() {
+        return players + 1;
+    }
+
+    /**
+     * Méthode pour obtenir l'indice du pion neutre, qui suit les pions des joueurs.
+     * @return L'indice du pion neutre.
+     */
+    public int getNeutralPiece() {
+        return players;
+    }
+
+    /**
+     * Méthode pour obtenir le nombre maximal de mouvements d'un pion : un par case d'ancrage.
+     * @return La taille minimale d'un tampon de mouvements.
+     */
+    public int getMaxMoves() {
+        return rows * columns;
+    }
+
+    /**
+     * Méthode pour obtenir la colonne de score.
+     * @return L'indice de la colonne.
+     */
+    public int getScoringColumn() {
+        return scoringColumn;
+    }
+
+    /**
+     * Méthode pour obtenir le score qui termine la partie.
+     * @return Le score.
+     */
+    public int getWinningScore() {
+        return winningScore;
+    }
+
+    /**
+     * Méthode pour obtenir le score minimal des adversaires.
+     * @return Le score.
+     */
+    public int getMinimumOpponentScore() {
+        return minimumOpponentScore;
+    }
+
+    /**
+     * Obtient la case à droite d'une case.
+     * @param cell La case.
+     * @return La case voisine, ou NONE sur la dernière colonne.
+     */
+    public int horizontalSecond(int cell) {
+        return horizontalSecond[cell];
+    }
+
+    /**
+     * Obtient la case au-dessus d'une case.
+     * @param cell La case.
+     * @return La case voisine, ou NONE sur la première ligne.
+     */
+    public int verticalSecond(int cell) {
+        return verticalSecond[cell];
+    }
+
+    /**
+     * Obtient le masque des cases couvertes par un placement.
+     * @param placement Le placement codé.
+     * @return Le masque, 0 si le placement sort du plateau.
+     */
+    public long footprint(int placement) {
+        return footprint[placement];
+    }
+
+    /**
+     * Méthode pour obtenir le masque des cases de la colonne de score.
+     * @return Le masque.
+     */
+    public long getScoringMask() {
+        return scoringMask;
+    }
+
+    /**
+     * Obtient le placement de départ d'un pion.
+     * @param piece L'indice du pion.
+     * @return Le placement codé.
+     */
+    public int initialPlacement(int piece) {
+        return initialPlacements[piece];
+    }
+
+    /**
+     * Code un placement.
+     * @param cell La case d'ancrage.
+     * @param vertical Vrai pour un placement vertical.
+     * @return Le placement codé.
+     */
+    public static int encode(int cell, boolean vertical) {
+        return cell * 2 + (vertical ? 1 : 0);
+    }
+
+    /**
+     * Obtient la case d'ancrage d'un placement.
+     * @param placement Le placement codé.
+     * @return La case.
+     */
+    public static int cell(int placement) {
+        return placement >>> 1;
+    }
+
+    /**
+     * Indique si un placement est vertical.
+     * @param placement Le placement codé.
+     * @return Vrai pour un placement vertical.
+     */
+    public static boolean isVertical(int placement) {
+        return (placement & 1) != 0;
+    }
+
+    @Override
+    public String toString() {
+        return rows + "×" + columns + ", " + players + " joueurs";
+    }
+}
@@ -0,0 +1,239 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Simulateur de parties automatiques sur une variante décrite par VariantRules, en parallèle comme Simulation.
+ * Chaque joueur suit une stratégie : random choisit un mouvement au hasard, greedy le mouvement qui met le plus de
+ * cases de son pion dans la colonne de score sans atteindre le score gagnant trop tôt, comme GreedyAgent, au hasard
+ * parmi les meilleurs. Le pion neutre est toujours déplacé au hasard. Les stratégies tournent d'une place à l'autre
+ * à chaque partie, pour que chacune joue aussi souvent à chaque place ; les victoires sont comptées par stratégie,
+ * dans l'ordre donné.
+ */
+public class VariantSimulation {
+    public static final String RANDOM = "random";
+    public static final String GREEDY = "greedy";
+
+    private final VariantRules rules;
+    private final String[] strategies;
+    private final int maxTurns;
+    private final long seed;
+
+    /**
+     * Résultats d'une série de parties, fusionnables entre fils.
+     */
+    public static final class Stats {
+        final long[] wins;
+        long draws;
+        long unfinished;
+        long turns;
+        long moves;
+
+        Stats(int players) {
+            this.wins = new long[players];
+        }
+
+        void merge(Stats other) {
+            for (int i = 0; i < wins.length; i++) wins[i] += other.wins[i];
+            draws += other.draws;
+            unfinished += other.unfinished;
+            turns += other.turns;
+            moves += other.moves;
+        }
+
+        /**
+         * Méthode pour obtenir le nombre de parties jouées.
+         * @return Le nombre de parties, terminées ou arrêtées.
+         */
+        public long getGames() {
+            long games = draws + unfinished;
+            for (long win : wins) games += win;
+            return games;
+        }
+
+        /**
+         * Méthode pour obtenir le nombre de victoires d'une stratégie.
+         * @param strategy L'indice de la stratégie, dans l'ordre donné au simulateur.
+         * @return Le nombre de victoires.
+         */
+        public long getWins(int strategy) {
+            return wins[strategy];
+        }
+
+        /**
+         * Méthode pour obtenir le nombre de parties nulles.
+         * @return Le nombre de parties nulles.
+         */
+        public long getDraws() {
+            return draws;
+        }
+
+        /**
+         * Méthode pour obtenir le nombre de parties arrêtées à la limite de tours.
+         * @return Le nombre de parties arrêtées.
+         */
+        public long getUnfinished() {
+            return unfinished;
+        }
+    }
+
+    /**
+     * Constructeur de la classe VariantSimulation.
+     * @param rules Les règles de la variante.
+     * @param strategies Une stratégie par joueur, random ou greedy.
+     * @param maxTurns Le nombre maximal de tours de joueur avant d'arrêter une partie.
+     * @param seed La graine de la simulation.
+     */
+    public VariantSimulation(VariantRules rules, String[] strategies, int maxTurns, long seed) {
+        if (strategies.length != rules.getPlayers()) {
+            throw new IllegalArgumentException("Il faut une stratégie par joueur : " + rules.getPlayers());
+        }
+        for (String strategy : strategies) {
+            if (!strategy.equals(RANDOM) && !strategy.equals(GREEDY)) {
+                throw new IllegalArgumentException("Stratégie inconnue : " + strategy);
+            }
+        }
+        this.rules = rules;
+        this.strategies = strategies;
+        this.maxTurns = maxTurns;
+        this.seed = seed;
+    }
+
+    /**
+     * Point d'entrée du simulateur de variantes.
+     * Arguments : variante (lignesxcolonnes[xjoueurs]) [parties] [stratégies séparées par des virgules, une seule
+     * valant pour tous les joueurs] [fils] [graine] [limite de tours].
+     * @param args Les arguments de la ligne de commande.
+     * @throws Exception Si un fil de simulation échoue.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.out.println("Usage : java VariantSimulation lignesxcolonnes[xjoueurs] [parties] [random,greedy,...]"
+                    + " [fils] [graine] [limite de tours]");
+            return;
+        }
+        VariantRules rules = VariantRules.parse(args[0]);
+        long games = args.length > 1 ? Long.parseLong(args[1]) : 100_000;
+        String[] strategies = args.length > 2 ? args[2].split(",") : new String[] {RANDOM};
+        if (strategies.length == 1) {
+            String strategy = strategies[0];
+            strategies = new String[rules.getPlayers()];
+            java.util.Arrays.fill(strategies, strategy);
+        }
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 42;
+        int maxTurns = args.length > 5 ? Integer.parseInt(args[5]) : 1000;
+
+        VariantSimulation simulation = new VariantSimulation(rules, strategies, maxTurns, seed);
+        long start = System.nanoTime();
+        Stats stats = simulation.run(games, threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Variante %s sur %d fils : %d parties en %.2f s (%.0f parties/s, %.0f coups/s)%n",
+                rules, threads, stats.getGames(), seconds, stats.getGames() / seconds, stats.moves / seconds);
+        for (int i = 0; i < strategies.length; i++) {
+            System.out.printf("  stratégie %d (%s) : %d victoires (%.1f %%)%n", i + 1, strategies[i], stats.wins[i],
+                    100.0 * stats.wins[i] / stats.getGames());
+        }
+        System.out.printf("  nulles : %d, arrêtées à %d tours : %d, %.1f tours par partie%n", stats.draws, maxTurns,
+                stats.unfinished, (double) stats.turns / stats.getGames());
+    }
+
+    /**
+     * Joue une série de parties réparties entre plusieurs fils.
+     * @param games Le nombre de parties.
+     * @param threads Le nombre de fils.
+     * @return Les résultats fusionnés.
+     * @throws InterruptedException Si l'attente est interrompue.
+     * @throws ExecutionException Si un fil de simulation échoue.
+     */
+    public Stats run(long games, int threads) throws InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Stats>> futures = new ArrayList<>();
+            long chunk = (games + threads - 1) / threads;
+            SplittableRandom root = new SplittableRandom(seed);
+            long first = 0;
+            for (int t = 0; t < threads && first < games; t++) {
+                long from = first;
+                long to = Math.min(games, first + chunk);
+                SplittableRandom random = root.split();
+                futures.add(executor.submit(() -> play(from, to, random)));
+                first = to;
+            }
+            Stats total = new Stats(strategies.length);
+            for (Future<Stats> future : futures) {
+                total.merge(future.get());
+            }
+            return total;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Joue les parties d'indices from (inclus) à to (exclu) sur un moteur propre au fil.
+     */
+    private Stats play(long from, long to, SplittableRandom random) {
+        VariantEngine engine = new VariantEngine(rules);
+        int[] moves = new int[rules.getMaxMoves()];
+        int players = rules.getPlayers();
+        Stats stats = new Stats(players);
+        for (long game = from; game < to; game++) {
+            // La stratégie s joue à la place (s + décalage) % joueurs
+            int shift = (int) (game % players);
+            engine.reset();
+            while (!engine.isOver() && engine.getTurn() < maxTurns) {
+                int count = engine.generateMoves(moves);
+                int move;
+                if (!engine.isNeutralTurn()
+                        && strategies[Math.floorMod(engine.getCurrentPlayer() - shift, players)].equals(GREEDY)) {
+                    move = greedyMove(engine, moves, count, random);
+                } else {
+                    move = moves[random.nextInt(count)];
+                }
+                engine.applyMove(move);
+                stats.moves++;
+            }
+            stats.turns += engine.getTurn();
+            if (!engine.isOver()) {
+                stats.unfinished++;
+            } else if (engine.getWinner() == VariantEngine.DRAW) {
+                stats.draws++;
+            } else {
+                stats.wins[Math.floorMod(engine.getWinner() - shift, players)]++;
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Mouvement qui met le plus de cases du pion dans la colonne de score, au hasard parmi les meilleurs ; atteindre
+     * le score gagnant quand un adversaire n'a pas le score minimal ferait perdre et passe après tout autre mouvement.
+     */
+    private int greedyMove(VariantEngine engine, int[] moves, int count, SplittableRandom random) {
+        int player = engine.getCurrentPlayer();
+        boolean opponentBehind = false;
+        for (int other = 0; other < rules.getPlayers(); other++) {
+            if (other != player && engine.getScore(other) < rules.getMinimumOpponentScore()) opponentBehind = true;
+        }
+        int best = Integer.MIN_VALUE;
+        int chosen = 0;
+        int ties = 0;
+        for (int i = 0; i < count; i++) {
+            int gain = Long.bitCount(rules.footprint(moves[i]) & rules.getScoringMask());
+            if (opponentBehind && engine.getScore(player) + gain >= rules.getWinningScore()) gain = -1;
+            if (gain > best) {
+                best = gain;
+                chosen = moves[i];
+                ties = 1;
+            } else if (gain == best && random.nextInt(++ties) == 0) {
+                chosen = moves[i];
+            }
+        }
+        return chosen;
+    }
+}
@@ -0,0 +1,46 @@
+import java.util.SplittableRandom;
+
+/**
+ * Clés de hachage de Zobrist de l'état d'une partie.
+ * Une clé aléatoire de 64 bits est tirée pour chaque placement de chaque pion, pour le joueur qui a la main,
+ * pour la phase du pion neutre, pour chaque score de chaque joueur et pour la couleur du joueur 1.
+ * Le hachage d'un état est le ou exclusif des clés de ses composantes ; il se met donc à jour par deux ou
+ * exclusifs quand une composante change. Les clés sont tirées d'une graine fixe et sont identiques d'une exécution à l'autre.
+ */
+public final class Zobrist {
+    // Nombre de scores distincts pris en compte par joueur (les scores plus élevés partagent la dernière clé)
+    static final int SCORE_KEYS = 32;
+
+    static final long[][] PLACEMENT = new long[BitBoard.PIECE_COUNT][32];
+    static final long[] PLAYER = new long[2];
+    static final long NEUTRAL_TURN;
+    static final long[][] SCORE = new long[2][SCORE_KEYS];
+    static final long BLUE_FIRST;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x3_5907_7A5EL);
+        for (long[] keys : PLACEMENT) {
+            for (int i = 0; i < keys.length; i++) keys[i] = random.nextLong();
+        }
+        PLAYER[0] = 0;
+        PLAYER[1] = random.nextLong();
+        NEUTRAL_TURN = random.nextLong();
+        for (long[] keys : SCORE) {
+            for (int i = 0; i < keys.length; i++) keys[i] = random.nextLong();
+        }
+        BLUE_FIRST = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Obtient la clé d'un score.
+     * @param player L'indice du joueur.
+     * @param score Le score du joueur.
+     * @return La clé du score.
+     */
+    static long score(int player, int score) {
+        return SCORE[player][Math.min(score, SCORE_KEYS - 1)];
+    }
+}
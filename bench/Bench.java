@@ -0,0 +1,106 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Petit banc d'essai sans dépendance pour les sources du dossier bench.
+ * Les classes du jeu sont dans le paquet par défaut, que le processeur d'annotations de JMH refuse et qu'une classe
+ * d'un paquet nommé ne peut pas importer : les bancs d'essai vivent donc à côté d'elles et se compilent avec elles,
+ * par exemple javac -d out *.java bench/*.java, puis java -cp out BoardBenchmark.
+ * Chaque opération est appelée en boucle pendant WARMUP_ITERATIONS itérations de chauffe puis MEASURE_ITERATIONS
+ * itérations mesurées d'ITERATION_NANOS chacune ; on affiche le temps moyen par opération, son écart entre itérations
+ * et les octets alloués par opération, lus avec ThreadMXBean. Le résultat de chaque appel est consommé pour que le
+ * compilateur ne supprime pas l'opération. Contrairement à JMH, toutes les opérations partagent la même boucle : il
+ * faut lancer une seule opération (filtre en argument) pour comparer finement deux mesures proches.
+ */
+public class Bench {
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASURE_ITERATIONS = 5;
+    private static final long ITERATION_NANOS = 1_000_000_000L;
+    // Appels entre deux lectures de l'horloge
+    private static final int CALLS_PER_CHECK = 256;
+
+    /**
+     * Opération mesurée ; son résultat est consommé.
+     */
+    public interface Operation {
+        long run();
+    }
+
+    private final String title;
+    private final String filter;
+    private final List<String> names = new ArrayList<>();
+    private final List<Operation> operations = new ArrayList<>();
+    // Consomme les résultats des opérations
+    private long sink;
+
+    /**
+     * Constructeur de la classe Bench.
+     * @param title Le nom de la suite, affiché devant chaque mesure.
+     * @param filter Un morceau de nom d'opération, ou null pour toutes les opérations.
+     */
+    public Bench(String title, String filter) {
+        this.title = title;
+        this.filter = filter;
+    }
+
+    /**
+     * Ajoute une opération à la suite, si elle passe le filtre.
+     * @param name Le nom de l'opération.
+     * @param operation L'opération.
+     * @return La suite, pour chaîner les appels.
+     */
+    public Bench add(String name, Operation operation) {
+        if (filter == null || name.contains(filter)) {
+            names.add(name);
+            operations.add(operation);
+        }
+        return this;
+    }
+
+    /**
+     * Mesure chaque opération de la suite, dans l'ordre d'ajout, et affiche une ligne par opération.
+     */
+    public void run() {
+        for (int i = 0; i < operations.size(); i++) {
+            Operation operation = operations.get(i);
+            for (int iteration = 0; iteration < WARMUP_ITERATIONS; iteration++) {
+                iterate(operation);
+            }
+            double[] nanos = new double[MEASURE_ITERATIONS];
+            long calls = 0;
+            long before = AllocationProfiler.allocatedBytes();
+            for (int iteration = 0; iteration < MEASURE_ITERATIONS; iteration++) {
+                long start = System.nanoTime();
+                long count = iterate(operation);
+                nanos[iteration] = (double) (System.nanoTime() - start) / count;
+                calls += count;
+            }
+            long after = AllocationProfiler.allocatedBytes();
+            double mean = 0;
+            for (double value : nanos) mean += value / MEASURE_ITERATIONS;
+            double variance = 0;
+            for (double value : nanos) variance += (value - mean) * (value - mean) / MEASURE_ITERATIONS;
+            System.out.printf("%s.%-32s %12.1f ns/op ± %-8.1f %10s%n", title, names.get(i), mean, Math.sqrt(variance),
+                    before < 0 ? "" : String.format("%.1f o/op", (double) (after - before) / calls));
+        }
+        if (sink == 42) System.out.println();
+    }
+
+    /**
+     * Appelle l'opération pendant ITERATION_NANOS.
+     * @return Le nombre d'appels.
+     */
+    private long iterate(Operation operation) {
+        long deadline = System.nanoTime() + ITERATION_NANOS;
+        long calls = 0;
+        long consumed = 0;
+        do {
+            for (int i = 0; i < CALLS_PER_CHECK; i++) {
+                consumed += operation.run();
+            }
+            calls += CALLS_PER_CHECK;
+        } while (System.nanoTime() < deadline);
+        sink += consumed;
+        return calls;
+    }
+}
@@ -0,0 +1,173 @@
+import java.util.SplittableRandom;
+
+/**
+ * Bancs d'essai des chemins critiques de Board et du calcul des scores.
+ * Chaque mesure parcourt un corpus de positions de milieu de partie obtenues par des parties aléatoires à graine fixe.
+ * Les mesures passent par Bench, qui affiche aussi les octets alloués par opération ; voir Bench pour la compilation.
+ */
+public class BoardBenchmark {
+    // Nombre de positions du corpus et graine des parties qui le produisent
+    static final int CORPUS_SIZE = 1024;
+    static final long CORPUS_SEED = 20240501L;
+
+    /**
+     * Corpus de positions partagé : un plateau, des pions synchronisés et un moteur par position.
+     */
+    static class Positions {
+        BitBoard[] snapshots;
+        GameEngine[] engines;
+        Board board;
+        BitBoard bits;
+        Pion[] pions;
+        int[] moves;
+        int cursor;
+
+        Positions() {
+            engines = corpus(CORPUS_SIZE, CORPUS_SEED);
+            snapshots = new BitBoard[engines.length];
+            for (int i = 0; i < engines.length; i++) {
+                snapshots[i] = new BitBoard();
+                snapshots[i].copyFrom(engines[i].getBoard());
+            }
+            bits = new BitBoard();
+            board = new Board(bits);
+            pions = new Pion[] {
+                    new Pion(Pion.Color.RED, 1, Pion.Orientation.HORIZONTAL),
+                    new Pion(Pion.Color.BLUE, 7, Pion.Orientation.HORIZONTAL),
+                    new Pion(Pion.Color.WHITE, 4, Pion.Orientation.HORIZONTAL)
+            };
+            moves = new int[BitBoard.MAX_MOVES];
+        }
+
+        /**
+         * Charge la position suivante du corpus dans le plateau de travail et synchronise les pions.
+         * @return L'indice de la position chargée.
+         */
+        int next() {
+            int index = cursor;
+            cursor = (cursor + 1) % snapshots.length;
+            bits.copyFrom(snapshots[index]);
+            for (int piece = 0; piece < BitBoard.PIECE_COUNT; piece++) {
+                int placement = bits.getPlacement(piece);
+                pions[piece].setPosition(BitBoard.position(placement));
+                pions[piece].setOrientation(Board.orientation(placement));
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Produit des positions de milieu de partie en jouant des parties aléatoires et en gardant un tour entre 4 et 20.
+     * @param size Le nombre de positions.
+     * @param seed La graine des parties.
+     * @return Les moteurs arrêtés sur chaque position, partie en cours.
+     */
+    static GameEngine[] corpus(int size, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        GameEngine[] corpus = new GameEngine[size];
+        int[] moves = new int[BitBoard.MAX_MOVES];
+        GameEngine engine = new GameEngine();
+        int filled = 0;
+        while (filled < size) {
+            engine.reset();
+            engine.assignPions(random.nextBoolean() ? BitBoard.RED : BitBoard.BLUE);
+            int stopTurn = 4 + random.nextInt(17);
+            while (!engine.isOver() && engine.getTurn() < stopTurn) {
+                int count = engine.generateMoves(moves);
+                engine.applyMove(moves[random.nextInt(count)]);
+            }
+            if (engine.isOver() || engine.isNeutralTurn()) continue;
+            corpus[filled] = new GameEngine();
+            corpus[filled++].copyFrom(engine);
+        }
+        return corpus;
+    }
+
+    static long getAvailableMoves(Positions positions) {
+        int index = positions.next();
+        int piece = positions.engines[index].getPieceToMove();
+        return positions.board.getAvailableMoves(positions.pions[piece]).size();
+    }
+
+    static long generateOptions(Positions positions) {
+        int index = positions.next();
+        return positions.bits.generateOptions(positions.engines[index].getPieceToMove(), positions.moves);
+    }
+
+    static long generateMoves(Positions positions) {
+        int index = positions.next();
+        return positions.bits.generateMoves(positions.engines[index].getPieceToMove(), positions.moves);
+    }
+
+    static long effectuerMouvement(Positions positions) {
+        int index = positions.next();
+        Pion pion = positions.pions[positions.engines[index].getPieceToMove()];
+        int count = positions.bits.generateOptions(BitBoard.pieceIndex(pion.getColor()), positions.moves);
+        // Passe par calculateNewOrientation puis canPlaceHorizontal et canPlaceVertical
+        positions.board.effectuerMouvement(positions.moves[index % count], pion);
+        return pion.getPosition();
+    }
+
+    static long placeAndClearPion(Positions positions) {
+        int index = positions.next();
+        Pion pion = positions.pions[positions.engines[index].getPieceToMove()];
+        int position = pion.getPosition();
+        Pion.Orientation orientation = pion.getOrientation();
+        positions.board.clearPionPosition(pion);
+        positions.board.placePion(pion, position, orientation);
+        return positions.bits.getOccupied();
+    }
+
+    static long getBoardWithMoveOptions(Positions positions) {
+        int index = positions.next();
+        return positions.board.getBoardWithMoveOptions(positions.pions[positions.engines[index].getPieceToMove()])
+                .length();
+    }
+
+    /**
+     * Reproduit le calcul de Game.updateScores sur Board, sans l'affichage : parcours de getRightColumnSpots.
+     */
+    static long updateScoresRightColumnSpots(Positions positions) {
+        int index = positions.next();
+        GameEngine engine = positions.engines[index];
+        char symbol1 = BitBoard.color(engine.getPlayerPiece(0)).getSymbol();
+        char symbol2 = BitBoard.color(engine.getPlayerPiece(1)).getSymbol();
+        int scoreJoueur1 = 0, scoreJoueur2 = 0;
+        for (char spot : positions.board.getRightColumnSpots()) {
+            if (spot == symbol1) {
+                scoreJoueur1++;
+            } else if (spot == symbol2) {
+                scoreJoueur2++;
+            }
+        }
+        return scoreJoueur1 * 16 + scoreJoueur2;
+    }
+
+    /**
+     * Calcul des scores tel que le fait GameEngine après un coup : comptage de bits sur la colonne de droite.
+     */
+    static long updateScoresBitBoard(Positions positions) {
+        int index = positions.next();
+        GameEngine engine = positions.engines[index];
+        return positions.bits.rightColumnCount(engine.getPlayerPiece(0)) * 16
+                + positions.bits.rightColumnCount(engine.getPlayerPiece(1));
+    }
+
+    /**
+     * Lance toute la suite.
+     * @param args Un filtre optionnel sur les noms des bancs d'essai.
+     */
+    public static void main(String[] args) {
+        Positions positions = new Positions();
+        new Bench("BoardBenchmark", args.length > 0 ? args[0] : null)
+                .add("getAvailableMoves", () -> getAvailableMoves(positions))
+                .add("generateOptions", () -> generateOptions(positions))
+                .add("generateMoves", () -> generateMoves(positions))
+                .add("effectuerMouvement", () -> effectuerMouvement(positions))
+                .add("placeAndClearPion", () -> placeAndClearPion(positions))
+                .add("getBoardWithMoveOptions", () -> getBoardWithMoveOptions(positions))
+                .add("updateScoresRightColumnSpots", () -> updateScoresRightColumnSpots(positions))
+                .add("updateScoresBitBoard", () -> updateScoresBitBoard(positions))
+                .run();
+    }
+}
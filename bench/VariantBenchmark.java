@@ -0,0 +1,145 @@
+import java.util.SplittableRandom;
+
+/**
+ * Bancs d'essai de VariantEngine selon la taille du plateau et le nombre de joueurs.
+ * Chaque mesure part de positions de milieu de partie obtenues par des parties aléatoires à graine fixe.
+ * treeWalk parcourt l'arbre complet à profondeur fixe avec makeMove et unmakeMove : son coût suit le facteur de
+ * branchement à la puissance de la profondeur, ce qui donne l'ordre de grandeur atteignable par les agents de recherche.
+ * La méthode main affiche aussi, pour chaque variante, le facteur de branchement moyen et la longueur des parties,
+ * puis mesure chaque opération par Bench ; voir Bench pour la compilation.
+ */
+public class VariantBenchmark {
+    static final int CORPUS_SIZE = 256;
+    static final long CORPUS_SEED = 20240501L;
+    static final int TREE_DEPTH = 3;
+    // Même limite que les simulations de MctsAgent : certaines parties aléatoires ne finissent jamais
+    static final int PLAYOUT_TURN_LIMIT = 200;
+    static final String[] VARIANTS = {"3x3x2", "4x4x2", "4x4x3", "6x6x3", "8x8x4"};
+
+    /**
+     * Corpus de positions d'une variante, décrite comme en ligne de commande (lignesxcolonnesxjoueurs).
+     */
+    static class Positions {
+        VariantEngine[] snapshots;
+        VariantEngine engine;
+        int[][] buffers;
+        SplittableRandom random;
+        int cursor;
+
+        Positions(String variant) {
+            VariantRules rules = VariantRules.parse(variant);
+            snapshots = corpus(rules, CORPUS_SIZE, CORPUS_SEED);
+            engine = new VariantEngine(rules);
+            buffers = new int[TREE_DEPTH + 1][rules.getMaxMoves()];
+            random = new SplittableRandom(CORPUS_SEED);
+        }
+
+        /**
+         * Charge la position suivante du corpus dans le moteur de travail.
+         * @return Le moteur de travail.
+         */
+        VariantEngine next() {
+            engine.copyFrom(snapshots[cursor]);
+            cursor = (cursor + 1) % snapshots.length;
+            return engine;
+        }
+    }
+
+    /**
+     * Produit des positions de milieu de partie en jouant des parties aléatoires et en gardant un tour entre 2 et 12.
+     * @param rules Les règles de la variante.
+     * @param size Le nombre de positions.
+     * @param seed La graine des parties.
+     * @return Les moteurs arrêtés sur chaque position, partie en cours.
+     */
+    static VariantEngine[] corpus(VariantRules rules, int size, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        VariantEngine[] corpus = new VariantEngine[size];
+        int[] moves = new int[rules.getMaxMoves()];
+        VariantEngine engine = new VariantEngine(rules);
+        int filled = 0;
+        while (filled < size) {
+            engine.reset();
+            int stopTurn = 2 + random.nextInt(11);
+            while (!engine.isOver() && engine.getTurn() < stopTurn) {
+                engine.applyMove(moves[random.nextInt(engine.generateMoves(moves))]);
+            }
+            if (engine.isOver()) continue;
+            corpus[filled] = new VariantEngine(rules);
+            corpus[filled++].copyFrom(engine);
+        }
+        return corpus;
+    }
+
+    static long generateMoves(Positions positions) {
+        return positions.next().generateMoves(positions.buffers[0]);
+    }
+
+    /**
+     * Termine la partie par des coups aléatoires, comme une simulation de MctsAgent.
+     */
+    static long randomPlayout(Positions positions) {
+        VariantEngine engine = positions.next();
+        int[] moves = positions.buffers[0];
+        while (!engine.isOver() && engine.getTurn() < PLAYOUT_TURN_LIMIT) {
+            engine.applyMove(moves[positions.random.nextInt(engine.generateMoves(moves))]);
+        }
+        return engine.getWinner();
+    }
+
+    static long treeWalk(Positions positions) {
+        return walk(positions.next(), positions.buffers, TREE_DEPTH);
+    }
+
+    /**
+     * Compte les feuilles de l'arbre des coups à profondeur fixe.
+     */
+    static long walk(VariantEngine engine, int[][] buffers, int depth) {
+        if (depth == 0 || engine.isOver()) return 1;
+        int[] moves = buffers[depth];
+        int count = engine.generateMoves(moves);
+        long leaves = 0;
+        for (int i = 0; i < count; i++) {
+            engine.makeMove(moves[i]);
+            leaves += walk(engine, buffers, depth - 1);
+            engine.unmakeMove();
+        }
+        return leaves;
+    }
+
+    /**
+     * Affiche le facteur de branchement et la longueur des parties de chaque variante, puis mesure chaque opération
+     * sur chaque variante.
+     * @param args Un filtre optionnel sur les noms des mesures, par exemple treeWalk ou 6x6x3.
+     */
+    public static void main(String[] args) {
+        for (String variant : VARIANTS) {
+            VariantRules rules = VariantRules.parse(variant);
+            VariantEngine engine = new VariantEngine(rules);
+            SplittableRandom random = new SplittableRandom(CORPUS_SEED);
+            int[] moves = new int[rules.getMaxMoves()];
+            long positions = 0, branches = 0, turns = 0;
+            int games = 10_000;
+            for (int game = 0; game < games; game++) {
+                engine.reset();
+                while (!engine.isOver() && engine.getTurn() < PLAYOUT_TURN_LIMIT) {
+                    int count = engine.generateMoves(moves);
+                    positions++;
+                    branches += count;
+                    engine.applyMove(moves[random.nextInt(count)]);
+                }
+                turns += engine.getTurn();
+            }
+            System.out.printf("%-6s (%s) : %.2f coups par position, %.1f tours par partie%n",
+                    variant, rules, (double) branches / positions, (double) turns / games);
+        }
+        Bench bench = new Bench("VariantBenchmark", args.length > 0 ? args[0] : null);
+        for (String variant : VARIANTS) {
+            Positions positions = new Positions(variant);
+            bench.add("generateMoves[" + variant + "]", () -> generateMoves(positions))
+                    .add("randomPlayout[" + variant + "]", () -> randomPlayout(positions))
+                    .add("treeWalk[" + variant + "]", () -> treeWalk(positions));
+        }
+        bench.run();
+    }
+}